@@ -24,6 +24,8 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.8.9")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("org.roaringbitmap:RoaringBitmap:1.3.0")
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 	runtimeOnly("org.postgresql:postgresql")
@@ -39,4 +41,5 @@ hibernate {
 
 tasks.withType<Test> {
 	useJUnitPlatform()
+	System.getProperty("benchmark")?.let { systemProperty("benchmark", it) }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package rodrigoschonardt.votingapi.orchestrator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rodrigoschonardt.votingapi.session.domain.event.SessionChangedEvent;
+import rodrigoschonardt.votingapi.session.domain.event.SessionCreatedEvent;
+import rodrigoschonardt.votingapi.topic.domain.event.TopicUpdatedEvent;
+import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsData;
+import rodrigoschonardt.votingapi.vote.domain.event.VoteDeletedEvent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Resultados por tópico. Tópicos com todas as sessões encerradas não mudam mais e ficam fixados (sem expiração,
+// apenas sujeitos ao limite de tamanho); tópicos com sessões abertas expiram após um TTL curto.
+// Alterações que mudariam um resultado fixado (sessão criada/alterada/removida, voto removido, tópico editado) o invalidam.
+@Component
+public class TopicResultsCache {
+    private final Cache<Long, TopicResultsSnapshot> results;
+
+    public TopicResultsCache(MeterRegistry meterRegistry,
+                             @Value("${votingapi.topics.results-cache.max-size:10000}") long maxSize,
+                             @Value("${votingapi.topics.results-cache.open-ttl-ms:1000}") long openTtlMs) {
+        long openTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openTtlMs));
+
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, TopicResultsSnapshot>() {
+                    @Override
+                    public long expireAfterCreate(Long topicId, TopicResultsSnapshot snapshot, long currentTime) {
+                        return snapshot.closed() ? Long.MAX_VALUE : openTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long topicId, TopicResultsSnapshot snapshot, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(topicId, snapshot, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long topicId, TopicResultsSnapshot snapshot, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "topic-results");
+        Gauge.builder("votingapi.topics.results-cache.snapshots", this, TopicResultsCache::snapshots)
+                .description("Results of fully closed topics pinned in memory")
+                .register(meterRegistry);
+    }
+
+    // Um resultado fixado calculado antes da versão atual (bumpAll, versão descartada do mapa, voto de uma sessão já
+    // encerrada) é recalculado e substitui a entrada
+    public TopicResultsSnapshot get(Long topicId, ToLongFunction<Long> versions,
+                                    Function<Long, TopicResultsSnapshot> loader) {
+        TopicResultsSnapshot snapshot = results.get(topicId, loader);
+
+        if (isFresh(topicId, snapshot, versions)) {
+            return snapshot;
+        }
+
+        return replace(topicId, loader.apply(topicId));
+    }
+
+    // Tópicos ausentes do cache (ou desatualizados) são carregados juntos pelo loader; os que ele não retornar ficam
+    // fora do mapa
+    public Map<Long, TopicResultsData> getAll(Iterable<Long> topicIds, ToLongFunction<Long> versions,
+                                              Function<Set<? extends Long>, Map<Long, TopicResultsSnapshot>> loader) {
+        Map<Long, TopicResultsData> data = new HashMap<>();
+        Set<Long> stale = new HashSet<>();
+
+        results.getAll(topicIds, loader).forEach((topicId, snapshot) -> {
+            if (isFresh(topicId, snapshot, versions)) {
+                data.put(topicId, snapshot.data());
+            } else {
+                stale.add(topicId);
+            }
+        });
+
+        if (!stale.isEmpty()) {
+            loader.apply(stale).forEach((topicId, snapshot) -> data.put(topicId, replace(topicId, snapshot).data()));
+        }
+
+        return data;
+    }
+
+    // Resultado em cache que seria servido agora, sem carregar; null se ausente ou desatualizado
+    public TopicResultsSnapshot getIfPresent(Long topicId, ToLongFunction<Long> versions) {
+        TopicResultsSnapshot snapshot = results.getIfPresent(topicId);
+
+        return snapshot != null && isFresh(topicId, snapshot, versions) ? snapshot : null;
+    }
+
+    public void invalidate(Long topicId) {
+        results.invalidate(topicId);
+    }
+
+    // Após o commit, para que uma leitura concorrente não recoloque o resultado antigo no cache
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionCreated(SessionCreatedEvent event) {
+        invalidate(event.topicId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        invalidate(event.topicId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoteDeleted(VoteDeletedEvent event) {
+        invalidate(event.topicId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopicUpdated(TopicUpdatedEvent event) {
+        invalidate(event.topicId());
+    }
+
+    // Com sessões abertas a versão avança a cada voto: o resultado vale pelo TTL, e só o fixado é comparado com a versão
+    private static boolean isFresh(Long topicId, TopicResultsSnapshot snapshot, ToLongFunction<Long> versions) {
+        return !snapshot.closed() || snapshot.version() >= versions.applyAsLong(topicId);
+    }
+
+    // Mantém a entrada mais nova quando duas leituras recalculam o mesmo tópico ao mesmo tempo
+    private TopicResultsSnapshot replace(Long topicId, TopicResultsSnapshot snapshot) {
+        return results.asMap().merge(topicId, snapshot,
+                (current, fresh) -> fresh.version() >= current.version() ? fresh : current);
+    }
+
+    private double snapshots() {
+        return results.asMap().values().stream().filter(TopicResultsSnapshot::closed).count();
+    }
+
+    // closed: todas as sessões finalizadas (session_results), o resultado não muda mais
+    // version/etag: versão do tópico lida antes do cálculo; o resultado inclui pelo menos as alterações até ela
+    public record TopicResultsSnapshot(TopicResultsData data, boolean closed, long version, String etag) {
+    }
+}
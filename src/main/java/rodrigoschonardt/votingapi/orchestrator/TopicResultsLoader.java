@@ -0,0 +1,124 @@
+package rodrigoschonardt.votingapi.orchestrator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRepository;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRow;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+// Leitura do resultado de um tópico. Tópicos com muitas sessões são divididos em faixas de ids de sessão, uma consulta
+// por faixa em um ForkJoinPool próprio, e as linhas parciais são unidas; os demais usam a consulta única.
+// Só os tópicos já vistos como grandes (pela contagem de sessões da própria consulta única) listam os ids de sessão
+// antes de ler; a primeira leitura de um tópico grande ainda é feita em uma consulta só.
+// O pool limita as consultas simultâneas por leitura: parallelism deve ficar abaixo do tamanho do pool de conexões.
+@Component
+public class TopicResultsLoader {
+    private final TopicResultsRepository topicResultsRepository;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final Cache<Long, Boolean> largeTopics;
+
+    public TopicResultsLoader(TopicResultsRepository topicResultsRepository,
+                              @Value("${votingapi.topics.results.parallelism:4}") int parallelism,
+                              @Value("${votingapi.topics.results.chunk-size:250}") int chunkSize,
+                              @Value("${votingapi.topics.results.max-large-topics:10000}") long maxLargeTopics) {
+        this.topicResultsRepository = topicResultsRepository;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.largeTopics = Caffeine.newBuilder()
+                .maximumSize(maxLargeTopics)
+                .build();
+        this.pool = new ForkJoinPool(Math.max(1, parallelism), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("topic-results-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    public Optional<TopicResultsRow> findByTopicId(Long topicId) {
+        if (largeTopics.getIfPresent(topicId) == null) {
+            Optional<TopicResultsRow> row = topicResultsRepository.findByTopicId(topicId);
+
+            if (row.filter(this::isLarge).isPresent()) {
+                largeTopics.put(topicId, Boolean.TRUE);
+            }
+
+            return row;
+        }
+
+        List<Long> sessionIds = topicResultsRepository.findSessionIds(topicId);
+
+        // Tópico que deixou de ser grande (sessões removidas) volta para a consulta única
+        if (sessionIds.size() <= chunkSize) {
+            largeTopics.invalidate(topicId);
+            return topicResultsRepository.findByTopicId(topicId);
+        }
+
+        int chunks = (sessionIds.size() + chunkSize - 1) / chunkSize;
+
+        return pool.invoke(new ChunkTask(topicId, sessionIds, 0, chunks));
+    }
+
+    // A consulta retorna uma linha por sessão do tópico, com ou sem votos
+    private boolean isLarge(TopicResultsRow row) {
+        return row.sessionTallies().size() + row.finalizedTallies().size() > chunkSize;
+    }
+
+    // Divide as faixas ao meio até sobrar uma; cada folha é uma consulta
+    private final class ChunkTask extends RecursiveTask<Optional<TopicResultsRow>> {
+        private final Long topicId;
+        private final List<Long> sessionIds;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ChunkTask(Long topicId, List<Long> sessionIds, int fromChunk, int toChunk) {
+            this.topicId = topicId;
+            this.sessionIds = sessionIds;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected Optional<TopicResultsRow> compute() {
+            if (toChunk - fromChunk == 1) {
+                return topicResultsRepository.findByTopicIdAndSessionIdRange(topicId, lowerBound(fromChunk),
+                        upperBound(fromChunk));
+            }
+
+            int middle = (fromChunk + toChunk) >>> 1;
+            ChunkTask left = new ChunkTask(topicId, sessionIds, fromChunk, middle);
+            left.fork();
+
+            Optional<TopicResultsRow> right = new ChunkTask(topicId, sessionIds, middle, toChunk).compute();
+            Optional<TopicResultsRow> leftRow = left.join();
+
+            if (leftRow.isEmpty() || right.isEmpty()) {
+                return leftRow.isEmpty() ? right : leftRow;
+            }
+
+            return Optional.of(leftRow.get().plus(right.get()));
+        }
+
+        // Faixas contíguas e abertas nas pontas: sessões criadas depois da listagem de ids também são lidas
+        private long lowerBound(int chunk) {
+            return chunk == 0 ? Long.MIN_VALUE : sessionIds.get(chunk * chunkSize);
+        }
+
+        private long upperBound(int chunk) {
+            int next = (chunk + 1) * chunkSize;
+            return next >= sessionIds.size() ? Long.MAX_VALUE : sessionIds.get(next) - 1;
+        }
+    }
+}
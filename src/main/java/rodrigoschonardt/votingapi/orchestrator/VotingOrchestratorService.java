@@ -1,33 +1,58 @@
 package rodrigoschonardt.votingapi.orchestrator;
 
 import org.springframework.stereotype.Service;
+import rodrigoschonardt.votingapi.orchestrator.TopicResultsCache.TopicResultsSnapshot;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRepository;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRow;
+import rodrigoschonardt.votingapi.session.domain.model.Session;
 import rodrigoschonardt.votingapi.session.domain.service.SessionService;
-import rodrigoschonardt.votingapi.topic.domain.model.Topic;
+import rodrigoschonardt.votingapi.session.web.dto.SessionResultsData;
+import rodrigoschonardt.votingapi.session.web.dto.TimelineBucketData;
+import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
 import rodrigoschonardt.votingapi.topic.domain.service.TopicService;
 import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsData;
-import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.model.SessionTimeline;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+import rodrigoschonardt.votingapi.vote.domain.service.TopicResultsVersions;
 import rodrigoschonardt.votingapi.vote.domain.service.VoteService;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class VotingOrchestratorService {
     private final TopicService topicService;
     private final SessionService sessionService;
     private final VoteService voteService;
+    private final TopicResultsRepository topicResultsRepository;
+    private final TopicResultsLoader topicResultsLoader;
+    private final TopicResultsCache topicResultsCache;
+    private final TopicResultsVersions topicResultsVersions;
 
     // Service responsável por interagir com os múltiplos domínios
-    public VotingOrchestratorService(TopicService topicService, SessionService sessionService, VoteService voteService) {
+    public VotingOrchestratorService(TopicService topicService, SessionService sessionService, VoteService voteService,
+                                     TopicResultsRepository topicResultsRepository, TopicResultsLoader topicResultsLoader,
+                                     TopicResultsCache topicResultsCache, TopicResultsVersions topicResultsVersions) {
         this.topicService = topicService;
         this.sessionService = sessionService;
         this.voteService = voteService;
+        this.topicResultsRepository = topicResultsRepository;
+        this.topicResultsLoader = topicResultsLoader;
+        this.topicResultsCache = topicResultsCache;
+        this.topicResultsVersions = topicResultsVersions;
     }
 
     public void deleteTopicSessionsAndVotes(Long topicId) {
         voteService.deleteAllByTopic(topicId);
         sessionService.deleteAllByTopic(topicId);
         topicService.delete(topicId);
+        topicResultsCache.invalidate(topicId);
+        topicResultsVersions.bump(topicId);
     }
 
     public void deleteSessionAndVotes(Long sessionId) {
@@ -36,20 +61,94 @@ public class VotingOrchestratorService {
     }
 
     public TopicResultsData getTopicResults(Long topicId) {
-        Topic topic = topicService.get(topicId);
+        return getTopicResultsSnapshot(topicId).data();
+    }
+
+    public TopicResultsSnapshot getTopicResultsSnapshot(Long topicId) {
+        return topicResultsCache.get(topicId, topicResultsVersions::current, this::computeTopicResults);
+    }
+
+    // Apenas memória, sem consultar o banco nem calcular o resultado: a ETag do resultado em cache que seria servido,
+    // ou a da versão atual
+    public String getTopicResultsETag(Long topicId) {
+        TopicResultsSnapshot cached = topicResultsCache.getIfPresent(topicId, topicResultsVersions::current);
+
+        return cached != null ? cached.etag() : topicResultsVersions.etag(topicResultsVersions.current(topicId));
+    }
+
+    // Resultados de vários tópicos com uma única consulta para os que não estão em cache; tópicos inexistentes
+    // ficam fora do mapa
+    public Map<Long, TopicResultsData> getTopicResults(List<Long> topicIds) {
+        return topicResultsCache.getAll(topicIds, topicResultsVersions::current, this::computeAllTopicResults);
+    }
 
-        Integer countSessions = sessionService.countByTopic(topicId);
+    private TopicResultsSnapshot computeTopicResults(Long topicId) {
+        long version = topicResultsVersions.current(topicId);
+
+        TopicResultsRow row = topicResultsLoader.findByTopicId(topicId)
+                .orElseThrow(() -> new EntityNotFoundException("Topic", "ID " + topicId));
+
+        return toSnapshot(row, version);
+    }
+
+    private Map<Long, TopicResultsSnapshot> computeAllTopicResults(Set<? extends Long> topicIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        Map<Long, TopicResultsSnapshot> snapshots = new HashMap<>();
+
+        topicIds.forEach(topicId -> versions.put(topicId, topicResultsVersions.current(topicId)));
+        topicResultsRepository.findByTopicIds(topicIds)
+                .forEach((topicId, row) -> snapshots.put(topicId, toSnapshot(row, versions.get(topicId))));
+
+        return snapshots;
+    }
 
-        Integer countYes = voteService.countByTopicAndOption(topicId, Vote.VoteOption.YES);
-        Integer countNo = voteService.countByTopicAndOption(topicId, Vote.VoteOption.NO);
+    private TopicResultsSnapshot toSnapshot(TopicResultsRow row, long version) {
+        Long topicId = row.topicId();
+        // Sessões finalizadas entram com o resultado gravado; apenas as demais passam pelas contagens em memória
+        VoteTally tally = row.finalizedTallies().values().stream()
+                .reduce(voteService.countBySessions(row.sessionTallies()), VoteTally::plus);
 
+        Integer countSessions = row.sessionTallies().size() + row.finalizedTallies().size();
+        Integer countYes = Math.toIntExact(tally.yes());
+        Integer countNo = Math.toIntExact(tally.no());
+
+        TopicResultsData results = new TopicResultsData(topicId, row.title(), row.description(),
+                countSessions, countYes, countNo, yesPercentage(countYes, countNo));
+
+        // Fixado apenas com todas as sessões finalizadas: o SessionResultFinalizer só grava depois da margem para votos
+        // ainda no journal ou no group commit, que chegariam depois sem invalidar o cache
+        boolean closed = !row.finalizedTallies().isEmpty() && row.sessionTallies().isEmpty();
+
+        return new TopicResultsSnapshot(results, closed, version, topicResultsVersions.etag(version));
+    }
+
+    public SessionResultsData getSessionResults(Long sessionId) {
+        Session session = sessionService.get(sessionId);
+
+        VoteTally tally = voteService.countBySession(sessionId);
+        SessionTimeline timeline = voteService.getTimeline(sessionId, session.getStartTime(), session.getEndTime(),
+                sessionService.isVotingClosed(session));
+
+        Integer countYes = Math.toIntExact(tally.yes());
+        Integer countNo = Math.toIntExact(tally.no());
+
+        List<TimelineBucketData> buckets = new ArrayList<>(timeline.counts().length);
+
+        for (int i = 0; i < timeline.counts().length; i++) {
+            buckets.add(new TimelineBucketData(timeline.startTime().plusSeconds((long) i * timeline.bucketSeconds()),
+                    timeline.counts()[i]));
+        }
+
+        return new SessionResultsData(sessionId, session.getTopic().getId(), session.getStartTime(), session.getEndTime(),
+                countYes, countNo, yesPercentage(countYes, countNo), timeline.bucketSeconds(), buckets);
+    }
+
+    private static Integer yesPercentage(Integer countYes, Integer countNo) {
         Integer totalVotes = countYes + countNo;
-        Integer yesPercentage = totalVotes > 0 ?
+
+        return totalVotes > 0 ?
                 BigDecimal.valueOf(countYes * 100.0 / totalVotes)
                         .setScale(0, RoundingMode.HALF_UP)
                         .intValue() : 0;
-
-        return new TopicResultsData(topicId, topic.getTitle(), topic.getDescription(),
-                countSessions, countYes, countNo, yesPercentage);
     }
 }
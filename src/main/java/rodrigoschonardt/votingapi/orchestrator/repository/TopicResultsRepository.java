@@ -0,0 +1,134 @@
+package rodrigoschonardt.votingapi.orchestrator.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Dados do resultado de um tópico (campos do tópico, sessões e contagem por opção) em um único statement
+@Repository
+public class TopicResultsRepository {
+    // Uma linha por sessão; tópicos sem sessões retornam uma única linha com session_id nulo.
+    // Sessões finalizadas usam session_results e não leem session_tallies.
+    private static final String SELECT_SQL = """
+            SELECT t.id AS topic_id, t.title, t.description, s.id AS session_id, s.end_time,
+                   sr.session_id IS NOT NULL AS finalized,
+                   coalesce(sr.votes_yes, sum(st.count) FILTER (WHERE st.vote_option = ?), 0) AS yes_count,
+                   coalesce(sr.votes_no, sum(st.count) FILTER (WHERE st.vote_option = ?), 0) AS no_count
+            FROM topics t
+            LEFT JOIN sessions s ON s.topic_id = t.id
+            LEFT JOIN session_results sr ON sr.session_id = s.id
+            LEFT JOIN session_tallies st ON st.session_id = s.id AND sr.session_id IS NULL
+            """;
+    private static final String FIND_BY_TOPIC_ID_SQL = SELECT_SQL + """
+            WHERE t.id = ?
+            GROUP BY t.id, s.id, sr.session_id
+            """;
+    private static final String FIND_BY_TOPIC_IDS_SQL = SELECT_SQL + """
+            WHERE t.id = ANY(?)
+            GROUP BY t.id, s.id, sr.session_id
+            """;
+    // Faixa de sessões de um tópico grande; os limites vêm de findSessionIds
+    private static final String FIND_BY_TOPIC_ID_AND_SESSION_RANGE_SQL = SELECT_SQL + """
+            WHERE t.id = ? AND s.id BETWEEN ? AND ?
+            GROUP BY t.id, s.id, sr.session_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TopicResultsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<TopicResultsRow> findByTopicId(Long topicId) {
+        return Optional.ofNullable(jdbcTemplate.query(FIND_BY_TOPIC_ID_SQL, TopicResultsRepository::extract,
+                Vote.VoteOption.YES.ordinal(), Vote.VoteOption.NO.ordinal(), topicId).get(topicId));
+    }
+
+    // Usa idx_voting_sessions_topic_id; define as faixas da leitura paralela
+    public List<Long> findSessionIds(Long topicId) {
+        return jdbcTemplate.queryForList("SELECT id FROM sessions WHERE topic_id = ? ORDER BY id", Long.class, topicId);
+    }
+
+    // Vazio quando não há sessões do tópico na faixa (ou o tópico não existe)
+    public Optional<TopicResultsRow> findByTopicIdAndSessionIdRange(Long topicId, long fromSessionId, long toSessionId) {
+        return Optional.ofNullable(jdbcTemplate.query(FIND_BY_TOPIC_ID_AND_SESSION_RANGE_SQL,
+                TopicResultsRepository::extract, Vote.VoteOption.YES.ordinal(), Vote.VoteOption.NO.ordinal(), topicId,
+                fromSessionId, toSessionId).get(topicId));
+    }
+
+    // Vários tópicos no mesmo statement; ids inexistentes ficam fora do mapa
+    public Map<Long, TopicResultsRow> findByTopicIds(Collection<? extends Long> topicIds) {
+        if (topicIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return jdbcTemplate.query(FIND_BY_TOPIC_IDS_SQL, TopicResultsRepository::extract,
+                Vote.VoteOption.YES.ordinal(), Vote.VoteOption.NO.ordinal(), topicIds.toArray(Long[]::new));
+    }
+
+    private static Map<Long, TopicResultsRow> extract(ResultSet rs) throws SQLException {
+        Map<Long, RowBuilder> builders = new LinkedHashMap<>();
+
+        while (rs.next()) {
+            long topicId = rs.getLong("topic_id");
+            RowBuilder builder = builders.get(topicId);
+
+            if (builder == null) {
+                builder = new RowBuilder(topicId, rs.getString("title"), rs.getString("description"));
+                builders.put(topicId, builder);
+            }
+
+            long sessionId = rs.getLong("session_id");
+
+            if (rs.wasNull()) {
+                continue;
+            }
+
+            builder.add(sessionId, new VoteTally(rs.getLong("yes_count"), rs.getLong("no_count")),
+                    rs.getTimestamp("end_time").toLocalDateTime(), rs.getBoolean("finalized"));
+        }
+
+        Map<Long, TopicResultsRow> rows = new LinkedHashMap<>();
+        builders.forEach((topicId, builder) -> rows.put(topicId, builder.build()));
+
+        return rows;
+    }
+
+    private static final class RowBuilder {
+        private final Long topicId;
+        private final String title;
+        private final String description;
+        private final Map<Long, VoteTally> sessionTallies = new HashMap<>();
+        private final Map<Long, VoteTally> finalizedTallies = new HashMap<>();
+        private LocalDateTime lastEndTime;
+
+        RowBuilder(Long topicId, String title, String description) {
+            this.topicId = topicId;
+            this.title = title;
+            this.description = description;
+        }
+
+        void add(Long sessionId, VoteTally tally, LocalDateTime endTime, boolean finalized) {
+            (finalized ? finalizedTallies : sessionTallies).put(sessionId, tally);
+
+            if (lastEndTime == null || endTime.isAfter(lastEndTime)) {
+                lastEndTime = endTime;
+            }
+        }
+
+        TopicResultsRow build() {
+            return new TopicResultsRow(topicId, title, description, lastEndTime, sessionTallies, finalizedTallies);
+        }
+    }
+}
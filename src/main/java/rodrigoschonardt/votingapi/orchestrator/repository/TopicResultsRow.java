@@ -0,0 +1,29 @@
+package rodrigoschonardt.votingapi.orchestrator.repository;
+
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Tópico e a contagem gravada de cada uma das suas sessões; lastEndTime é nulo quando o tópico não tem sessões.
+// sessionTallies: sessões ainda não finalizadas (session_tallies); finalizedTallies: resultado final (session_results)
+public record TopicResultsRow(Long topicId, String title, String description, LocalDateTime lastEndTime,
+                              Map<Long, VoteTally> sessionTallies, Map<Long, VoteTally> finalizedTallies) {
+
+    // Junta linhas do mesmo tópico lidas sobre faixas de sessões disjuntas
+    public TopicResultsRow plus(TopicResultsRow other) {
+        Map<Long, VoteTally> mergedSessions = new HashMap<>(sessionTallies);
+        Map<Long, VoteTally> mergedFinalized = new HashMap<>(finalizedTallies);
+        mergedSessions.putAll(other.sessionTallies);
+        mergedFinalized.putAll(other.finalizedTallies);
+
+        LocalDateTime mergedEndTime = lastEndTime;
+
+        if (mergedEndTime == null || other.lastEndTime != null && other.lastEndTime.isAfter(mergedEndTime)) {
+            mergedEndTime = other.lastEndTime;
+        }
+
+        return new TopicResultsRow(topicId, title, description, mergedEndTime, mergedSessions, mergedFinalized);
+    }
+}
@@ -0,0 +1,5 @@
+package rodrigoschonardt.votingapi.session.domain.event;
+
+// Janela alterada ou sessão removida
+public record SessionChangedEvent(Long sessionId, Long topicId) {
+}
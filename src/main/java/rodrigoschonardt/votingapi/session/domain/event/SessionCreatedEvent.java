@@ -0,0 +1,4 @@
+package rodrigoschonardt.votingapi.session.domain.event;
+
+public record SessionCreatedEvent(Long sessionId, Long topicId) {
+}
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 @Table(name = "sessions")
 public class Session {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_id_seq")
+    @SequenceGenerator(name = "sessions_id_seq", sequenceName = "sessions_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_time", nullable = false)
@@ -2,14 +2,29 @@ package rodrigoschonardt.votingapi.session.domain.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import rodrigoschonardt.votingapi.session.domain.model.Session;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Long> {
+    // Pauta na mesma consulta: sem open-in-view ela não é carregada depois, ao montar a resposta
+    @Override
+    @EntityGraph(attributePaths = "topic")
+    Optional<Session> findById(Long id);
+
+    @EntityGraph(attributePaths = "topic")
     Page<Session> findAllByTopicId(Long topicId, Pageable pageable);
 
+    @Query("SELECT s.id FROM Session s WHERE s.topic.id = :topicId")
+    List<Long> findAllIdsByTopicId(@Param("topicId") Long topicId);
+
     void deleteAllByTopicId(Long topicId);
     Integer countAllByTopicId(Long topicId);
 }
@@ -2,9 +2,13 @@ package rodrigoschonardt.votingapi.session.domain.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rodrigoschonardt.votingapi.session.domain.event.SessionChangedEvent;
+import rodrigoschonardt.votingapi.session.domain.event.SessionCreatedEvent;
 import rodrigoschonardt.votingapi.session.domain.model.Session;
 import rodrigoschonardt.votingapi.session.domain.repository.SessionRepository;
 import rodrigoschonardt.votingapi.session.web.dto.AddSessionData;
@@ -16,6 +20,7 @@ import rodrigoschonardt.votingapi.topic.domain.model.Topic;
 import rodrigoschonardt.votingapi.topic.domain.service.TopicService;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public class SessionService {
@@ -23,19 +28,27 @@ public class SessionService {
     private final SessionRepository sessionRepository;
     private final SessionMapper sessionMapper;
     private final TopicService topicService;
+    private final SessionWindowCache sessionWindowCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SessionService(SessionRepository sessionRepository, SessionMapper sessionMapper, TopicService topicService) {
+    public SessionService(SessionRepository sessionRepository, SessionMapper sessionMapper, TopicService topicService,
+                          SessionWindowCache sessionWindowCache, ApplicationEventPublisher eventPublisher) {
         this.sessionRepository = sessionRepository;
         this.sessionMapper = sessionMapper;
         this.topicService = topicService;
+        this.sessionWindowCache = sessionWindowCache;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public Session add(AddSessionData sessionData) {
         Topic topic = topicService.get(sessionData.topicId());
 
         Session session = sessionMapper.toEntity(sessionData, topic);
 
         session = sessionRepository.save(session);
+        // A partição de votos da sessão é criada pelo domínio de votos, na mesma transação
+        eventPublisher.publishEvent(new SessionCreatedEvent(session.getId(), topic.getId()));
 
         LOG.info("Session added successfully with ID: {}", session.getId());
 
@@ -43,9 +56,11 @@ public class SessionService {
     }
 
     public void delete(Long id) {
-        get(id);
+        Session session = get(id);
 
         sessionRepository.deleteById(id);
+        sessionWindowCache.invalidate(id);
+        eventPublisher.publishEvent(new SessionChangedEvent(id, session.getTopic().getId()));
 
         LOG.info("Session deleted successfully with ID: {}", id);
     }
@@ -65,6 +80,8 @@ public class SessionService {
         session = sessionMapper.updateEntity(sessionData, session);
 
         session = sessionRepository.save(session);
+        sessionWindowCache.invalidate(session.getId());
+        eventPublisher.publishEvent(new SessionChangedEvent(session.getId(), session.getTopic().getId()));
 
         LOG.info("Session updated successfully with ID: {}", session.getId());
 
@@ -74,7 +91,10 @@ public class SessionService {
     public void deleteAllByTopic(Long topicId) {
         topicService.get(topicId);
 
+        List<Long> sessionIds = sessionRepository.findAllIdsByTopicId(topicId);
+
         sessionRepository.deleteAllByTopicId(topicId);
+        sessionWindowCache.invalidateAll(sessionIds);
 
         LOG.info("Sessions deleted successfully with topic ID: {}", topicId);
     }
@@ -84,6 +104,10 @@ public class SessionService {
                 .orElseThrow(() -> new EntityNotFoundException("Session", "ID " + id));
     }
 
+    public Session getReference(Long id) {
+        return sessionRepository.getReferenceById(id);
+    }
+
     public Page<Session> getAllByTopic(Long topicId, Pageable pageable) {
         Topic topic = topicService.get(topicId);
 
@@ -92,10 +116,23 @@ public class SessionService {
         return sessions;
     }
 
+    public List<Long> getIdsByTopic(Long topicId) {
+        return sessionRepository.findAllIdsByTopicId(topicId);
+    }
+
     public Integer countByTopic(Long topicId) {
         return sessionRepository.countAllByTopicId(topicId);
     }
 
+    // Consulta a janela em cache, sem SELECT em sessions enquanto a sessão estiver em uso
+    public boolean isVotingOpen(Long sessionId) {
+        return sessionWindowCache.get(sessionId).isOpen(System.currentTimeMillis());
+    }
+
+    public Long getTopicId(Long sessionId) {
+        return sessionWindowCache.get(sessionId).topicId();
+    }
+
     public boolean isVotingOpen(Session session) {
         // Adição da injeção de Clock para testes
         LocalDateTime now = LocalDateTime.now();
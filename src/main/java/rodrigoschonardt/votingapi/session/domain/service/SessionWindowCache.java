@@ -0,0 +1,71 @@
+package rodrigoschonardt.votingapi.session.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.session.domain.model.Session;
+import rodrigoschonardt.votingapi.session.domain.repository.SessionRepository;
+import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Janela de votação (e tópico) das sessões em memória, evitando carregar a entidade Session a cada voto
+@Component
+public class SessionWindowCache {
+    private final SessionRepository sessionRepository;
+    private final Cache<Long, SessionWindow> windows;
+
+    public SessionWindowCache(SessionRepository sessionRepository, MeterRegistry meterRegistry,
+                              @Value("${votingapi.sessions.window-cache.max-size:10000}") long maxSize) {
+        this.sessionRepository = sessionRepository;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, windows, "session-windows");
+    }
+
+    public SessionWindow get(Long sessionId) {
+        // Sessões inexistentes não são cacheadas, o ID pode ser criado depois
+        SessionWindow window = windows.get(sessionId, id -> sessionRepository.findById(id)
+                .map(SessionWindow::of)
+                .orElse(null));
+
+        if (window == null) {
+            throw new EntityNotFoundException("Session", "ID " + sessionId);
+        }
+
+        return window;
+    }
+
+    public void invalidate(Long sessionId) {
+        windows.invalidate(sessionId);
+    }
+
+    public void invalidateAll(Iterable<Long> sessionIds) {
+        windows.invalidateAll(sessionIds);
+    }
+
+    public record SessionWindow(long startMillis, long endMillis, Long topicId) {
+        static SessionWindow of(Session session) {
+            return new SessionWindow(toMillis(session.getStartTime()), toMillis(session.getEndTime()),
+                    session.getTopic().getId());
+        }
+
+        public boolean isOpen(long nowMillis) {
+            return nowMillis >= startMillis && nowMillis <= endMillis;
+        }
+
+        public boolean isClosed(long nowMillis) {
+            return nowMillis > endMillis;
+        }
+
+        private static long toMillis(LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import rodrigoschonardt.votingapi.session.domain.model.Session;
 import rodrigoschonardt.votingapi.session.domain.service.SessionService;
 import rodrigoschonardt.votingapi.session.web.dto.AddSessionData;
 import rodrigoschonardt.votingapi.session.web.dto.SessionDetailsData;
+import rodrigoschonardt.votingapi.session.web.dto.SessionResultsData;
 import rodrigoschonardt.votingapi.session.web.dto.UpdateSessionData;
 import rodrigoschonardt.votingapi.session.web.mapper.SessionMapper;
 
@@ -69,6 +70,12 @@ public class SessionController {
         return ResponseEntity.ok(sessionMapper.toSessionDetails(session));
     }
 
+    @GetMapping("/{id}/results")
+    @Operation(summary = "Buscar resultados da sessão")
+    public ResponseEntity<SessionResultsData> getResults(@PathVariable Long id) {
+        return ResponseEntity.ok(votingOrchestratorService.getSessionResults(id));
+    }
+
     @GetMapping("/topic/{topicId}")
     @Operation(summary = "Buscar todas sessões da pauta")
     public ResponseEntity<Page<SessionDetailsData>> getAllByTopic(@PathVariable Long topicId, Pageable pageable) {
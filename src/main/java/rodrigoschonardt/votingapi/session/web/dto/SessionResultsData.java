@@ -0,0 +1,9 @@
+package rodrigoschonardt.votingapi.session.web.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record SessionResultsData(Long id, Long topicId, LocalDateTime startTime, LocalDateTime endTime,
+                                 Integer votesYesCount, Integer votesNoCount, Integer yesPercentage,
+                                 Integer bucketSeconds, List<TimelineBucketData> timeline) {
+}
@@ -0,0 +1,6 @@
+package rodrigoschonardt.votingapi.session.web.dto;
+
+import java.time.LocalDateTime;
+
+public record TimelineBucketData(LocalDateTime start, Long votes) {
+}
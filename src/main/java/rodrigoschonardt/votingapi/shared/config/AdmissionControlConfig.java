@@ -0,0 +1,51 @@
+package rodrigoschonardt.votingapi.shared.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import rodrigoschonardt.votingapi.shared.web.AdaptiveConcurrencyLimiter;
+import rodrigoschonardt.votingapi.shared.web.AdmissionControlFilter;
+
+import java.util.Set;
+
+// Um único limite para cadastro de votos e leitura de resultados: os dois disputam o mesmo banco.
+// Consultas, atualizações e remoções de votos não passam pelo limite.
+@Configuration
+@ConditionalOnProperty(name = "votingapi.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                                                 @Value("${votingapi.admission.initial-limit:50}") int initialLimit,
+                                                                 @Value("${votingapi.admission.min-limit:8}") int minLimit,
+                                                                 @Value("${votingapi.admission.max-limit:500}") int maxLimit,
+                                                                 @Value("${votingapi.admission.smoothing:0.2}") double smoothing,
+                                                                 @Value("${votingapi.admission.max-queue-ms:50}") long maxQueueMs,
+                                                                 @Value("${votingapi.admission.target-latency-ms:1000}") long targetLatencyMs) {
+        return new AdaptiveConcurrencyLimiter(meterRegistry, initialLimit, minLimit, maxLimit, smoothing, maxQueueMs, targetLatencyMs);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> voteAdmissionControlFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                                     @Value("${votingapi.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(limiter, retryAfterSeconds, Set.of(HttpMethod.POST.name())));
+        registration.setName("voteAdmissionControlFilter");
+        registration.addUrlPatterns("/api/v1/votes", "/api/v1/votes/batch", "/api/v1/topics/results:batch");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> resultAdmissionControlFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                                       @Value("${votingapi.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(limiter, retryAfterSeconds, Set.of(HttpMethod.GET.name())));
+        registration.setName("resultAdmissionControlFilter");
+        registration.addUrlPatterns("/api/v1/topics/result/*");
+        return registration;
+    }
+}
@@ -0,0 +1,56 @@
+package rodrigoschonardt.votingapi.shared.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import rodrigoschonardt.votingapi.shared.jdbc.ConcurrencyLimitingDataSource;
+import rodrigoschonardt.votingapi.shared.monitoring.PinnedVirtualThreadMonitor;
+
+import java.time.Duration;
+
+// Ativada com spring.threads.virtual.enabled=true (handlers MVC em threads virtuais)
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                               @Value("${votingapi.jdbc.limiter.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+
+                // Mesmo tamanho do pool: quem passa pelo semáforo sempre encontra uma conexão livre
+                ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(hikari,
+                        hikari.getMaximumPoolSize(), acquireTimeoutMs);
+
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("votingapi.jdbc.limiter.available", limited, ConcurrencyLimitingDataSource::getAvailablePermits)
+                            .description("JDBC permits currently available")
+                            .register(registry);
+                    Gauge.builder("votingapi.jdbc.limiter.queued", limited, ConcurrencyLimitingDataSource::getQueueLength)
+                            .description("Threads waiting for a JDBC permit")
+                            .register(registry);
+                });
+
+                return limited;
+            }
+        };
+    }
+
+    @Bean
+    public PinnedVirtualThreadMonitor pinnedVirtualThreadMonitor(MeterRegistry meterRegistry,
+                                                                 @Value("${votingapi.virtual-threads.pinned-threshold-ms:20}") long thresholdMs) {
+        return new PinnedVirtualThreadMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+    }
+}
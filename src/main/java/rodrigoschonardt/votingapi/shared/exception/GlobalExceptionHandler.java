@@ -2,6 +2,8 @@ package rodrigoschonardt.votingapi.shared.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -17,18 +19,34 @@ import java.util.stream.Collectors;
 public class GlobalExceptionHandler {
     private static final Logger LOG = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
-    @ExceptionHandler({EntityAlreadyExistsException.class, InvalidSessionStateException.class})
+    @ExceptionHandler({EntityAlreadyExistsException.class, InvalidSessionStateException.class,
+            IdempotencyKeyConflictException.class})
     public ResponseEntity<Map<String, String>> handleConflict(RuntimeException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(Map.of("message", ex.getMessage()));
     }
 
+    // Perdedor de uma corrida contra as constraints UNIQUE do banco
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        LOG.warn("Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Entity already exists or references an invalid entity"));
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleEntityNotFound(EntityNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Map.of("message", ex.getMessage()));
     }
 
+    // Voto confirmado pelo journal e descartado na materialização (ver rejected_votes)
+    @ExceptionHandler(VoteRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleVoteRejected(VoteRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.GONE)
+                .body(Map.of("message", ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationException(MethodArgumentNotValidException ex) {
         String message = ex.getBindingResult().getFieldErrors().stream()
@@ -38,12 +56,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(Map.of("message", message));
     }
 
+    @ExceptionHandler(QueryTooBroadException.class)
+    public ResponseEntity<Map<String, String>> handleQueryTooBroad(QueryTooBroadException ex) {
+        return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+    }
+
     @ExceptionHandler(VotingNotAllowedException.class)
     public ResponseEntity<Map<String, String>> handleVotingNotAllowed(VotingNotAllowedException ex) {
         Map<String, String> body = Map.of("message", ex.getMessage());
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
     }
 
+    @ExceptionHandler(SubscriberLimitExceededException.class)
+    public ResponseEntity<Map<String, String>> handleSubscriberLimitExceeded(SubscriberLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("message", ex.getMessage()));
+    }
+
+    // Voto não gravado a tempo (writer sobrecarregado ou em parada): o cliente pode repetir o pedido
+    @ExceptionHandler(VoteWriteUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleVoteWriteUnavailable(VoteWriteUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", ex.getMessage()));
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<Map<String, String>> handleHttpMessageNotReadable(HttpMessageNotReadableException ex) {
         return ResponseEntity.badRequest().body(Map.of("message", "Invalid JSON format or data type"));
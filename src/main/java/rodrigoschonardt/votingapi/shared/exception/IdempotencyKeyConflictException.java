@@ -0,0 +1,7 @@
+package rodrigoschonardt.votingapi.shared.exception;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
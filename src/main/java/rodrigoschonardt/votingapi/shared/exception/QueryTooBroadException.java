@@ -0,0 +1,7 @@
+package rodrigoschonardt.votingapi.shared.exception;
+
+public class QueryTooBroadException extends RuntimeException {
+    public QueryTooBroadException(String subject, int limit) {
+        super("Query matches more than " + limit + " " + subject + ", narrow the filters");
+    }
+}
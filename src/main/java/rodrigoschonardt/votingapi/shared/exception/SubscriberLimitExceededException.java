@@ -0,0 +1,7 @@
+package rodrigoschonardt.votingapi.shared.exception;
+
+public class SubscriberLimitExceededException extends RuntimeException {
+    public SubscriberLimitExceededException(int limit) {
+        super("Subscriber limit of " + limit + " streams reached, try again later");
+    }
+}
@@ -0,0 +1,7 @@
+package rodrigoschonardt.votingapi.shared.exception;
+
+public class VoteRejectedException extends RuntimeException {
+    public VoteRejectedException(Long id, String reason) {
+        super("Vote with ID " + id + " was accepted but discarded before being stored: " + reason);
+    }
+}
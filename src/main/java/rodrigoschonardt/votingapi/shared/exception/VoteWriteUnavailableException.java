@@ -0,0 +1,7 @@
+package rodrigoschonardt.votingapi.shared.exception;
+
+public class VoteWriteUnavailableException extends RuntimeException {
+    public VoteWriteUnavailableException(String message) {
+        super(message);
+    }
+}
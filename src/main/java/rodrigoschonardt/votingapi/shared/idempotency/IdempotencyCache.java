@@ -0,0 +1,125 @@
+package rodrigoschonardt.votingapi.shared.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.shared.exception.IdempotencyKeyConflictException;
+import rodrigoschonardt.votingapi.shared.web.ResponsePreference;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Respostas de criação indexadas pelo header Idempotency-Key, para que retentativas do cliente não repitam o trabalho.
+// Pedidos concorrentes com a mesma chave aguardam o primeiro; falhas não são guardadas, a próxima tentativa executa de novo.
+// A representação negociada (Prefer/Accept) faz parte da comparação: a retentativa precisa pedir a mesma forma da resposta.
+@Component
+public class IdempotencyCache {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private final Cache<Key, Entry> entries;
+    private final long waitTimeoutMs;
+
+    public IdempotencyCache(MeterRegistry meterRegistry,
+                            @Value("${votingapi.idempotency.max-size:100000}") long maxSize,
+                            @Value("${votingapi.idempotency.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${votingapi.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        this.waitTimeoutMs = waitTimeoutMs;
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    public <T> ResponseEntity<T> execute(String scope, String idempotencyKey, Object request, Supplier<ResponseEntity<T>> action) {
+        return execute(scope, idempotencyKey, request, null, action);
+    }
+
+    // Sem chave executa direto; com chave, a primeira resposta é reaproveitada enquanto não expirar.
+    // representation: forma negociada da resposta (ver ResponsePreference), ou null quando há uma só
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String scope, String idempotencyKey, Object request, String representation,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        Key key = new Key(scope, idempotencyKey);
+        Entry created = new Entry(request, representation, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, created);
+
+        if (existing != null) {
+            return (ResponseEntity<T>) replay(existing, request, representation);
+        }
+
+        try {
+            ResponseEntity<T> response = action.get();
+            created.response().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            entries.asMap().remove(key, created);
+            created.response().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private ResponseEntity<?> replay(Entry entry, Object request, String representation) {
+        // A mesma chave com outro corpo é erro do cliente, não uma retentativa
+        if (!entry.request().equals(request)) {
+            throw new IdempotencyKeyConflictException("Idempotency-Key was already used with a different request");
+        }
+
+        // A resposta guardada tem a forma pedida na primeira vez; entregá-la para outra preferência seria errado
+        if (!Objects.equals(entry.representation(), representation)) {
+            throw new IdempotencyKeyConflictException("Idempotency-Key was already used with a different representation");
+        }
+
+        ResponseEntity<?> response;
+
+        try {
+            response = entry.response().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IdempotencyKeyConflictException("A request with the same Idempotency-Key is still in progress");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException("A request with the same Idempotency-Key is still in progress");
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+
+        if (representation != null) {
+            Set<String> vary = new LinkedHashSet<>(headers.getVary());
+            vary.addAll(ResponsePreference.VARY);
+            headers.setVary(List.copyOf(vary));
+        }
+
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private record Key(String scope, String idempotencyKey) {
+    }
+
+    private record Entry(Object request, String representation, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
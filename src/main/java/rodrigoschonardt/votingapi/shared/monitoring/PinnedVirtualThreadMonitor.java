@@ -0,0 +1,62 @@
+package rodrigoschonardt.votingapi.shared.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+// O driver do PostgreSQL e o Hibernate usam synchronized; uma thread virtual bloqueada dentro deles prende a carrier thread.
+// Os eventos jdk.VirtualThreadPinned do JFR são contados e logados com o trecho de stack responsável.
+public class PinnedVirtualThreadMonitor {
+    private static final Logger LOG = LoggerFactory.getLogger(PinnedVirtualThreadMonitor.class);
+    private static final int LOGGED_FRAMES = 8;
+    private final Timer pinned;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public PinnedVirtualThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = Timer.builder("votingapi.virtual-threads.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+
+        if (LOG.isWarnEnabled() && event.getStackTrace() != null) {
+            String frames = event.getStackTrace().getFrames().stream()
+                    .limit(LOGGED_FRAMES)
+                    .map(PinnedVirtualThreadMonitor::format)
+                    .collect(Collectors.joining("\n\tat "));
+            LOG.warn("Virtual thread pinned for {} ms\n\tat {}", event.getDuration().toMillis(), frames);
+        }
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,143 @@
+package rodrigoschonardt.votingapi.shared.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Limite de concorrência que se ajusta pela latência (gradiente entre a latência de longo prazo e a amostra atual).
+// Cresce enquanto a latência se mantém e recua multiplicativamente em erros ou quando a latência passa do alvo.
+public class AdaptiveConcurrencyLimiter {
+    // Folga antes de considerar que a latência subiu
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final long maxQueueNanos;
+    private final long targetLatencyNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Counter rejected;
+    private final Timer queueTime;
+    private volatile double limit;
+    private volatile int inflight;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry, int initialLimit, int minLimit, int maxLimit,
+                                      double smoothing, long maxQueueMs, long targetLatencyMs) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.smoothing = Math.clamp(smoothing, 0.01, 1.0);
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxQueueMs));
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+
+        this.rejected = Counter.builder("votingapi.admission.rejected")
+                .description("Requests rejected with 429 by the adaptive concurrency limiter")
+                .register(meterRegistry);
+        this.queueTime = Timer.builder("votingapi.admission.queue")
+                .description("Time admitted requests waited for a concurrency slot")
+                .register(meterRegistry);
+        Gauge.builder("votingapi.admission.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("votingapi.admission.inflight", this, AdaptiveConcurrencyLimiter::getInflight)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    // Retorna null quando não há vaga dentro do tempo máximo de fila
+    public Permit tryAcquire() {
+        long start = System.nanoTime();
+
+        lock.lock();
+        try {
+            long remaining = maxQueueNanos;
+
+            while (inflight >= (int) limit) {
+                if (remaining <= 0) {
+                    rejected.increment();
+                    return null;
+                }
+
+                remaining = available.awaitNanos(remaining);
+            }
+
+            inflight++;
+            long admitted = System.nanoTime();
+            queueTime.record(admitted - start, TimeUnit.NANOSECONDS);
+            return new Permit(admitted, inflight);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight;
+    }
+
+    private void onComplete(long rttNanos, int inflightAtStart, boolean dropped) {
+        lock.lock();
+        try {
+            inflight--;
+
+            if (dropped || (targetLatencyNanos > 0 && rttNanos > targetLatencyNanos)) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else {
+                update(rttNanos, inflightAtStart);
+            }
+
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, int inflightAtStart) {
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / LONG_WINDOW;
+
+        // Depois de um pico a média longa fica inflada; decai para não esconder a próxima degradação
+        if (longRttNanos > 2.0 * rttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        // Sem demanda suficiente a latência não diz nada sobre o limite
+        if (inflightAtStart * 2 < limit) {
+            return;
+        }
+
+        double gradient = Math.clamp(RTT_TOLERANCE * longRttNanos / Math.max(1, rttNanos), 0.5, 1.0);
+        double newLimit = limit * gradient + Math.sqrt(limit);
+
+        limit = Math.clamp(limit * (1 - smoothing) + newLimit * smoothing, minLimit, maxLimit);
+    }
+
+    public final class Permit {
+        private final long admittedNanos;
+        private final int inflightAtStart;
+
+        private Permit(long admittedNanos, int inflightAtStart) {
+            this.admittedNanos = admittedNanos;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        public void release(boolean dropped) {
+            onComplete(System.nanoTime() - admittedNanos, inflightAtStart, dropped);
+        }
+    }
+}
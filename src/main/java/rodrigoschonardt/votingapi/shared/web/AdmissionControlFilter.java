@@ -0,0 +1,56 @@
+package rodrigoschonardt.votingapi.shared.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+// Rejeita cedo (429) o excesso de requisições, antes que ocupem threads do Tomcat e conexões do Hikari
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+    private final Set<String> methods;
+
+    // methods: métodos HTTP limitados; os demais nas mesmas URLs (ex.: PUT/DELETE de votos) passam direto
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter, long retryAfterSeconds, Set<String> methods) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.methods = Set.copyOf(methods);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Streams ficam abertos por tempo indeterminado e distorceriam a latência medida
+        return !methods.contains(request.getMethod()) || request.getRequestURI().endsWith("/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+
+        if (permit == null) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Too many requests, retry later\"}");
+            return;
+        }
+
+        boolean dropped = true;
+
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            permit.release(dropped);
+        }
+    }
+}
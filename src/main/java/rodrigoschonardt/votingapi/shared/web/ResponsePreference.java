@@ -0,0 +1,60 @@
+package rodrigoschonardt.votingapi.shared.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+// Representação reduzida pedida pelo cliente via "Prefer: return=minimal" (RFC 7240)
+// ou pelo parâmetro de media type "Accept: application/json;view=minimal"
+public final class ResponsePreference {
+    public static final String PREFER = "Prefer";
+    public static final String PREFERENCE_APPLIED = "Preference-Applied";
+    public static final String RETURN_MINIMAL = "return=minimal";
+    public static final String RETURN_REPRESENTATION = "return=representation";
+    // Headers que escolhem a representação
+    public static final List<String> VARY = List.of(PREFER, HttpHeaders.ACCEPT);
+    private static final String VIEW_PARAMETER = "view";
+    private static final String MINIMAL = "minimal";
+    private static final String FULL = "full";
+
+    private ResponsePreference() {
+    }
+
+    public static boolean prefersMinimal(HttpHeaders headers) {
+        return prefers(headers, RETURN_MINIMAL);
+    }
+
+    public static boolean prefersRepresentation(HttpHeaders headers) {
+        return prefers(headers, RETURN_REPRESENTATION);
+    }
+
+    private static boolean prefers(HttpHeaders headers, String expected) {
+        for (String value : headers.getOrEmpty(PREFER)) {
+            for (String preference : value.split(",")) {
+                if (preference.trim().equalsIgnoreCase(expected)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public static boolean acceptsMinimal(HttpHeaders headers) {
+        try {
+            return headers.getAccept().stream().anyMatch(mediaType -> MINIMAL.equalsIgnoreCase(mediaType.getParameter(VIEW_PARAMETER)));
+        } catch (InvalidMediaTypeException ex) {
+            return false;
+        }
+    }
+
+    public static boolean isMinimal(HttpHeaders headers) {
+        return prefersMinimal(headers) || acceptsMinimal(headers);
+    }
+
+    public static String representation(HttpHeaders headers) {
+        return isMinimal(headers) ? MINIMAL : FULL;
+    }
+}
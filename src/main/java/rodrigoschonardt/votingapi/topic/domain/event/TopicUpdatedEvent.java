@@ -0,0 +1,4 @@
+package rodrigoschonardt.votingapi.topic.domain.event;
+
+public record TopicUpdatedEvent(Long topicId) {
+}
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 @Table(name = "topics")
 public class Topic {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "topics_id_seq")
+    @SequenceGenerator(name = "topics_id_seq", sequenceName = "topics_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
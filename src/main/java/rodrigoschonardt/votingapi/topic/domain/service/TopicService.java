@@ -2,10 +2,12 @@ package rodrigoschonardt.votingapi.topic.domain.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.topic.domain.event.TopicUpdatedEvent;
 import rodrigoschonardt.votingapi.topic.domain.model.Topic;
 import rodrigoschonardt.votingapi.topic.domain.repository.TopicRepository;
 import rodrigoschonardt.votingapi.topic.web.dto.AddTopicData;
@@ -17,10 +19,12 @@ public class TopicService {
     private static final Logger LOG = LoggerFactory.getLogger(TopicService.class);
     private final TopicRepository topicRepository;
     private final TopicMapper topicMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TopicService(TopicRepository topicRepository, TopicMapper topicMapper) {
+    public TopicService(TopicRepository topicRepository, TopicMapper topicMapper, ApplicationEventPublisher eventPublisher) {
         this.topicRepository = topicRepository;
         this.topicMapper = topicMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     public Topic add(AddTopicData topicData) {
@@ -39,6 +43,7 @@ public class TopicService {
         topic = topicMapper.updateEntity(topicData, topic);
 
         topic = topicRepository.save(topic);
+        eventPublisher.publishEvent(new TopicUpdatedEvent(topic.getId()));
 
         LOG.info("Topic updated successfully with ID: {}", topic.getId());
 
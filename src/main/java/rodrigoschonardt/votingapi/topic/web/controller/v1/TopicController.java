@@ -5,20 +5,29 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.util.UriComponentsBuilder;
+import rodrigoschonardt.votingapi.orchestrator.TopicResultsCache.TopicResultsSnapshot;
 import rodrigoschonardt.votingapi.orchestrator.VotingOrchestratorService;
 import rodrigoschonardt.votingapi.topic.domain.model.Topic;
 import rodrigoschonardt.votingapi.topic.domain.service.TopicService;
 import rodrigoschonardt.votingapi.topic.web.dto.AddTopicData;
 import rodrigoschonardt.votingapi.topic.web.dto.TopicDetailsData;
+import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsBatchData;
+import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsBatchItemData;
 import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsData;
 import rodrigoschonardt.votingapi.topic.web.dto.UpdateTopicData;
 import rodrigoschonardt.votingapi.topic.web.mapper.TopicMapper;
+import rodrigoschonardt.votingapi.topic.web.stream.TopicResultsBroadcaster;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/topics")
@@ -27,11 +36,14 @@ public class TopicController {
     private final TopicService topicService;
     private final TopicMapper topicMapper;
     private final VotingOrchestratorService orchestratorService;
+    private final TopicResultsBroadcaster topicResultsBroadcaster;
 
-    public TopicController(TopicService topicService, TopicMapper topicMapper, VotingOrchestratorService orchestratorService) {
+    public TopicController(TopicService topicService, TopicMapper topicMapper, VotingOrchestratorService orchestratorService,
+                           TopicResultsBroadcaster topicResultsBroadcaster) {
         this.topicService = topicService;
         this.topicMapper = topicMapper;
         this.orchestratorService = orchestratorService;
+        this.topicResultsBroadcaster = topicResultsBroadcaster;
     }
 
     @PostMapping
@@ -79,9 +91,36 @@ public class TopicController {
 
     @GetMapping("/result/{id}")
     @Operation(summary = "Buscar resultados da pauta")
-    public ResponseEntity<TopicResultsData> getResults(@PathVariable Long id) {
-        TopicResultsData results = orchestratorService.getTopicResults(id);
+    public ResponseEntity<TopicResultsData> getResults(@PathVariable Long id, WebRequest request) {
+        // Versão do cliente ainda é a atual: 304 sem consultar o banco nem serializar o resultado
+        if (request.checkNotModified(orchestratorService.getTopicResultsETag(id))) {
+            return null;
+        }
 
-        return ResponseEntity.ok(results);
+        TopicResultsSnapshot snapshot = orchestratorService.getTopicResultsSnapshot(id);
+
+        return ResponseEntity.ok().eTag(snapshot.etag()).body(snapshot.data());
+    }
+
+    // Um item por id, na ordem recebida
+    @PostMapping("/results:batch")
+    @Operation(summary = "Buscar resultados de várias pautas")
+    public ResponseEntity<List<TopicResultsBatchItemData>> getAllResults(@RequestBody @Valid TopicResultsBatchData batchData) {
+        Map<Long, TopicResultsData> results = orchestratorService.getTopicResults(batchData.topicIds());
+
+        List<TopicResultsBatchItemData> items = batchData.topicIds().stream()
+                .map(id -> results.containsKey(id)
+                        ? new TopicResultsBatchItemData(id, results.get(id), TopicResultsBatchItemData.Status.FOUND)
+                        : new TopicResultsBatchItemData(id, null, TopicResultsBatchItemData.Status.NOT_FOUND))
+                .toList();
+
+        return ResponseEntity.ok(items);
+    }
+
+    // Evento "results" com o TopicResultsData sempre que o resultado muda
+    @GetMapping(value = "/result/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar resultados da pauta em tempo real (Server-Sent Events)")
+    public SseEmitter streamResults(@PathVariable Long id) {
+        return topicResultsBroadcaster.subscribe(id);
     }
 }
@@ -0,0 +1,10 @@
+package rodrigoschonardt.votingapi.topic.web.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TopicResultsBatchData(@NotEmpty @Size(max = 500) List<@NotNull Long> topicIds) {
+}
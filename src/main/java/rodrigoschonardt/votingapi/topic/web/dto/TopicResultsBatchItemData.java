@@ -0,0 +1,9 @@
+package rodrigoschonardt.votingapi.topic.web.dto;
+
+// results é nulo quando status é NOT_FOUND
+public record TopicResultsBatchItemData(Long topicId, TopicResultsData results, Status status) {
+    public enum Status {
+        FOUND,
+        NOT_FOUND
+    }
+}
@@ -0,0 +1,304 @@
+package rodrigoschonardt.votingapi.topic.web.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import rodrigoschonardt.votingapi.orchestrator.VotingOrchestratorService;
+import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.shared.exception.SubscriberLimitExceededException;
+import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Um único publicador por tópico: a cada tick o resultado é lido uma vez, serializado uma vez e enviado a todos os
+// inscritos, e apenas quando mudou desde o último envio. O publicador é encerrado quando o último inscrito sai.
+// O scheduler apenas calcula; as escritas (bloqueantes) vão para um pool limitado, com no máximo um envio por inscrito
+// em andamento e apenas o último resultado pendente. Um inscrito com envio preso além de send-timeout-ms é desligado.
+// Um comentário SSE a cada heartbeat-ms mantém a conexão viva em proxies e detecta clientes que saíram.
+@Component
+public class TopicResultsBroadcaster {
+    private static final Logger LOG = LoggerFactory.getLogger(TopicResultsBroadcaster.class);
+    private static final String EVENT_NAME = "results";
+    private static final Outgoing HEARTBEAT = new Outgoing(null);
+
+    private final VotingOrchestratorService orchestratorService;
+    private final ObjectMapper objectMapper;
+    private final long tickMs;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+    private final long sendTimeoutNanos;
+    private final Map<Long, TopicFeed> feeds = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter rejected;
+    private final Counter sent;
+    private final Counter dropped;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("topic-results-broadcast")
+            .daemon(true)
+            .factory());
+    private final ThreadPoolExecutor sender;
+
+    public TopicResultsBroadcaster(VotingOrchestratorService orchestratorService, ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${votingapi.topics.results-stream.tick-ms:1000}") long tickMs,
+                                   @Value("${votingapi.topics.results-stream.max-subscribers:10000}") int maxSubscribers,
+                                   @Value("${votingapi.topics.results-stream.timeout-ms:1800000}") long emitterTimeoutMs,
+                                   @Value("${votingapi.topics.results-stream.send-threads:16}") int sendThreads,
+                                   @Value("${votingapi.topics.results-stream.send-timeout-ms:5000}") long sendTimeoutMs,
+                                   @Value("${votingapi.topics.results-stream.heartbeat-ms:15000}") long heartbeatMs) {
+        this.orchestratorService = orchestratorService;
+        this.objectMapper = objectMapper;
+        this.tickMs = Math.max(1, tickMs);
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sendTimeoutMs));
+        // Fila do tamanho do limite de inscritos: cada inscrito tem no máximo uma tarefa na fila
+        this.sender = new ThreadPoolExecutor(Math.max(1, sendThreads), Math.max(1, sendThreads), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxSubscribers)),
+                Thread.ofVirtual().name("topic-results-send-", 0).factory());
+
+        if (heartbeatMs > 0) {
+            scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        }
+
+        Gauge.builder("votingapi.topics.results-stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open results streams on this node")
+                .register(meterRegistry);
+        Gauge.builder("votingapi.topics.results-stream.topics", feeds, Map::size)
+                .description("Topics with at least one open results stream")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("votingapi.topics.results-stream.rejected")
+                .description("Results streams refused because the subscriber limit was reached")
+                .register(meterRegistry);
+        this.sent = Counter.builder("votingapi.topics.results-stream.sent")
+                .description("Changed results published to a topic's subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("votingapi.topics.results-stream.dropped")
+                .description("Results streams closed because the subscriber could not keep up")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        feeds.values().forEach(feed -> feed.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        feeds.clear();
+    }
+
+    public SseEmitter subscribe(Long topicId) {
+        // Tópico inexistente responde 404 antes de abrir o stream
+        String current = serialize(orchestratorService.getTopicResults(topicId));
+
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            rejected.increment();
+            throw new SubscriberLimitExceededException(maxSubscribers);
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(topicId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+
+        TopicFeed feed = feeds.compute(topicId, (id, existing) -> {
+            TopicFeed target = existing != null ? existing : new TopicFeed(id, current);
+            target.subscribers.add(subscriber);
+            return target;
+        });
+
+        // O novo inscrito recebe o último resultado publicado sem esperar o próximo tick
+        subscriber.offer(new Outgoing(feed.lastPayload));
+
+        return emitter;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        feeds.computeIfPresent(subscriber.topicId, (id, feed) -> {
+            if (feed.subscribers.remove(subscriber)) {
+                subscribers.decrementAndGet();
+            }
+
+            if (feed.subscribers.isEmpty()) {
+                feed.task.cancel(false);
+                return null;
+            }
+
+            return feed;
+        });
+    }
+
+    private void publish(TopicFeed feed) {
+        String payload;
+
+        try {
+            payload = serialize(orchestratorService.getTopicResults(feed.topicId));
+        } catch (EntityNotFoundException ex) {
+            // Tópico removido: encerra os streams
+            feed.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+            return;
+        } catch (RuntimeException ex) {
+            LOG.warn("Could not compute results for topic ID: {}", feed.topicId, ex);
+            return;
+        }
+
+        if (payload.equals(feed.lastPayload)) {
+            return;
+        }
+
+        feed.lastPayload = payload;
+        sent.increment();
+
+        Outgoing outgoing = new Outgoing(payload);
+        feed.subscribers.forEach(subscriber -> subscriber.offer(outgoing));
+    }
+
+    private void heartbeat() {
+        feeds.values().forEach(feed -> feed.subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+    }
+
+    private boolean send(SseEmitter emitter, Outgoing outgoing) {
+        try {
+            if (outgoing.payload() == null) {
+                emitter.send(SseEmitter.event().comment(""));
+            } else {
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(outgoing.payload(), MediaType.APPLICATION_JSON));
+            }
+
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // Cliente desconectado ou emitter já encerrado
+            emitter.completeWithError(ex);
+            return false;
+        }
+    }
+
+    private String serialize(TopicResultsData results) {
+        try {
+            return objectMapper.writeValueAsString(results);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // payload nulo: heartbeat (comentário SSE)
+    private record Outgoing(String payload) {
+    }
+
+    private final class Subscriber {
+        private final Long topicId;
+        private final SseEmitter emitter;
+        // Apenas o último envio pendente; um resultado novo substitui o anterior ainda não enviado
+        private final AtomicReference<Outgoing> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // nanoTime do início do envio em andamento, 0 quando ocioso
+        private volatile long sendingSince;
+
+        Subscriber(Long topicId, SseEmitter emitter) {
+            this.topicId = topicId;
+            this.emitter = emitter;
+        }
+
+        void offer(Outgoing outgoing) {
+            long since = sendingSince;
+
+            if (since != 0 && System.nanoTime() - since > sendTimeoutNanos) {
+                drop();
+                return;
+            }
+
+            if (outgoing == HEARTBEAT) {
+                // Não substitui um resultado pendente
+                pending.compareAndSet(null, HEARTBEAT);
+            } else {
+                pending.set(outgoing);
+            }
+
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                scheduled.set(false);
+                drop();
+            }
+        }
+
+        private void drain() {
+            try {
+                Outgoing outgoing;
+
+                while ((outgoing = pending.getAndSet(null)) != null) {
+                    sendingSince = System.nanoTime() | 1;
+
+                    if (!send(emitter, outgoing)) {
+                        unsubscribe(this);
+                        return;
+                    }
+
+                    sendingSince = 0;
+                }
+            } finally {
+                sendingSince = 0;
+                scheduled.set(false);
+            }
+
+            // Oferta feita entre o último getAndSet e a liberação do flag
+            if (pending.get() != null) {
+                schedule();
+            }
+        }
+
+        private void drop() {
+            dropped.increment();
+            LOG.info("Dropping slow results stream subscriber for topic ID: {}", topicId);
+            unsubscribe(this);
+            emitter.complete();
+        }
+    }
+
+    private final class TopicFeed {
+        private final Long topicId;
+        private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+        private final ScheduledFuture<?> task;
+        // Último resultado enviado; atualizado apenas pela thread do scheduler
+        private volatile String lastPayload;
+
+        TopicFeed(Long topicId, String initialPayload) {
+            this.topicId = topicId;
+            this.lastPayload = initialPayload;
+            this.task = scheduler.scheduleAtFixedRate(() -> publish(this), tickMs, tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package rodrigoschonardt.votingapi.user.domain.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import rodrigoschonardt.votingapi.user.domain.model.User;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByCpf(String cpf);
+
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,96 @@
+package rodrigoschonardt.votingapi.user.domain.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.user.domain.repository.UserRepository;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// IDs de usuários existentes em memória. Um acerto dispensa o SELECT em users;
+// uma falha não é conclusiva (usuário criado em outra instância ou durante a carga) e deve ser confirmada no banco.
+// IDs removidos ficam marcados: vêm de sequence e nunca são reusados, então nem a carga nem uma confirmação lida antes
+// da remoção os trazem de volta.
+@Component
+public class UserIdIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(UserIdIndex.class);
+    private final UserRepository userRepository;
+    private final Roaring64Bitmap ids = new Roaring64Bitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Roaring64Bitmap removed = new Roaring64Bitmap();
+
+    public UserIdIndex(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+
+        Gauge.builder("votingapi.users.id-index.size", this, UserIdIndex::size)
+                .description("User ids known to exist in memory")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Thread.ofPlatform().name("user-id-index-loader").daemon(true).start(this::load);
+    }
+
+    // Sem descontar as remoções, o OR traria de volta usuários removidos depois da leitura do snapshot
+    void load() {
+        Roaring64Bitmap loaded = new Roaring64Bitmap();
+        userRepository.findAllIds().forEach(loaded::addLong);
+
+        lock.writeLock().lock();
+        try {
+            loaded.andNot(removed);
+            ids.or(loaded);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LOG.info("User id index rebuilt with {} users", loaded.getLongCardinality());
+    }
+
+    public boolean contains(Long id) {
+        lock.readLock().lock();
+        try {
+            return ids.contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Long id) {
+        lock.writeLock().lock();
+        try {
+            // Confirmação lida no banco antes de uma remoção concorrente
+            if (!removed.contains(id)) {
+                ids.addLong(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            ids.removeLong(id);
+            removed.addLong(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private double size() {
+        lock.readLock().lock();
+        try {
+            return ids.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
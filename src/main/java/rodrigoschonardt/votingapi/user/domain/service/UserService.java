@@ -12,17 +12,26 @@ import rodrigoschonardt.votingapi.user.domain.repository.UserRepository;
 import rodrigoschonardt.votingapi.user.web.dto.AddUserData;
 import rodrigoschonardt.votingapi.user.web.mapper.UserMapper;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Service
 public class UserService {
     private static final Logger LOG = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final CpfValidationClient cpfValidationClient;
+    private final UserIdIndex userIdIndex;
 
-    public UserService(UserRepository userRepository, UserMapper userMapper, CpfValidationClient cpfValidationClient) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, CpfValidationClient cpfValidationClient,
+                       UserIdIndex userIdIndex) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
         this.cpfValidationClient = cpfValidationClient;
+        this.userIdIndex = userIdIndex;
     }
 
     public User add(AddUserData userData) {
@@ -34,6 +43,7 @@ public class UserService {
         User user = userMapper.toEntity(userData);
 
         user = userRepository.save(user);
+        userIdIndex.add(user.getId());
 
         LOG.info("User created successfully with ID: {}", user.getId());
 
@@ -43,6 +53,7 @@ public class UserService {
     public void delete(Long id) {
         get(id);
         userRepository.deleteById(id);
+        userIdIndex.remove(id);
         LOG.info("User deleted successfully with ID: {}", id);
     }
 
@@ -51,6 +62,47 @@ public class UserService {
                 .orElseThrow(() -> new EntityNotFoundException("User", "ID " + id));
     }
 
+    // Usuários conhecidos não custam SELECT; os demais são confirmados no banco e passam a ser conhecidos
+    public boolean exists(Long id) {
+        if (userIdIndex.contains(id)) {
+            return true;
+        }
+
+        if (userRepository.existsById(id)) {
+            userIdIndex.add(id);
+            return true;
+        }
+
+        return false;
+    }
+
+    // Versão em lote de exists: os ids fora do índice são checados juntos, em uma única consulta
+    public Set<Long> findExisting(Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> misses = new ArrayList<>();
+
+        for (Long id : ids) {
+            if (userIdIndex.contains(id)) {
+                existing.add(id);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (Long id : userRepository.findExistingIds(misses)) {
+                userIdIndex.add(id);
+                existing.add(id);
+            }
+        }
+
+        return existing;
+    }
+
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
     public void validateCpf(String cpf) {
         if (cpfValidationClient.validate(cpf)
                 .status().equals(CpfValidationResponse.UNABLE)) {
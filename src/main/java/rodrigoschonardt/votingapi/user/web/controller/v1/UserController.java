@@ -6,6 +6,7 @@ import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
+import rodrigoschonardt.votingapi.shared.idempotency.IdempotencyCache;
 import rodrigoschonardt.votingapi.user.domain.model.User;
 import rodrigoschonardt.votingapi.user.domain.service.UserService;
 import rodrigoschonardt.votingapi.user.web.dto.AddUserData;
@@ -20,20 +21,25 @@ import java.net.URI;
 public class UserController {
     private final UserService userService;
     private final UserMapper userMapper;
+    private final IdempotencyCache idempotencyCache;
 
-    public UserController(UserService userService, UserMapper userMapper) {
+    public UserController(UserService userService, UserMapper userMapper, IdempotencyCache idempotencyCache) {
         this.userService = userService;
         this.userMapper = userMapper;
+        this.idempotencyCache = idempotencyCache;
     }
 
     @PostMapping
     @Operation(summary = "Cadastrar usuário")
-    public ResponseEntity<UserDetailsData> add(@RequestBody @Valid AddUserData userData, UriComponentsBuilder uriBuilder) {
-        User user = userService.add(userData);
+    public ResponseEntity<UserDetailsData> add(@RequestBody @Valid AddUserData userData, UriComponentsBuilder uriBuilder,
+                                               @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
+        return idempotencyCache.execute("users", idempotencyKey, userData, () -> {
+            User user = userService.add(userData);
 
-        URI uri = uriBuilder.path("/api/v1/users/{id}").buildAndExpand(user.getId()).toUri();
+            URI uri = uriBuilder.path("/api/v1/users/{id}").buildAndExpand(user.getId()).toUri();
 
-        return ResponseEntity.created(uri).body(userMapper.toUserDetails(user));
+            return ResponseEntity.created(uri).body(userMapper.toUserDetails(user));
+        });
     }
 
     @DeleteMapping("/{id}")
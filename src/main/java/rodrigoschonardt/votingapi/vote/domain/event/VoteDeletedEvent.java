@@ -0,0 +1,4 @@
+package rodrigoschonardt.votingapi.vote.domain.event;
+
+public record VoteDeletedEvent(Long sessionId, Long topicId) {
+}
@@ -0,0 +1,10 @@
+package rodrigoschonardt.votingapi.vote.domain.journal;
+
+public enum FsyncPolicy {
+    // fsync antes de confirmar cada voto (agrupado entre escritas concorrentes)
+    ALWAYS,
+    // fsync periódico; uma queda pode perder os votos do último intervalo
+    INTERVAL,
+    // Deixa a escrita em disco a cargo do sistema operacional
+    NONE
+}
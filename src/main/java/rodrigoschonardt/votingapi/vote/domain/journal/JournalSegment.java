@@ -0,0 +1,209 @@
+package rodrigoschonardt.votingapi.vote.domain.journal;
+
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.JournaledVote;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Arquivo de tamanho fixo mapeado em memória com registros de tamanho fixo.
+// Layout do registro: marcador, id, user_id, session_id, opção, created_at (segundos + nanos), CRC32.
+// Ao lado de cada segmento um arquivo de checkpoint guarda a posição já materializada (posição e seu complemento em
+// um único long). Ele não é sincronizado: um checkpoint perdido só faz a reaplicação começar mais cedo.
+final class JournalSegment {
+    static final int RECORD_SIZE = 42;
+    private static final int CHECKSUM_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final byte RECORD_MARKER = 1;
+
+    private final long index;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Path checkpointPath;
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+    // Escrito apenas pelo appender (sob lock do journal); lido pelo materializador
+    private volatile int writePosition;
+    private volatile boolean sealed;
+    // Usado apenas pelo materializador
+    private int readPosition;
+    private int syncedPosition;
+    private boolean closed;
+
+    private JournalSegment(long index, Path path, FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.index = index;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.checkpointPath = path.resolveSibling(checkpointFileName(index));
+        this.checkpointChannel = FileChannel.open(checkpointPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+    }
+
+    static JournalSegment create(Path directory, long index, int size) throws IOException {
+        Path path = directory.resolve(fileName(index));
+        Files.deleteIfExists(path.resolveSibling(checkpointFileName(index)));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(index, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    // Reabre um segmento existente; a leitura para no primeiro registro vazio ou corrompido (escrita interrompida)
+    static JournalSegment recover(Path path, long index) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        JournalSegment segment = new JournalSegment(index, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        int position = 0;
+
+        while (position + RECORD_SIZE <= segment.buffer.capacity() && segment.isValid(position)) {
+            position += RECORD_SIZE;
+        }
+
+        segment.writePosition = position;
+        segment.syncedPosition = position;
+        segment.sealed = true;
+        segment.readPosition = segment.readCheckpoint(position);
+        return segment;
+    }
+
+    static String fileName(long index) {
+        return String.format("votes-%019d.journal", index);
+    }
+
+    static String checkpointFileName(long index) {
+        return String.format("votes-%019d.checkpoint", index);
+    }
+
+    static long parseIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("votes-".length(), name.length() - ".journal".length()));
+    }
+
+    long index() {
+        return index;
+    }
+
+    boolean hasRoom() {
+        return writePosition + RECORD_SIZE <= buffer.capacity();
+    }
+
+    // Chamado sob o lock de escrita do journal; retorna a posição final do registro
+    int append(JournaledVote vote) {
+        int position = writePosition;
+        LocalDateTime createdAt = vote.createdAt();
+
+        buffer.put(position, RECORD_MARKER);
+        buffer.putLong(position + 1, vote.id());
+        buffer.putLong(position + 9, vote.userId());
+        buffer.putLong(position + 17, vote.sessionId());
+        buffer.put(position + 25, (byte) vote.voteOption().ordinal());
+        buffer.putLong(position + 26, createdAt.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(position + 34, createdAt.getNano());
+        buffer.putInt(position + CHECKSUM_OFFSET, checksum(position));
+
+        writePosition = position + RECORD_SIZE;
+        return writePosition;
+    }
+
+    void seal() {
+        sealed = true;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    // Agrupa o fsync: quem chega depois de um force que já cobriu sua posição não força de novo
+    synchronized void sync(int position) {
+        if (closed || syncedPosition >= position) {
+            return;
+        }
+
+        int end = writePosition;
+        buffer.force(syncedPosition, end - syncedPosition);
+        syncedPosition = end;
+    }
+
+    synchronized void sync() {
+        sync(writePosition);
+    }
+
+    // Lê até max registros a partir da posição de leitura sem avançá-la
+    int read(List<JournaledVote> votes, int max) {
+        int limit = writePosition;
+        int position = readPosition;
+
+        while (position < limit && votes.size() < max) {
+            votes.add(decode(position));
+            position += RECORD_SIZE;
+        }
+
+        return position;
+    }
+
+    // Chamado depois do commit do lote: o checkpoint nunca passa do que já está no banco
+    void advance(int position) {
+        readPosition = position;
+        checkpoint.putLong(0, ((long) position << Integer.SIZE) | (~position & 0xFFFFFFFFL));
+    }
+
+    boolean isFullyRead() {
+        return sealed && readPosition >= writePosition;
+    }
+
+    int pendingRecords() {
+        return (writePosition - readPosition) / RECORD_SIZE;
+    }
+
+    synchronized void close() throws IOException {
+        if (!closed) {
+            buffer.force();
+            checkpoint.force();
+            closed = true;
+            channel.close();
+            checkpointChannel.close();
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(checkpointPath);
+    }
+
+    // Checkpoint inválido (vazio, corrompido ou além dos registros válidos): reaplica desde o início
+    private int readCheckpoint(int limit) {
+        long value = checkpoint.getLong(0);
+        int position = (int) (value >>> Integer.SIZE);
+
+        if ((int) value != ~position || position < 0 || position > limit || position % RECORD_SIZE != 0) {
+            return 0;
+        }
+
+        return position;
+    }
+
+    private JournaledVote decode(int position) {
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(position + 26), buffer.getInt(position + 34), ZoneOffset.UTC);
+
+        return new JournaledVote(buffer.getLong(position + 1), buffer.getLong(position + 9), buffer.getLong(position + 17),
+                Vote.VoteOption.values()[buffer.get(position + 25)], createdAt);
+    }
+
+    private boolean isValid(int position) {
+        return buffer.get(position) == RECORD_MARKER && buffer.getInt(position + CHECKSUM_OFFSET) == checksum(position);
+    }
+
+    private int checksum(int position) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position, CHECKSUM_OFFSET));
+        return (int) crc.getValue();
+    }
+}
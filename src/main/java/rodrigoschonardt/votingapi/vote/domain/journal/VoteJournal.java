@@ -0,0 +1,367 @@
+package rodrigoschonardt.votingapi.vote.domain.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import rodrigoschonardt.votingapi.vote.domain.repository.JournaledVote;
+import rodrigoschonardt.votingapi.vote.domain.repository.MaterializeResult;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteCastCommand;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Write-ahead log dos votos: o voto é confirmado assim que gravado (e sincronizado conforme a política) em um
+// segmento local mapeado em memória, e uma thread em background o materializa na tabela votes em lotes.
+// Na inicialização os segmentos ainda existentes são reaplicados a partir do checkpoint de cada um; a reaplicação é
+// idempotente (ID e (user_id, session_id)). Votos que não podem mais ser gravados ficam em rejected_votes.
+@Component
+public class VoteJournal {
+    private static final Logger LOG = LoggerFactory.getLogger(VoteJournal.class);
+    // Mesmo INCREMENT BY da sequence votes_id_seq
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final VoteRepository voteRepository;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMs;
+    private final int materializeBatchSize;
+    private final long materializeIntervalMs;
+    private final long maxLag;
+
+    private final ConcurrentLinkedDeque<JournalSegment> segments = new ConcurrentLinkedDeque<>();
+    // Votos ainda não materializados; o banco não os conhece, então a unicidade é garantida aqui
+    private final Set<Voter> pendingVoters = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock materializeLock = new ReentrantLock();
+    private final AtomicLong pending = new AtomicLong();
+    private final List<Thread> threads = new ArrayList<>();
+    private JournalSegment active;
+    private long nextId;
+    private long idLimit;
+    private volatile boolean running;
+
+    private final Timer fsyncLatency;
+    private final Timer materializationLag;
+    private final Counter appended;
+    private final Counter materialized;
+    private final Counter skipped;
+    private final Counter rejected;
+
+    public VoteJournal(VoteRepository voteRepository, MeterRegistry meterRegistry,
+                       @Value("${votingapi.votes.journal.enabled:false}") boolean enabled,
+                       @Value("${votingapi.votes.journal.directory:data/vote-journal}") Path directory,
+                       @Value("${votingapi.votes.journal.segment-size:64MB}") DataSize segmentSize,
+                       @Value("${votingapi.votes.journal.fsync:ALWAYS}") FsyncPolicy fsyncPolicy,
+                       @Value("${votingapi.votes.journal.fsync-interval-ms:10}") long fsyncIntervalMs,
+                       @Value("${votingapi.votes.journal.materialize-batch-size:1000}") int materializeBatchSize,
+                       @Value("${votingapi.votes.journal.materialize-interval-ms:50}") long materializeIntervalMs,
+                       @Value("${votingapi.votes.journal.max-lag:100000}") long maxLag) {
+        this.voteRepository = voteRepository;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(JournalSegment.RECORD_SIZE, segmentSize.toBytes()) / JournalSegment.RECORD_SIZE * JournalSegment.RECORD_SIZE);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMs = Math.max(1, fsyncIntervalMs);
+        this.materializeBatchSize = Math.max(1, materializeBatchSize);
+        this.materializeIntervalMs = Math.max(1, materializeIntervalMs);
+        this.maxLag = Math.max(1, maxLag);
+
+        this.fsyncLatency = Timer.builder("votingapi.votes.journal.fsync")
+                .description("Time spent forcing journal segments to disk")
+                .register(meterRegistry);
+        this.materializationLag = Timer.builder("votingapi.votes.journal.materialization.lag")
+                .description("Time between a vote being journaled and materialized into the database")
+                .register(meterRegistry);
+        this.appended = Counter.builder("votingapi.votes.journal.appended")
+                .description("Votes appended to the journal")
+                .register(meterRegistry);
+        this.materialized = Counter.builder("votingapi.votes.journal.materialized")
+                .description("Journaled votes inserted into the database")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("votingapi.votes.journal.skipped")
+                .description("Journaled votes already present in the database (replayed)")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("votingapi.votes.journal.rejected")
+                .description("Journaled votes discarded into rejected_votes (removed user or session, duplicate)")
+                .register(meterRegistry);
+        Gauge.builder("votingapi.votes.journal.lag", pending, AtomicLong::get)
+                .description("Journaled votes not yet materialized")
+                .register(meterRegistry);
+        Gauge.builder("votingapi.votes.journal.segments", segments, ConcurrentLinkedDeque::size)
+                .description("Journal segments on disk")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        recover();
+
+        long index = segments.isEmpty() ? 0 : segments.getLast().index() + 1;
+        active = JournalSegment.create(directory, index, segmentSize);
+        segments.addLast(active);
+        running = true;
+
+        threads.add(Thread.ofPlatform().name("vote-journal-materializer").daemon(true).start(this::materializeLoop));
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            threads.add(Thread.ofPlatform().name("vote-journal-fsync").daemon(true).start(this::syncLoop));
+        }
+
+        LOG.info("Vote journal started at {} with {} pending votes (fsync: {})", directory.toAbsolutePath(), pending.get(), fsyncPolicy);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        threads.forEach(Thread::interrupt);
+
+        try {
+            drain();
+        } catch (RuntimeException ex) {
+            LOG.warn("Vote journal could not be fully materialized on shutdown, it will be replayed on startup", ex);
+        }
+
+        for (JournalSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Reserva o par (sessão, usuário) enquanto o voto é gravado; false quando já existe um voto pendente igual
+    public boolean claim(Long sessionId, Long userId) {
+        return !enabled || pendingVoters.add(new Voter(sessionId, userId));
+    }
+
+    public void release(Long sessionId, Long userId) {
+        if (enabled) {
+            pendingVoters.remove(new Voter(sessionId, userId));
+        }
+    }
+
+    // Retorna o ID atribuído ao voto, ou null quando o journal não o aceitou (desligado ou atraso acima do limite)
+    public Long append(VoteCastCommand command) {
+        if (!running || pending.get() >= maxLag) {
+            return null;
+        }
+
+        JournalSegment segment;
+        int position;
+        long id;
+
+        appendLock.lock();
+        try {
+            id = nextId();
+
+            if (!active.hasRoom()) {
+                roll();
+            }
+
+            segment = active;
+            position = segment.append(new JournaledVote(id, command.userId(), command.sessionId(),
+                    command.voteOption(), command.createdAt()));
+            pending.incrementAndGet();
+        } finally {
+            appendLock.unlock();
+        }
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            sync(segment, position);
+        }
+
+        appended.increment();
+        return id;
+    }
+
+    public boolean hasPending() {
+        return pending.get() > 0;
+    }
+
+    // Materializa tudo o que está pendente na thread do chamador (ex.: antes de remover votos em massa)
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+
+        while (materialize() > 0) {
+            // continua até esvaziar
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().matches("votes-\\d+\\.journal"))
+                    .sorted(Comparator.comparingLong(JournalSegment::parseIndex))
+                    .toList();
+        }
+
+        for (Path file : files) {
+            JournalSegment segment = JournalSegment.recover(file, JournalSegment.parseIndex(file));
+            List<JournaledVote> votes = new ArrayList<>();
+            segment.read(votes, Integer.MAX_VALUE);
+            votes.forEach(vote -> pendingVoters.add(new Voter(vote.sessionId(), vote.userId())));
+            pending.addAndGet(votes.size());
+            segments.addLast(segment);
+        }
+
+        if (!files.isEmpty()) {
+            LOG.info("Vote journal replaying {} votes from {} segments", pending.get(), files.size());
+        }
+    }
+
+    private long nextId() {
+        if (nextId == idLimit) {
+            nextId = voteRepository.nextIdBlock();
+            idLimit = nextId + ID_BLOCK_SIZE;
+        }
+
+        return nextId++;
+    }
+
+    private void roll() {
+        try {
+            JournalSegment next = JournalSegment.create(directory, active.index() + 1, segmentSize);
+            segments.addLast(next);
+            active.seal();
+            sync(active, Integer.MAX_VALUE);
+            active = next;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create journal segment", ex);
+        }
+    }
+
+    private void sync(JournalSegment segment, int position) {
+        long start = System.nanoTime();
+        segment.sync(position);
+        fsyncLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void syncLoop() {
+        while (running) {
+            try {
+                Thread.sleep(fsyncIntervalMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            sync(segments.getLast(), Integer.MAX_VALUE);
+        }
+    }
+
+    private void materializeLoop() {
+        while (running) {
+            try {
+                if (materialize() == 0) {
+                    Thread.sleep(materializeIntervalMs);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                // Banco indisponível: os votos continuam no journal e a tentativa é refeita
+                LOG.warn("Vote journal materialization failed: {}", ex.getMessage());
+                try {
+                    Thread.sleep(materializeIntervalMs * 10);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Grava um lote do segmento mais antigo; retorna quantos votos foram processados
+    private int materialize() {
+        materializeLock.lock();
+        try {
+            JournalSegment segment = segments.peekFirst();
+
+            while (segment != null && segment.isFullyRead()) {
+                segments.pollFirst();
+                delete(segment);
+                segment = segments.peekFirst();
+            }
+
+            if (segment == null) {
+                return 0;
+            }
+
+            List<JournaledVote> votes = new ArrayList<>(materializeBatchSize);
+            int position = segment.read(votes, materializeBatchSize);
+
+            if (votes.isEmpty()) {
+                return 0;
+            }
+
+            MaterializeResult result = voteRepository.materializeAll(votes);
+
+            segment.advance(position);
+            pending.addAndGet(-votes.size());
+            materialized.increment(result.inserted());
+            rejected.increment(result.rejected());
+            skipped.increment(votes.size() - result.inserted() - result.rejected());
+
+            if (result.rejected() > 0) {
+                LOG.warn("{} journaled votes rejected on materialization, see rejected_votes", result.rejected());
+            }
+
+            materializationLag.record(Duration.between(votes.getFirst().createdAt(), LocalDateTime.now()));
+            votes.forEach(vote -> pendingVoters.remove(new Voter(vote.sessionId(), vote.userId())));
+
+            return votes.size();
+        } finally {
+            materializeLock.unlock();
+        }
+    }
+
+    private void delete(JournalSegment segment) {
+        try {
+            segment.delete();
+        } catch (IOException ex) {
+            LOG.warn("Could not delete materialized journal segment {}", segment.index(), ex);
+        }
+    }
+
+    private record Voter(long sessionId, long userId) {
+    }
+}
@@ -0,0 +1,7 @@
+package rodrigoschonardt.votingapi.vote.domain.model;
+
+// relativeError: erro padrão relativo do HyperLogLog (a estimativa fica dentro de ±2x esse valor em ~95% dos casos)
+// sessionsWithoutSketch: sessões ainda não montadas pelo backfill; delas só entram os votos ainda não gravados
+public record DistinctVoterEstimate(int sessionsCount, long distinctVoters, double relativeError,
+                                    int sessionsWithoutSketch) {
+}
@@ -0,0 +1,7 @@
+package rodrigoschonardt.votingapi.vote.domain.model;
+
+import java.time.LocalDateTime;
+
+// Votos por intervalo de uma sessão: counts[i] cobre [startTime + i * bucketSeconds, startTime + (i + 1) * bucketSeconds)
+public record SessionTimeline(LocalDateTime startTime, int bucketSeconds, long[] counts) {
+}
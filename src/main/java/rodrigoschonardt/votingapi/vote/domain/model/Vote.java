@@ -2,6 +2,7 @@ package rodrigoschonardt.votingapi.vote.domain.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import jakarta.persistence.*;
+import org.hibernate.annotations.PartitionKey;
 import rodrigoschonardt.votingapi.session.domain.model.Session;
 import rodrigoschonardt.votingapi.user.domain.model.User;
 
@@ -38,7 +39,8 @@ public class Vote {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "votes_id_seq")
+    @SequenceGenerator(name = "votes_id_seq", sequenceName = "votes_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "vote_option", nullable = false)
@@ -56,6 +58,11 @@ public class Vote {
     @JoinColumn(name = "session_id", nullable = false)
     private Session session;
 
+    // Chave de partição: UPDATE e DELETE por ID incluem session_id e atingem apenas a partição da sessão
+    @PartitionKey
+    @Column(name = "session_id", insertable = false, updatable = false)
+    private Long sessionId;
+
     public Long getId() {
         return id;
     }
@@ -94,5 +101,6 @@ public class Vote {
 
     public void setSession(Session session) {
         this.session = session;
+        this.sessionId = session != null ? session.getId() : null;
     }
 }
@@ -0,0 +1,22 @@
+package rodrigoschonardt.votingapi.vote.domain.model;
+
+// Contagem de votos por opção de uma ou mais sessões
+public record VoteTally(long yes, long no) {
+    public static final VoteTally EMPTY = new VoteTally(0, 0);
+
+    public static VoteTally of(Vote.VoteOption option, long count) {
+        return option == Vote.VoteOption.YES ? new VoteTally(count, 0) : new VoteTally(0, count);
+    }
+
+    public VoteTally plus(VoteTally other) {
+        return new VoteTally(yes + other.yes, no + other.no);
+    }
+
+    public long count(Vote.VoteOption option) {
+        return option == Vote.VoteOption.YES ? yes : no;
+    }
+
+    public long total() {
+        return yes + no;
+    }
+}
@@ -0,0 +1,6 @@
+package rodrigoschonardt.votingapi.vote.domain.repository;
+
+// inserted: votos gravados agora; rejected: votos descartados e registrados em rejected_votes.
+// O restante do lote já estava gravado (reaplicação após reinício).
+public record MaterializeResult(int inserted, int rejected) {
+}
@@ -0,0 +1,73 @@
+package rodrigoschonardt.votingapi.vote.domain.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Resultado final (imutável) das sessões encerradas
+@Repository
+public class SessionResultRepository {
+    // Mais antigas primeiro, para que um atraso (ex.: aplicação fora do ar) seja recuperado em ordem
+    private static final String FIND_PENDING_SQL = """
+            SELECT s.id
+            FROM sessions s
+            WHERE s.end_time < ?
+              AND NOT EXISTS (SELECT 1 FROM session_results r WHERE r.session_id = s.id)
+            ORDER BY s.end_time
+            LIMIT ?
+            """;
+    // Lock que serializa a finalização com a remoção de votos da sessão (VoteService.delete). NO KEY UPDATE não conflita
+    // com o FOR KEY SHARE da checagem de FK de session_tallies, então não segura os lotes de votos de outras sessões.
+    private static final String LOCK_SESSION_SQL = "SELECT id FROM sessions WHERE id = ? FOR NO KEY UPDATE";
+    // Contagem exata sobre votes (fonte da verdade); ON CONFLICT torna o job idempotente entre instâncias e reinícios
+    private static final String FINALIZE_SQL = """
+            INSERT INTO session_results (session_id, votes_yes, votes_no, finalized_at)
+            SELECT ?,
+                   count(*) FILTER (WHERE vote_option = ?),
+                   count(*) FILTER (WHERE vote_option = ?),
+                   now()
+            FROM votes
+            WHERE session_id = ?
+            ON CONFLICT (session_id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessionResultRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> findPendingSessionIds(LocalDateTime closedBefore, int limit) {
+        return jdbcTemplate.queryForList(FIND_PENDING_SQL, Long.class, Timestamp.valueOf(closedBefore), limit);
+    }
+
+    // false quando outra instância já finalizou a sessão (ou a sessão foi removida). A contagem roda em outro statement,
+    // depois do lock: em READ COMMITTED ela enxerga a remoção de voto que segurava o lock
+    @Transactional
+    public boolean finalizeSession(Long sessionId) {
+        if (!lockSession(sessionId)) {
+            return false;
+        }
+
+        return jdbcTemplate.update(FINALIZE_SQL, sessionId, Vote.VoteOption.YES.ordinal(), Vote.VoteOption.NO.ordinal(),
+                sessionId) > 0;
+    }
+
+    // Chamado dentro da transação de quem altera os votos de uma sessão encerrada; false se a sessão não existe
+    public boolean lockSession(Long sessionId) {
+        return !jdbcTemplate.queryForList(LOCK_SESSION_SQL, Long.class, sessionId).isEmpty();
+    }
+
+    public void deleteAllBySessionIds(Collection<Long> sessionIds) {
+        if (!sessionIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM session_results WHERE session_id = ANY(?)",
+                    (Object) sessionIds.toArray(Long[]::new));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package rodrigoschonardt.votingapi.vote.domain.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import rodrigoschonardt.votingapi.vote.domain.model.SessionTimeline;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public class SessionTimelineRepository {
+    // Votos fora da janela (não deveriam existir) são somados ao primeiro ou ao último intervalo
+    private static final String COUNT_BY_BUCKET_SQL = """
+            SELECT least(greatest(floor(extract(epoch FROM created_at - ?) / ?)::int, 0), ?) AS bucket, count(*) AS votes
+            FROM votes
+            WHERE session_id = ?
+            GROUP BY 1
+            """;
+    private static final String INSERT_SQL = """
+            INSERT INTO session_timelines (session_id, start_time, bucket_seconds, counts)
+            VALUES (?, ?, ?, ?::bigint[])
+            ON CONFLICT (session_id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessionTimelineRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Histograma calculado a partir de votes (GROUP BY sobre a partição da sessão)
+    public long[] countByBucket(Long sessionId, LocalDateTime startTime, int bucketSeconds, int buckets) {
+        long[] counts = new long[buckets];
+
+        jdbcTemplate.query(COUNT_BY_BUCKET_SQL, rs -> {
+            counts[rs.getInt("bucket")] += rs.getLong("votes");
+        }, Timestamp.valueOf(startTime), bucketSeconds, buckets - 1, sessionId);
+
+        return counts;
+    }
+
+    public Optional<SessionTimeline> findBySessionId(Long sessionId) {
+        return jdbcTemplate.query("SELECT start_time, bucket_seconds, counts FROM session_timelines WHERE session_id = ?",
+                (rs, rowNum) -> new SessionTimeline(rs.getTimestamp("start_time").toLocalDateTime(),
+                        rs.getInt("bucket_seconds"), toLongs(rs.getArray("counts"))), sessionId)
+                .stream()
+                .findFirst();
+    }
+
+    public void save(Long sessionId, SessionTimeline timeline) {
+        Long[] counts = new Long[timeline.counts().length];
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = timeline.counts()[i];
+        }
+
+        jdbcTemplate.update(INSERT_SQL, sessionId, Timestamp.valueOf(timeline.startTime()), timeline.bucketSeconds(),
+                counts);
+    }
+
+    public void deleteAllBySessionIds(Collection<Long> sessionIds) {
+        if (!sessionIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM session_timelines WHERE session_id = ANY(?)",
+                    (Object) sessionIds.toArray(Long[]::new));
+        }
+    }
+
+    private static long[] toLongs(Array array) throws SQLException {
+        Long[] values = (Long[]) array.getArray();
+        long[] counts = new long[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            counts[i] = values[i];
+        }
+
+        return counts;
+    }
+}
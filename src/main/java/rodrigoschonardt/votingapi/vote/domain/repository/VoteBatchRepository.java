@@ -0,0 +1,25 @@
+package rodrigoschonardt.votingapi.vote.domain.repository;
+
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface VoteBatchRepository {
+    // Retorna um resultado por comando, na mesma ordem da lista recebida
+    List<VoteCastResult> castAll(List<VoteCastCommand> commands);
+
+    // Mesmas checagens do castAll (janela, usuário, voto existente) sem gravar, feitas no banco antes de o journal
+    // confirmar o voto. Retorna o motivo da rejeição ou null quando o voto pode ser aceito.
+    VoteCastResult check(VoteCastCommand command);
+
+    // Grava votos já aceitos pelo journal com o ID atribuído; reaplicar o mesmo voto não tem efeito.
+    // Votos que não podem mais ser gravados vão para rejected_votes no mesmo statement.
+    MaterializeResult materializeAll(List<JournaledVote> votes);
+
+    // Motivo do descarte de um voto confirmado pelo journal, se houver
+    Optional<String> findRejectionReason(Long id);
+
+    // Primeiro ID de um bloco de tamanho igual ao INCREMENT BY da sequence votes_id_seq
+    long nextIdBlock();
+}
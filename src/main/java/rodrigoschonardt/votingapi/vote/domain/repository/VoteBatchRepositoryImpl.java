@@ -0,0 +1,232 @@
+package rodrigoschonardt.votingapi.vote.domain.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastRow;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+public class VoteBatchRepositoryImpl implements VoteBatchRepository {
+    // Valida a janela da sessão, a existência do usuário e a unicidade de N votos em um único statement e commit,
+    // atualizando session_tallies no mesmo statement.
+    // Em caso de votos repetidos no mesmo lote, apenas o primeiro (menor idx) recebe o ID inserido.
+    private static final String CAST_ALL_SQL = """
+            WITH input AS (
+                SELECT *
+                FROM unnest(?::int[], ?::bigint[], ?::bigint[], ?::int[], ?::timestamp[])
+                    AS i(idx, user_id, session_id, vote_option, created_at)
+            ), checked AS (
+                SELECT i.idx, i.user_id, i.session_id, i.vote_option, i.created_at,
+                       i.created_at BETWEEN s.start_time AND s.end_time AS session_open,
+                       u.id IS NOT NULL AS user_exists
+                FROM input i
+                LEFT JOIN sessions s ON s.id = i.session_id
+                LEFT JOIN users u ON u.id = i.user_id
+            ), inserted AS (
+                INSERT INTO votes (user_id, session_id, vote_option, created_at)
+                SELECT c.user_id, c.session_id, c.vote_option, c.created_at
+                FROM checked c
+                WHERE c.session_open AND c.user_exists
+                ORDER BY c.idx
+                ON CONFLICT (user_id, session_id) DO NOTHING
+                RETURNING id, user_id, session_id, vote_option
+            ), tallied AS (
+                INSERT INTO session_tallies (session_id, vote_option, stripe, count)
+                SELECT ins.session_id, ins.vote_option, (ins.user_id % ?)::int, count(*)
+                FROM inserted ins
+                GROUP BY 1, 2, 3
+                ON CONFLICT (session_id, vote_option, stripe) DO UPDATE SET count = session_tallies.count + EXCLUDED.count
+            ), winners AS (
+                SELECT min(c.idx) AS idx, ins.id
+                FROM inserted ins
+                JOIN checked c ON c.user_id = ins.user_id AND c.session_id = ins.session_id
+                WHERE c.session_open AND c.user_exists
+                GROUP BY ins.id
+            )
+            SELECT c.idx, w.id AS vote_id, c.session_open, c.user_exists
+            FROM checked c
+            LEFT JOIN winners w ON w.idx = c.idx
+            ORDER BY c.idx
+            """;
+
+    // session_id como parâmetro (e não s.id) para o planner escolher a partição da sessão
+    private static final String CHECK_SQL = """
+            SELECT ?::timestamp BETWEEN s.start_time AND s.end_time AS session_open,
+                   EXISTS (SELECT 1 FROM users u WHERE u.id = ?) AS user_exists,
+                   EXISTS (SELECT 1 FROM votes v WHERE v.user_id = ? AND v.session_id = ?) AS voted
+            FROM (VALUES (1)) AS one(x)
+            LEFT JOIN sessions s ON s.id = ?
+            """;
+
+    // Votos de usuários ou sessões removidos depois da confirmação (ou repetidos) vão para rejected_votes em vez de
+    // sumirem; votos já gravados por uma execução anterior (reaplicação) não contam como rejeitados
+    private static final String MATERIALIZE_ALL_SQL = """
+            WITH input AS (
+                SELECT i.*, s.id IS NOT NULL AS session_exists, u.id IS NOT NULL AS user_exists
+                FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::int[], ?::timestamp[])
+                    AS i(id, user_id, session_id, vote_option, created_at)
+                LEFT JOIN sessions s ON s.id = i.session_id
+                LEFT JOIN users u ON u.id = i.user_id
+            ), inserted AS (
+                INSERT INTO votes (id, user_id, session_id, vote_option, created_at)
+                SELECT i.id, i.user_id, i.session_id, i.vote_option, i.created_at
+                FROM input i
+                WHERE i.session_exists AND i.user_exists
+                ON CONFLICT DO NOTHING
+                RETURNING id, user_id, session_id, vote_option
+            ), tallied AS (
+                INSERT INTO session_tallies (session_id, vote_option, stripe, count)
+                SELECT ins.session_id, ins.vote_option, (ins.user_id % ?)::int, count(*)
+                FROM inserted ins
+                GROUP BY 1, 2, 3
+                ON CONFLICT (session_id, vote_option, stripe) DO UPDATE SET count = session_tallies.count + EXCLUDED.count
+            ), rejected AS (
+                INSERT INTO rejected_votes (id, user_id, session_id, vote_option, created_at, reason, rejected_at)
+                SELECT i.id, i.user_id, i.session_id, i.vote_option, i.created_at,
+                       CASE WHEN NOT i.session_exists THEN 'SESSION_NOT_FOUND'
+                            WHEN NOT i.user_exists THEN 'USER_NOT_FOUND'
+                            ELSE 'DUPLICATE' END,
+                       now()
+                FROM input i
+                WHERE NOT EXISTS (SELECT 1 FROM inserted ins WHERE ins.id = i.id)
+                  AND NOT EXISTS (SELECT 1 FROM votes v WHERE v.id = i.id AND v.session_id = i.session_id)
+                ON CONFLICT (id) DO NOTHING
+                RETURNING id
+            )
+            SELECT (SELECT count(*) FROM inserted) AS inserted, (SELECT count(*) FROM rejected) AS rejected
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tallyStripes;
+
+    public VoteBatchRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${votingapi.votes.tally.stripes:16}") int tallyStripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tallyStripes = Math.max(1, tallyStripes);
+    }
+
+    @Override
+    public List<VoteCastResult> castAll(List<VoteCastCommand> commands) {
+        if (commands.isEmpty()) {
+            return List.of();
+        }
+
+        int size = commands.size();
+        Integer[] indexes = new Integer[size];
+        Long[] userIds = new Long[size];
+        Long[] sessionIds = new Long[size];
+        Integer[] voteOptions = new Integer[size];
+        Timestamp[] createdAts = new Timestamp[size];
+
+        for (int i = 0; i < size; i++) {
+            VoteCastCommand command = commands.get(i);
+            indexes[i] = i;
+            userIds[i] = command.userId();
+            sessionIds[i] = command.sessionId();
+            voteOptions[i] = command.voteOption().ordinal();
+            createdAts[i] = Timestamp.valueOf(command.createdAt());
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CAST_ALL_SQL);
+            statement.setArray(1, array(connection, "integer", indexes));
+            statement.setArray(2, array(connection, "bigint", userIds));
+            statement.setArray(3, array(connection, "bigint", sessionIds));
+            statement.setArray(4, array(connection, "integer", voteOptions));
+            statement.setArray(5, array(connection, "timestamp", createdAts));
+            statement.setInt(6, tallyStripes);
+            return statement;
+        }, (rs, rowNum) -> toResult(rs));
+    }
+
+    @Override
+    public VoteCastResult check(VoteCastCommand command) {
+        return jdbcTemplate.queryForObject(CHECK_SQL, (rs, rowNum) -> {
+            boolean open = rs.getBoolean("session_open");
+
+            if (rs.wasNull()) {
+                return VoteCastRow.unknownSession();
+            }
+
+            if (!open) {
+                return VoteCastRow.closed();
+            }
+
+            if (!rs.getBoolean("user_exists")) {
+                return VoteCastRow.unknownUser();
+            }
+
+            return rs.getBoolean("voted") ? VoteCastRow.duplicate() : null;
+        }, Timestamp.valueOf(command.createdAt()), command.userId(), command.userId(), command.sessionId(),
+                command.sessionId());
+    }
+
+    @Override
+    public MaterializeResult materializeAll(List<JournaledVote> votes) {
+        if (votes.isEmpty()) {
+            return new MaterializeResult(0, 0);
+        }
+
+        int size = votes.size();
+        Long[] ids = new Long[size];
+        Long[] userIds = new Long[size];
+        Long[] sessionIds = new Long[size];
+        Integer[] voteOptions = new Integer[size];
+        Timestamp[] createdAts = new Timestamp[size];
+
+        for (int i = 0; i < size; i++) {
+            JournaledVote vote = votes.get(i);
+            ids[i] = vote.id();
+            userIds[i] = vote.userId();
+            sessionIds[i] = vote.sessionId();
+            voteOptions[i] = vote.voteOption().ordinal();
+            createdAts[i] = Timestamp.valueOf(vote.createdAt());
+        }
+
+        MaterializeResult result = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MATERIALIZE_ALL_SQL);
+            statement.setArray(1, array(connection, "bigint", ids));
+            statement.setArray(2, array(connection, "bigint", userIds));
+            statement.setArray(3, array(connection, "bigint", sessionIds));
+            statement.setArray(4, array(connection, "integer", voteOptions));
+            statement.setArray(5, array(connection, "timestamp", createdAts));
+            statement.setInt(6, tallyStripes);
+            return statement;
+        }, rs -> rs.next() ? new MaterializeResult(rs.getInt("inserted"), rs.getInt("rejected")) : null);
+
+        return result == null ? new MaterializeResult(0, 0) : result;
+    }
+
+    @Override
+    public Optional<String> findRejectionReason(Long id) {
+        return jdbcTemplate.queryForList("SELECT reason FROM rejected_votes WHERE id = ?", String.class, id)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public long nextIdBlock() {
+        return jdbcTemplate.queryForObject("SELECT nextval('votes_id_seq')", Long.class);
+    }
+
+    private static Array array(Connection connection, String type, Object[] values) throws SQLException {
+        return connection.createArrayOf(type, values);
+    }
+
+    private static VoteCastResult toResult(ResultSet rs) throws SQLException {
+        long voteId = rs.getLong("vote_id");
+        Long id = rs.wasNull() ? null : voteId;
+
+        boolean sessionOpen = rs.getBoolean("session_open");
+        Boolean open = rs.wasNull() ? null : sessionOpen;
+
+        return new VoteCastRow(id, open, rs.getBoolean("user_exists"));
+    }
+}
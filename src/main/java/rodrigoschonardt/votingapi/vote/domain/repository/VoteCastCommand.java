@@ -0,0 +1,8 @@
+package rodrigoschonardt.votingapi.vote.domain.repository;
+
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+
+import java.time.LocalDateTime;
+
+public record VoteCastCommand(Long userId, Long sessionId, Vote.VoteOption voteOption, LocalDateTime createdAt) {
+}
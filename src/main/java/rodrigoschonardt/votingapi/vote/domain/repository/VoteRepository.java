@@ -1,17 +1,39 @@
 package rodrigoschonardt.votingapi.vote.domain.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import rodrigoschonardt.votingapi.vote.domain.model.Vote;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface VoteRepository extends JpaRepository<Vote, Long> {
+public interface VoteRepository extends JpaRepository<Vote, Long>, VoteBatchRepository {
     boolean existsByUserIdAndSessionId(Long userId, Long sessionId);
     void deleteAllBySession_Topic_Id(Long sessionTopicId);
     void deleteAllBySessionId(Long sessionId);
+
+    // Usuário, sessão e pauta na mesma consulta: sem open-in-view não são carregados depois, ao montar a resposta
+    @Override
+    @EntityGraph(attributePaths = {"user", "session", "session.topic"})
+    Optional<Vote> findById(Long id);
+
+    @EntityGraph(attributePaths = {"user", "session", "session.topic"})
     Page<Vote> findAllBySessionId(Long sessionId, Pageable pageable);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vote v WHERE v.id = :id")
+    Optional<Vote> findForUpdateById(@Param("id") Long id);
+
+    @Query("SELECT v.user.id FROM Vote v WHERE v.session.id = :sessionId")
+    List<Long> findAllUserIdsBySessionId(@Param("sessionId") Long sessionId);
+
     Integer countAllByVoteOptionAndSession_Topic_Id(Vote.VoteOption voteOption, Long sessionTopicId);
 }
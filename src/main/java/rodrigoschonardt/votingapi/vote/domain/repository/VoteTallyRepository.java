@@ -0,0 +1,99 @@
+package rodrigoschonardt.votingapi.vote.domain.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Contagem de votos por (sessão, opção) dividida em N linhas (stripes), para que votos concorrentes na mesma sessão
+// não disputem o lock de uma única linha. Apenas a soma das stripes tem significado.
+@Repository
+public class VoteTallyRepository {
+    private static final String ADD_SQL = """
+            INSERT INTO session_tallies (session_id, vote_option, stripe, count)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (session_id, vote_option, stripe) DO UPDATE SET count = session_tallies.count + EXCLUDED.count
+            """;
+    private static final String SUM_BY_SESSION_IDS_SQL = """
+            SELECT session_id, vote_option, sum(count) AS count
+            FROM session_tallies
+            WHERE session_id = ANY(?)
+            GROUP BY session_id, vote_option
+            """;
+    // Corrige uma sessão somando a diferença entre votes e session_tallies. As duas leituras usam o snapshot do mesmo
+    // statement, e o voto grava votes e session_tallies na mesma transação: votos concorrentes entram nos dois lados ou
+    // em nenhum, e o upsert relativo não sobrescreve o que eles somarem depois. A junção com sessions ignora partições de
+    // sessões já removidas e ainda não recolhidas.
+    private static final String REBUILD_SESSION_SQL = """
+            WITH actual AS (
+                SELECT vote_option, count(*) AS count
+                FROM votes
+                WHERE session_id = ?
+                GROUP BY vote_option
+            ), stored AS (
+                SELECT vote_option, sum(count) AS count
+                FROM session_tallies
+                WHERE session_id = ?
+                GROUP BY vote_option
+            )
+            INSERT INTO session_tallies (session_id, vote_option, stripe, count)
+            SELECT s.id, coalesce(a.vote_option, t.vote_option), ?, coalesce(a.count, 0) - coalesce(t.count, 0)
+            FROM actual a
+            FULL JOIN stored t ON t.vote_option = a.vote_option
+            JOIN sessions s ON s.id = ?
+            WHERE coalesce(a.count, 0) <> coalesce(t.count, 0)
+            ON CONFLICT (session_id, vote_option, stripe) DO UPDATE SET count = session_tallies.count + EXCLUDED.count
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int stripes;
+
+    public VoteTallyRepository(JdbcTemplate jdbcTemplate, @Value("${votingapi.votes.tally.stripes:16}") int stripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stripes = Math.max(1, stripes);
+    }
+
+    public void add(Long sessionId, Vote.VoteOption voteOption, int delta) {
+        jdbcTemplate.update(ADD_SQL, sessionId, voteOption.ordinal(), ThreadLocalRandom.current().nextInt(stripes), delta);
+    }
+
+    // Sessões sem votos não aparecem no resultado
+    public Map<Long, VoteTally> sumBySessionIds(Collection<Long> sessionIds) {
+        Map<Long, VoteTally> tallies = new HashMap<>();
+
+        if (sessionIds.isEmpty()) {
+            return tallies;
+        }
+
+        jdbcTemplate.query(SUM_BY_SESSION_IDS_SQL, rs -> {
+            VoteTally tally = VoteTally.of(Vote.VoteOption.values()[rs.getInt("vote_option")], rs.getLong("count"));
+            tallies.merge(rs.getLong("session_id"), tally, VoteTally::plus);
+        }, (Object) sessionIds.toArray(Long[]::new));
+
+        return tallies;
+    }
+
+    public void deleteAllBySessionIds(Collection<Long> sessionIds) {
+        if (!sessionIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM session_tallies WHERE session_id = ANY(?)",
+                    (Object) sessionIds.toArray(Long[]::new));
+        }
+    }
+
+    public List<Long> findAllSessionIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM sessions ORDER BY id", Long.class);
+    }
+
+    // Sem lock de tabela: cada chamada é um statement curto que só toca as linhas da sessão. Retorna as linhas corrigidas.
+    public int rebuild(Long sessionId) {
+        return jdbcTemplate.update(REBUILD_SESSION_SQL, sessionId, sessionId,
+                ThreadLocalRandom.current().nextInt(stripes), sessionId);
+    }
+}
@@ -0,0 +1,115 @@
+package rodrigoschonardt.votingapi.vote.domain.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import rodrigoschonardt.votingapi.vote.domain.sketch.HyperLogLog;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sketch HyperLogLog dos votantes de cada sessão (session_voter_sketches)
+@Repository
+public class VoterSketchRepository {
+    // Filtros nulos são ignorados; sem tópicos nem sessões considera todas as sessões do período
+    private static final String FIND_SESSION_IDS_SQL = """
+            SELECT id
+            FROM sessions
+            WHERE (cardinality(?::bigint[]) = 0 AND cardinality(?::bigint[]) = 0
+                   OR topic_id = ANY(?) OR id = ANY(?))
+              AND (?::timestamp IS NULL OR end_time >= ?)
+              AND (?::timestamp IS NULL OR start_time <= ?)
+            ORDER BY id
+            LIMIT ?
+            """;
+    private static final String FIND_WITHOUT_SKETCH_SQL = """
+            SELECT s.id
+            FROM sessions s
+            WHERE NOT EXISTS (SELECT 1 FROM session_voter_sketches k WHERE k.session_id = s.id)
+            ORDER BY s.id
+            LIMIT ?
+            """;
+    private static final String INSERT_SQL = """
+            INSERT INTO session_voter_sketches (session_id, registers, updated_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (session_id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VoterSketchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Até limit sessões cuja janela cruza [from, to]
+    public List<Long> findSessionIds(Collection<Long> topicIds, Collection<Long> sessionIds, LocalDateTime from,
+                                     LocalDateTime to, int limit) {
+        Long[] topics = topicIds.toArray(Long[]::new);
+        Long[] sessions = sessionIds.toArray(Long[]::new);
+        Timestamp start = from != null ? Timestamp.valueOf(from) : null;
+        Timestamp end = to != null ? Timestamp.valueOf(to) : null;
+
+        return jdbcTemplate.queryForList(FIND_SESSION_IDS_SQL, Long.class, topics, sessions, topics, sessions,
+                start, start, end, end, limit);
+    }
+
+    public List<Long> findSessionIdsWithoutSketch(int limit) {
+        return jdbcTemplate.queryForList(FIND_WITHOUT_SKETCH_SQL, Long.class, limit);
+    }
+
+    // Sessões sem sketch gravado ficam fora do mapa
+    public Map<Long, HyperLogLog> findBySessionIds(Collection<? extends Long> sessionIds) {
+        Map<Long, HyperLogLog> sketches = new HashMap<>();
+
+        if (sessionIds.isEmpty()) {
+            return sketches;
+        }
+
+        jdbcTemplate.query("SELECT session_id, registers FROM session_voter_sketches WHERE session_id = ANY(?)",
+                rs -> {
+                    sketches.put(rs.getLong("session_id"), HyperLogLog.fromBytes(rs.getBytes("registers")));
+                }, (Object) sessionIds.toArray(Long[]::new));
+
+        return sketches;
+    }
+
+    // Soma delta ao sketch gravado e retorna o resultado. Sessões sem sketch (anteriores a esta tabela) são
+    // montadas uma vez a partir de votes; só é chamado pelo job de flush/backfill, nunca no caminho do pedido. O lock na linha serializa instâncias que gravam a mesma sessão.
+    @Transactional
+    public HyperLogLog merge(Long sessionId, HyperLogLog delta) {
+        HyperLogLog stored = findForUpdate(sessionId);
+
+        if (stored == null) {
+            HyperLogLog built = new HyperLogLog().merge(delta);
+            jdbcTemplate.query("SELECT user_id FROM votes WHERE session_id = ?",
+                    rs -> {
+                        built.offer(rs.getLong("user_id"));
+                    }, sessionId);
+
+            if (jdbcTemplate.update(INSERT_SQL, sessionId, built.toBytes()) > 0) {
+                return built;
+            }
+
+            // Outra instância criou a linha enquanto os votos eram lidos
+            stored = findForUpdate(sessionId);
+        }
+
+        stored.merge(delta);
+        jdbcTemplate.update("UPDATE session_voter_sketches SET registers = ?, updated_at = now() WHERE session_id = ?",
+                stored.toBytes(), sessionId);
+
+        return stored;
+    }
+
+    private HyperLogLog findForUpdate(Long sessionId) {
+        return jdbcTemplate.query("SELECT registers FROM session_voter_sketches WHERE session_id = ? FOR UPDATE",
+                        (rs, rowNum) -> HyperLogLog.fromBytes(rs.getBytes("registers")), sessionId)
+                .stream()
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,11 @@
+package rodrigoschonardt.votingapi.vote.domain.repository.projection;
+
+public interface VoteCastResult {
+    // Nulo quando o voto não foi inserido (sessão fechada/inexistente, usuário inexistente ou voto duplicado)
+    Long getVoteId();
+
+    // Nulo quando a sessão não existe
+    Boolean getSessionOpen();
+
+    Boolean getUserExists();
+}
@@ -0,0 +1,34 @@
+package rodrigoschonardt.votingapi.vote.domain.repository.projection;
+
+public record VoteCastRow(Long voteId, Boolean sessionOpen, Boolean userExists) implements VoteCastResult {
+    public static VoteCastRow unknownSession() {
+        return new VoteCastRow(null, null, null);
+    }
+
+    public static VoteCastRow closed() {
+        return new VoteCastRow(null, false, null);
+    }
+
+    public static VoteCastRow unknownUser() {
+        return new VoteCastRow(null, true, false);
+    }
+
+    public static VoteCastRow duplicate() {
+        return new VoteCastRow(null, true, true);
+    }
+
+    @Override
+    public Long getVoteId() {
+        return voteId;
+    }
+
+    @Override
+    public Boolean getSessionOpen() {
+        return sessionOpen;
+    }
+
+    @Override
+    public Boolean getUserExists() {
+        return userExists;
+    }
+}
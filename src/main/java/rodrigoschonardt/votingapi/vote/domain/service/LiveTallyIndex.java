@@ -0,0 +1,323 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.vote.domain.journal.VoteJournal;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteCastCommand;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteTallyRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// Contagem de votos por (sessão, opção) em memória, lida sem ir ao banco.
+// Semeada a partir de session_tallies no primeiro acesso e atualizada pelo VoteService a cada voto;
+// a ressincronização periódica com session_tallies corrige desvios (outras instâncias, votos descartados pelo journal).
+// Sessões recém-semeadas são ressincronizadas logo em seguida: votos entre a leitura do banco e a criação da entrada
+// não chegam à memória. A ressincronização não troca a entrada: rebaseia o valor gravado sob os contadores, que
+// nunca são zerados, então votos contados durante a leitura não se perdem. Votos novos são gravados e contados sob a
+// trava de leitura da sessão e a ressincronização lê o banco sob a de escrita: um voto nunca está no valor lido sem
+// estar também nos contadores marcados, nem o contrário.
+@Component
+public class LiveTallyIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(LiveTallyIndex.class);
+    private static final int RESYNC_CHUNK_SIZE = 500;
+    private static final long SEED_CHECK_DELAY_MS = 1000;
+    private final VoteTallyRepository voteTallyRepository;
+    private final VoteJournal voteJournal;
+    private final TopicResultsVersions topicResultsVersions;
+    private final Cache<Long, SessionTally> sessions;
+    private final Set<Long> seeded = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean seedCheckScheduled = new AtomicBoolean();
+    private final long resyncIntervalMs;
+    private final Timer resyncLatency;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("live-tally-resync")
+            .daemon(true)
+            .factory());
+
+    public LiveTallyIndex(VoteTallyRepository voteTallyRepository, VoteJournal voteJournal,
+                          TopicResultsVersions topicResultsVersions, MeterRegistry meterRegistry,
+                          @Value("${votingapi.votes.live-tally.max-sessions:10000}") long maxSessions,
+                          @Value("${votingapi.votes.live-tally.expire-after-access-minutes:30}") long expireMinutes,
+                          @Value("${votingapi.votes.live-tally.resync-interval-ms:30000}") long resyncIntervalMs) {
+        this.voteTallyRepository = voteTallyRepository;
+        this.voteJournal = voteJournal;
+        this.topicResultsVersions = topicResultsVersions;
+        this.resyncIntervalMs = resyncIntervalMs;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+                .build();
+
+        Gauge.builder("votingapi.votes.live-tally.sessions", sessions, Cache::estimatedSize)
+                .description("Sessions with live tallies in memory")
+                .register(meterRegistry);
+        this.resyncLatency = Timer.builder("votingapi.votes.live-tally.resync")
+                .description("Time spent resynchronizing live tallies with session_tallies")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (resyncIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::resyncSafely, resyncIntervalMs, resyncIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // Valores já lidos do banco (ex.: na consulta do resultado do tópico) semeiam as sessões ausentes da memória
+    public VoteTally sum(Map<Long, VoteTally> stored) {
+        VoteTally total = VoteTally.EMPTY;
+
+        for (Map.Entry<Long, VoteTally> entry : stored.entrySet()) {
+            total = total.plus(sessions.get(entry.getKey(), id -> seed(id, entry.getValue())).snapshot());
+        }
+
+        return total;
+    }
+
+    // Sessões ausentes da memória são carregadas em uma única consulta
+    public VoteTally sum(Collection<Long> sessionIds) {
+        VoteTally total = VoteTally.EMPTY;
+
+        for (SessionTally tally : sessions.getAll(sessionIds, this::load).values()) {
+            total = total.plus(tally.snapshot());
+        }
+
+        return total;
+    }
+
+    // Sessões que ainda não estão em memória são ignoradas: a carga lê o valor gravado e a verificação seguinte à
+    // semeadura recupera o que chegar entre a leitura e a criação da entrada
+    public void add(Long sessionId, Vote.VoteOption option, long delta) {
+        SessionTally tally = sessions.getIfPresent(sessionId);
+
+        if (tally != null) {
+            tally.add(option, delta);
+        }
+    }
+
+    // Grava os votos e conta os criados antes de soltar as travas das sessões em memória. Votos de sessões ainda não
+    // carregadas não são contados: a carga lê o valor gravado.
+    public List<VoteCastResult> record(List<VoteCastCommand> commands,
+                                       Function<List<VoteCastCommand>, List<VoteCastResult>> write) {
+        // Ordem fixa de aquisição, a mesma da ressincronização, para não haver deadlock entre lotes
+        Map<Long, SessionTally> held = new TreeMap<>();
+
+        for (VoteCastCommand command : commands) {
+            SessionTally tally = sessions.getIfPresent(command.sessionId());
+
+            if (tally != null) {
+                held.put(command.sessionId(), tally);
+            }
+        }
+
+        held.values().forEach(tally -> tally.lock.readLock().lock());
+
+        try {
+            List<VoteCastResult> results = write.apply(commands);
+
+            for (int i = 0; i < results.size(); i++) {
+                SessionTally tally = held.get(commands.get(i).sessionId());
+
+                if (tally != null && results.get(i).getVoteId() != null) {
+                    tally.add(commands.get(i).voteOption(), 1);
+                }
+            }
+
+            return results;
+        } finally {
+            held.values().forEach(tally -> tally.lock.readLock().unlock());
+        }
+    }
+
+    public void invalidate(Long sessionId) {
+        sessions.invalidate(sessionId);
+    }
+
+    public void invalidateAll(Iterable<Long> sessionIds) {
+        sessions.invalidateAll(sessionIds);
+    }
+
+    public void invalidateAll() {
+        sessions.invalidateAll();
+    }
+
+    // Alinha os contadores em memória com session_tallies
+    void resync() {
+        List<Long> sessionIds = List.copyOf(sessions.asMap().keySet());
+
+        seeded.removeAll(sessionIds);
+        resync(sessionIds);
+    }
+
+    // Ressincroniza só as sessões semeadas desde a última execução
+    void resyncSeeded() {
+        seedCheckScheduled.set(false);
+        List<Long> sessionIds = List.copyOf(seeded);
+
+        seeded.removeAll(sessionIds);
+        resync(sessionIds);
+    }
+
+    private void resync(List<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Long> sorted = sessionIds.stream().sorted().toList();
+
+        for (int from = 0; from < sorted.size(); from += RESYNC_CHUNK_SIZE) {
+            resyncChunk(sorted.subList(from, Math.min(from + RESYNC_CHUNK_SIZE, sorted.size())));
+        }
+
+        resyncLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    // As gravações das sessões do trecho esperam a leitura: um voto gravado antes dela já foi contado, um gravado
+    // depois só é contado depois da marca
+    private void resyncChunk(List<Long> sessionIds) {
+        Map<Long, SessionTally> held = new TreeMap<>();
+
+        for (Long sessionId : sessionIds) {
+            SessionTally tally = sessions.asMap().get(sessionId);
+
+            if (tally != null) {
+                held.put(sessionId, tally);
+            }
+        }
+
+        held.values().forEach(tally -> tally.lock.writeLock().lock());
+
+        try {
+            // Votos ainda no journal já estão contados em memória, mas não no banco
+            voteJournal.drain();
+
+            List<Mark> marks = new ArrayList<>(held.size());
+            held.forEach((sessionId, tally) -> marks.add(new Mark(sessionId, tally, tally.counted(), tally.snapshot())));
+
+            Map<Long, VoteTally> stored = voteTallyRepository.sumBySessionIds(List.copyOf(held.keySet()));
+
+            for (Mark mark : marks) {
+                VoteTally value = stored.getOrDefault(mark.sessionId(), VoteTally.EMPTY);
+                mark.tally().rebase(value, mark.counted());
+
+                // Votos de outras instâncias (ou descartados) mudaram a contagem da sessão
+                if (!value.equals(mark.value())) {
+                    topicResultsVersions.bumpBySession(mark.sessionId());
+                }
+            }
+        } finally {
+            held.values().forEach(tally -> tally.lock.writeLock().unlock());
+        }
+    }
+
+    private void resyncSafely() {
+        try {
+            resync();
+        } catch (RuntimeException ex) {
+            LOG.warn("Live tally resync failed: {}", ex.getMessage());
+        }
+    }
+
+    private void resyncSeededSafely() {
+        try {
+            resyncSeeded();
+        } catch (RuntimeException ex) {
+            LOG.warn("Live tally seed resync failed: {}", ex.getMessage());
+        }
+    }
+
+    private Map<Long, SessionTally> load(Set<? extends Long> sessionIds) {
+        Map<Long, VoteTally> stored = voteTallyRepository.sumBySessionIds(List.copyOf(sessionIds));
+        Map<Long, SessionTally> loaded = new HashMap<>();
+
+        for (Long sessionId : sessionIds) {
+            loaded.put(sessionId, seed(sessionId, stored.getOrDefault(sessionId, VoteTally.EMPTY)));
+        }
+
+        return loaded;
+    }
+
+    // Sem job de ressincronização (resyncIntervalMs = 0) as sessões semeadas só são verificadas por chamada explícita.
+    // A verificação é agendada com atraso: a entrada só entra no cache quando a carga termina.
+    private SessionTally seed(Long sessionId, VoteTally stored) {
+        seeded.add(sessionId);
+
+        if (resyncIntervalMs > 0 && seedCheckScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::resyncSeededSafely, SEED_CHECK_DELAY_MS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                // Em parada
+            }
+        }
+
+        return new SessionTally(stored);
+    }
+
+    private record Mark(Long sessionId, SessionTally tally, VoteTally counted, VoteTally value) {
+    }
+
+    // Valor = base + contadores. A ressincronização só troca a base, então um add concorrente nunca é sobrescrito.
+    private static final class SessionTally {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongAdder yes = new LongAdder();
+        private final LongAdder no = new LongAdder();
+        private volatile VoteTally base;
+
+        SessionTally(VoteTally initial) {
+            base = initial;
+        }
+
+        void add(Vote.VoteOption option, long delta) {
+            (option == Vote.VoteOption.YES ? yes : no).add(delta);
+        }
+
+        VoteTally counted() {
+            return new VoteTally(yes.sum(), no.sum());
+        }
+
+        // stored foi lido depois de counted, sem gravações no meio: o que os contadores somarem daqui em diante
+        // continua valendo sobre ele
+        void rebase(VoteTally stored, VoteTally counted) {
+            base = new VoteTally(stored.yes() - counted.yes(), stored.no() - counted.no());
+        }
+
+        VoteTally snapshot() {
+            VoteTally current = base;
+            return new VoteTally(current.yes() + yes.sum(), current.no() + no.sum());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.vote.domain.journal.VoteJournal;
+import rodrigoschonardt.votingapi.vote.domain.repository.SessionResultRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Grava o resultado final das sessões encerradas em session_results. As pendentes são descobertas por consulta
+// (encerradas e sem linha em session_results), então sessões encerradas com a aplicação fora do ar são
+// finalizadas na execução seguinte ao reinício.
+@Component
+public class SessionResultFinalizer {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionResultFinalizer.class);
+    private final SessionResultRepository sessionResultRepository;
+    private final VoteJournal voteJournal;
+    private final long intervalMs;
+    private final long graceMs;
+    private final int batchSize;
+    private final Counter finalized;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("session-result-finalizer")
+            .daemon(true)
+            .factory());
+
+    public SessionResultFinalizer(SessionResultRepository sessionResultRepository, VoteJournal voteJournal,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${votingapi.sessions.finalizer.interval-ms:10000}") long intervalMs,
+                                  @Value("${votingapi.sessions.finalizer.grace-ms:5000}") long graceMs,
+                                  @Value("${votingapi.sessions.finalizer.batch-size:100}") int batchSize) {
+        this.sessionResultRepository = sessionResultRepository;
+        this.voteJournal = voteJournal;
+        this.intervalMs = intervalMs;
+        this.graceMs = graceMs;
+        this.batchSize = Math.max(1, batchSize);
+        this.finalized = Counter.builder("votingapi.sessions.finalized")
+                .description("Closed sessions whose final results were stored")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (intervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::runSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // Retorna quantas sessões foram finalizadas; lotes seguidos até não haver pendentes
+    int run() {
+        // Margem para votos aceitos no fim da janela que ainda estão sendo gravados
+        LocalDateTime closedBefore = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(graceMs));
+        int total = 0;
+        List<Long> sessionIds;
+
+        do {
+            sessionIds = sessionResultRepository.findPendingSessionIds(closedBefore, batchSize);
+
+            if (sessionIds.isEmpty()) {
+                break;
+            }
+
+            // Votos confirmados pelo journal ainda não estão em votes
+            voteJournal.drain();
+
+            for (Long sessionId : sessionIds) {
+                if (sessionResultRepository.finalizeSession(sessionId)) {
+                    finalized.increment();
+                    total++;
+
+                    LOG.info("Results finalized for session ID: {}", sessionId);
+                }
+            }
+        } while (sessionIds.size() == batchSize);
+
+        return total;
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (RuntimeException ex) {
+            LOG.warn("Session result finalization failed: {}", ex.getMessage());
+        }
+    }
+}
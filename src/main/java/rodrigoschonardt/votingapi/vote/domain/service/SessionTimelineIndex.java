@@ -0,0 +1,253 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.session.domain.event.SessionChangedEvent;
+import rodrigoschonardt.votingapi.vote.domain.journal.VoteJournal;
+import rodrigoschonardt.votingapi.vote.domain.model.SessionTimeline;
+import rodrigoschonardt.votingapi.vote.domain.repository.SessionTimelineRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histograma de votos por intervalo de cada sessão aberta, mantido em memória e atualizado a cada voto.
+// Depois do encerramento (e da mesma margem do SessionResultFinalizer, para votos ainda sendo gravados) o histograma
+// exato é calculado uma vez e gravado em session_timelines; leituras seguintes usam a linha gravada, sem GROUP BY sobre
+// os votos. Votos gravados enquanto a carga lia o banco podem ficar de fora, então cada histograma carregado é
+// recontado uma vez, resync-interval-ms depois da carga. A recontagem não sobrescreve os contadores: rebaseia o valor
+// lido sob eles, como no LiveTallyIndex, e votos contados durante a leitura não se perdem.
+@Component
+public class SessionTimelineIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionTimelineIndex.class);
+    private final SessionTimelineRepository sessionTimelineRepository;
+    private final VoteJournal voteJournal;
+    private final Cache<Long, Buckets> sessions;
+    private final Set<Long> seeded = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean seedCheckScheduled = new AtomicBoolean();
+    private final int bucketSeconds;
+    private final int maxBuckets;
+    private final long graceMs;
+    private final long resyncIntervalMs;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("session-timeline-resync")
+            .daemon(true)
+            .factory());
+
+    public SessionTimelineIndex(SessionTimelineRepository sessionTimelineRepository, VoteJournal voteJournal,
+                                MeterRegistry meterRegistry,
+                                @Value("${votingapi.sessions.timeline.bucket-seconds:60}") int bucketSeconds,
+                                @Value("${votingapi.sessions.timeline.max-buckets:1440}") int maxBuckets,
+                                @Value("${votingapi.sessions.timeline.max-sessions:1000}") long maxSessions,
+                                @Value("${votingapi.sessions.timeline.expire-after-access-minutes:30}") long expireMinutes,
+                                @Value("${votingapi.sessions.finalizer.grace-ms:5000}") long graceMs,
+                                @Value("${votingapi.sessions.timeline.resync-interval-ms:5000}") long resyncIntervalMs) {
+        this.sessionTimelineRepository = sessionTimelineRepository;
+        this.voteJournal = voteJournal;
+        this.bucketSeconds = Math.max(1, bucketSeconds);
+        this.maxBuckets = Math.max(1, maxBuckets);
+        this.graceMs = Math.max(0, graceMs);
+        this.resyncIntervalMs = resyncIntervalMs;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+                .build();
+
+        Gauge.builder("votingapi.sessions.timeline.sessions", sessions, Cache::estimatedSize)
+                .description("Sessions with a vote timeline in memory")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // closed: sessão encerrada e sem votos pendentes no journal; o histograma só é gravado depois da margem
+    public SessionTimeline get(Long sessionId, LocalDateTime startTime, LocalDateTime endTime, boolean closed) {
+        boolean frozen = closed && endTime.plus(Duration.ofMillis(graceMs)).isBefore(LocalDateTime.now());
+
+        if (!frozen) {
+            return sessions.get(sessionId, id -> load(id, startTime, endTime)).snapshot();
+        }
+
+        return sessionTimelineRepository.findBySessionId(sessionId).orElseGet(() -> freeze(sessionId, startTime, endTime));
+    }
+
+    // Sessões que ainda não estão em memória são ignoradas: a carga lê os votos já gravados
+    public void add(Long sessionId, LocalDateTime createdAt, long delta) {
+        Buckets buckets = sessions.getIfPresent(sessionId);
+
+        if (buckets != null) {
+            buckets.add(createdAt, delta);
+        }
+    }
+
+    // Voto removido: o histograma gravado (se houver) é descartado e recalculado na próxima leitura
+    public void remove(Long sessionId, LocalDateTime createdAt) {
+        add(sessionId, createdAt, -1);
+        sessionTimelineRepository.deleteAllBySessionIds(List.of(sessionId));
+    }
+
+    public void invalidateAll(Collection<Long> sessionIds) {
+        sessions.invalidateAll(sessionIds);
+        sessionTimelineRepository.deleteAllBySessionIds(sessionIds);
+    }
+
+    // Janela alterada: os intervalos em memória foram calculados sobre a janela antiga
+    @EventListener
+    public void onSessionChanged(SessionChangedEvent event) {
+        sessions.invalidate(event.sessionId());
+    }
+
+    // Reconta os histogramas carregados desde a última execução; retorna quantos foram recontados
+    int resync() {
+        seedCheckScheduled.set(false);
+        List<Long> sessionIds = List.copyOf(seeded);
+
+        seeded.removeAll(sessionIds);
+
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+
+        // Votos ainda no journal já estão contados em memória, mas não no banco
+        voteJournal.drain();
+
+        int total = 0;
+
+        for (Long sessionId : sessionIds) {
+            Buckets buckets = sessions.asMap().get(sessionId);
+
+            if (buckets == null) {
+                continue;
+            }
+
+            // Marca tirada antes da leitura: o que for contado a partir daqui é somado ao valor lido
+            long[] counted = buckets.counted();
+            long[] counts = sessionTimelineRepository.countByBucket(sessionId, buckets.startTime, buckets.width,
+                    buckets.size());
+
+            buckets.rebase(counts, counted);
+            total++;
+        }
+
+        return total;
+    }
+
+    private void resyncSafely() {
+        try {
+            resync();
+        } catch (RuntimeException ex) {
+            LOG.warn("Vote timeline resync failed: {}", ex.getMessage());
+        }
+    }
+
+    private SessionTimeline freeze(Long sessionId, LocalDateTime startTime, LocalDateTime endTime) {
+        Buckets buckets = new Buckets(startTime, endTime);
+        long[] counts = sessionTimelineRepository.countByBucket(sessionId, startTime, buckets.width, buckets.size());
+        SessionTimeline timeline = new SessionTimeline(startTime, buckets.width, counts);
+
+        sessionTimelineRepository.save(sessionId, timeline);
+        sessions.invalidate(sessionId);
+
+        LOG.info("Vote timeline frozen for session ID: {} with {} buckets", sessionId, counts.length);
+
+        return timeline;
+    }
+
+    private Buckets load(Long sessionId, LocalDateTime startTime, LocalDateTime endTime) {
+        Buckets buckets = new Buckets(startTime, endTime);
+        long[] counts = sessionTimelineRepository.countByBucket(sessionId, startTime, buckets.width, buckets.size());
+
+        buckets.rebase(counts, new long[counts.length]);
+        seeded.add(sessionId);
+
+        // Agendada com atraso: a entrada só entra no cache quando a carga termina. Sem intervalo
+        // (resyncIntervalMs = 0) a recontagem só acontece por chamada explícita.
+        if (resyncIntervalMs > 0 && seedCheckScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::resyncSafely, resyncIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                // Em parada
+            }
+        }
+
+        return buckets;
+    }
+
+    // Valor = base + contadores. A recontagem só troca a base, então um add concorrente nunca é sobrescrito.
+    private final class Buckets {
+        private final LocalDateTime startTime;
+        private final int width;
+        private final AtomicLongArray counts;
+        private volatile long[] base;
+
+        // Janelas longas usam intervalos maiores para não passar de maxBuckets
+        Buckets(LocalDateTime startTime, LocalDateTime endTime) {
+            long seconds = Math.max(1, Duration.between(startTime, endTime).toSeconds());
+            this.startTime = startTime;
+            this.width = (int) Math.max(bucketSeconds, (seconds + maxBuckets - 1) / maxBuckets);
+            this.counts = new AtomicLongArray((int) (seconds / width) + 1);
+            this.base = new long[counts.length()];
+        }
+
+        void add(LocalDateTime createdAt, long delta) {
+            long index = Duration.between(startTime, createdAt).toSeconds() / width;
+            counts.addAndGet((int) Math.clamp(index, 0, counts.length() - 1), delta);
+        }
+
+        int size() {
+            return counts.length();
+        }
+
+        long[] counted() {
+            long[] values = new long[counts.length()];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = counts.get(i);
+            }
+
+            return values;
+        }
+
+        // stored foi lido depois de counted: o que os contadores somaram desde então continua valendo sobre ele
+        void rebase(long[] stored, long[] counted) {
+            long[] values = new long[counts.length()];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (i < stored.length ? stored[i] : 0) - counted[i];
+            }
+
+            base = values;
+        }
+
+        SessionTimeline snapshot() {
+            long[] current = base;
+            long[] values = counted();
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] += current[i];
+            }
+
+            return new SessionTimeline(startTime, width, values);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Bitmap comprimido dos usuários que já votaram em cada sessão ativa.
+// É uma dica: um acerto é confirmado no banco antes de rejeitar o voto, e uma ausência deixa a decisão para o INSERT.
+// A constraint UNIQUE continua sendo a fonte da verdade; apenas votos efetivamente criados entram no bitmap.
+@Component
+public class SessionVoterIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionVoterIndex.class);
+    private final VoteRepository voteRepository;
+    private final Cache<Long, Voters> sessions;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(Thread.ofPlatform()
+            .name("session-voter-loader")
+            .daemon(true)
+            .factory());
+
+    public SessionVoterIndex(VoteRepository voteRepository, MeterRegistry meterRegistry,
+                             @Value("${votingapi.votes.voter-index.max-sessions:1000}") long maxSessions,
+                             @Value("${votingapi.votes.voter-index.expire-after-access-minutes:30}") long expireMinutes) {
+        this.voteRepository = voteRepository;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+                .build();
+
+        Gauge.builder("votingapi.votes.voter-index.sessions", sessions, Cache::estimatedSize)
+                .description("Sessions with a voter bitmap in memory")
+                .register(meterRegistry);
+        Gauge.builder("votingapi.votes.voter-index.voters", this, SessionVoterIndex::cardinality)
+                .description("Voters tracked across all in-memory bitmaps")
+                .register(meterRegistry);
+        Gauge.builder("votingapi.votes.voter-index.size", this, SessionVoterIndex::sizeInBytes)
+                .description("Memory used by the voter bitmaps")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("votingapi.votes.voter-index.size.per-million-voters", this, SessionVoterIndex::bytesPerMillionVoters)
+                .description("Memory used by the voter bitmaps per million tracked voters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // true quando o bitmap tem o usuário (a confirmar no banco); false significa "não sei", e o banco decide
+    public boolean hasVoted(Long sessionId, Long userId) {
+        Voters voters = sessions.get(sessionId, this::load);
+        return voters.contains(userId);
+    }
+
+    // true quando o bitmap da sessão já reflete os votos gravados no banco
+    public boolean isLoaded(Long sessionId) {
+        Voters voters = sessions.getIfPresent(sessionId);
+        return voters != null && voters.isLoaded();
+    }
+
+    public void add(Long sessionId, Long userId) {
+        Voters voters = sessions.getIfPresent(sessionId);
+
+        if (voters != null) {
+            voters.add(userId);
+        }
+    }
+
+    public void remove(Long sessionId, Long userId) {
+        Voters voters = sessions.getIfPresent(sessionId);
+
+        if (voters != null) {
+            voters.remove(userId);
+        }
+    }
+
+    public void invalidate(Long sessionId) {
+        sessions.invalidate(sessionId);
+    }
+
+    public void invalidateAll(Iterable<Long> sessionIds) {
+        sessions.invalidateAll(sessionIds);
+    }
+
+    private Voters load(Long sessionId) {
+        Voters voters = new Voters();
+
+        // A carga roda em background; até terminar, toda consulta cai no banco
+        CompletableFuture.runAsync(() -> {
+            Roaring64Bitmap loaded = new Roaring64Bitmap();
+            voteRepository.findAllUserIdsBySessionId(sessionId).forEach(loaded::addLong);
+            voters.merge(loaded);
+            LOG.info("Voter bitmap loaded for session ID: {} with {} voters", sessionId, loaded.getLongCardinality());
+        }, loader).exceptionally(ex -> {
+            LOG.warn("Voter bitmap load failed for session ID: {}", sessionId, ex);
+            sessions.asMap().remove(sessionId, voters);
+            return null;
+        });
+
+        return voters;
+    }
+
+    private double cardinality() {
+        return sessions.asMap().values().stream().mapToLong(Voters::cardinality).sum();
+    }
+
+    private double sizeInBytes() {
+        return sessions.asMap().values().stream().mapToLong(Voters::sizeInBytes).sum();
+    }
+
+    private double bytesPerMillionVoters() {
+        double voters = cardinality();
+        return voters == 0 ? 0 : sizeInBytes() / voters * 1_000_000;
+    }
+
+    private static final class Voters {
+        private final Roaring64Bitmap bitmap = new Roaring64Bitmap();
+        // Remoções feitas durante a carga, aplicadas sobre o snapshot lido do banco
+        private final Roaring64Bitmap removedWhileLoading = new Roaring64Bitmap();
+        private boolean loaded;
+
+        synchronized boolean contains(long userId) {
+            return loaded && bitmap.contains(userId);
+        }
+
+        synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        synchronized void add(long userId) {
+            bitmap.addLong(userId);
+            removedWhileLoading.removeLong(userId);
+        }
+
+        synchronized void remove(long userId) {
+            bitmap.removeLong(userId);
+
+            if (!loaded) {
+                removedWhileLoading.addLong(userId);
+            }
+        }
+
+        synchronized void merge(Roaring64Bitmap snapshot) {
+            snapshot.andNot(removedWhileLoading);
+            bitmap.or(snapshot);
+            removedWhileLoading.clear();
+            loaded = true;
+        }
+
+        synchronized long cardinality() {
+            return bitmap.getLongCardinality();
+        }
+
+        synchronized long sizeInBytes() {
+            return bitmap.getLongSizeInBytes();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rodrigoschonardt.votingapi.session.domain.event.SessionChangedEvent;
+import rodrigoschonardt.votingapi.session.domain.event.SessionCreatedEvent;
+import rodrigoschonardt.votingapi.session.domain.service.SessionService;
+import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.topic.domain.event.TopicUpdatedEvent;
+import rodrigoschonardt.votingapi.vote.domain.event.VoteDeletedEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versão do resultado de cada tópico, usada como ETag. Toda alteração que muda o resultado avança a versão.
+// Só alterações criam entradas: um tópico ausente do mapa (nunca alterado, inexistente ou descartado pelo limite) usa o
+// piso, que fica acima de toda versão já descartada, então uma ETag antiga nunca volta a coincidir.
+// O prefixo (início do processo) separa reinícios e instâncias.
+@Component
+public class TopicResultsVersions {
+    private final SessionService sessionService;
+    private final Cache<Long, Long> versions;
+    private final AtomicLong clock = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // Versão mínima de todos os tópicos; avançada quando as contagens mudam sem se saber de quais tópicos
+    private volatile long floor;
+    // Maior versão descartada do mapa pelo limite de tamanho; piso dos tópicos ausentes
+    private final AtomicLong evicted = new AtomicLong();
+
+    public TopicResultsVersions(SessionService sessionService,
+                                @Value("${votingapi.topics.results-versions.max-size:100000}") long maxSize) {
+        this.sessionService = sessionService;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .<Long, Long>evictionListener((topicId, version, cause) -> evicted.accumulateAndGet(version, Math::max))
+                .build();
+    }
+
+    // Não cria entrada: ids enviados pelo cliente (inclusive inexistentes) não ocupam o mapa nem avançam o relógio
+    public long current(Long topicId) {
+        Long version = versions.getIfPresent(topicId);
+
+        return Math.max(floor, version != null ? version : evicted.get());
+    }
+
+    public String etag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    public void bump(Long topicId) {
+        versions.asMap().merge(topicId, clock.incrementAndGet(), Math::max);
+    }
+
+    // Caminho do voto: o tópico vem da janela da sessão em cache
+    public void bumpBySession(Long sessionId) {
+        try {
+            bump(sessionService.getTopicId(sessionId));
+        } catch (EntityNotFoundException ex) {
+            // Sessão removida: o tópico já teve a versão avançada pela remoção
+        }
+    }
+
+    public void bumpAll() {
+        floor = clock.incrementAndGet();
+    }
+
+    // Após o commit, para que uma leitura concorrente não associe a nova versão ao resultado antigo
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionCreated(SessionCreatedEvent event) {
+        bump(event.topicId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        bump(event.topicId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVoteDeleted(VoteDeletedEvent event) {
+        bump(event.topicId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTopicUpdated(TopicUpdatedEvent event) {
+        bump(event.topicId());
+    }
+}
@@ -0,0 +1,244 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.shared.exception.VoteWriteUnavailableException;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteCastCommand;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Agrupa votos concorrentes em um único statement/commit (group commit).
+// Cada chamador aguarda apenas o resultado do seu próprio voto, por no máximo wait-timeout-ms.
+@Component
+public class VoteGroupCommitWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(VoteGroupCommitWriter.class);
+    private final VoteRepository voteRepository;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int writers;
+    private final long waitTimeoutMs;
+    private final BlockingQueue<PendingVote> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+    private final List<Thread> writerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public VoteGroupCommitWriter(VoteRepository voteRepository, MeterRegistry meterRegistry,
+                                 @Value("${votingapi.votes.group-commit.batch-size:100}") int batchSize,
+                                 @Value("${votingapi.votes.group-commit.linger-ms:2}") long lingerMs,
+                                 @Value("${votingapi.votes.group-commit.writers:2}") int writers,
+                                 @Value("${votingapi.votes.group-commit.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${votingapi.votes.group-commit.wait-timeout-ms:5000}") long waitTimeoutMs) {
+        this.voteRepository = voteRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+        this.writers = Math.max(1, writers);
+        this.waitTimeoutMs = Math.max(1, waitTimeoutMs);
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSizes = DistributionSummary.builder("votingapi.votes.group-commit.batch.size")
+                .description("Votes flushed per group commit")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("votingapi.votes.group-commit.flush")
+                .description("Time spent flushing a group commit batch")
+                .register(meterRegistry);
+        meterRegistry.gauge("votingapi.votes.group-commit.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+
+        for (int i = 0; i < writers; i++) {
+            Thread thread = new Thread(this::drain, "vote-group-commit-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            writerThreads.add(thread);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writerThreads.forEach(Thread::interrupt);
+
+        List<PendingVote> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        flush(remaining);
+    }
+
+    public VoteCastResult cast(VoteCastCommand command) {
+        if (!running) {
+            throw new VoteWriteUnavailableException("Vote writer is stopped, try again later");
+        }
+
+        PendingVote pending = new PendingVote(command, new CompletableFuture<>(), new AtomicBoolean());
+
+        // Fila cheia: grava direto na thread do chamador
+        if (!queue.offer(pending)) {
+            return voteRepository.castAll(List.of(command)).getFirst();
+        }
+
+        // stop() pode ter esvaziado a fila entre a checagem e o offer: ninguém mais leria este voto
+        if (!running && queue.remove(pending)) {
+            throw new VoteWriteUnavailableException("Vote writer is stopped, try again later");
+        }
+
+        try {
+            return pending.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // Cancelado antes de um writer pegá-lo: o voto nunca será gravado e o 503 é verdadeiro
+            if (pending.cancel()) {
+                queue.remove(pending);
+                LOG.warn("Vote of user {} in session {} not confirmed within {} ms, cancelled",
+                        command.userId(), command.sessionId(), waitTimeoutMs);
+                throw new VoteWriteUnavailableException("Vote was not confirmed in time, try again later");
+            }
+
+            // Já está em um flush e pode ser gravado: espera o resultado real para não responder erro a um voto
+            // registrado nem pular a atualização dos índices feita pelo chamador
+            LOG.warn("Vote of user {} in session {} not confirmed within {} ms, waiting for in-flight flush",
+                    command.userId(), command.sessionId(), waitTimeoutMs);
+            return join(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+
+            if (pending.cancel()) {
+                queue.remove(pending);
+                throw new VoteWriteUnavailableException("Vote write interrupted, try again later");
+            }
+
+            return join(pending);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    private static VoteCastResult join(PendingVote pending) {
+        try {
+            return pending.result().join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private void drain() {
+        List<PendingVote> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                PendingVote first = queue.poll(100, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException ex) {
+                // O flush roda com a flag limpa (o JDBC pode abortar com ela ligada) e ela é restaurada depois
+                flush(batch);
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void collect(List<PendingVote> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+
+            long remaining = deadline - System.nanoTime();
+
+            if (remaining <= 0) {
+                return;
+            }
+
+            PendingVote next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+
+            if (next == null) {
+                return;
+            }
+
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingVote> batch) {
+        // Votos cancelados pelo chamador por timeout saem do lote; os demais não podem mais ser cancelados
+        batch.removeIf(pending -> !pending.claim());
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<VoteCastCommand> commands = batch.stream().map(PendingVote::command).toList();
+        long start = System.nanoTime();
+
+        try {
+            List<VoteCastResult> results = voteRepository.castAll(commands);
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException ex) {
+            // Um voto inválido (ex.: usuário removido no meio do lote) não deve derrubar os demais
+            LOG.warn("Group commit of {} votes failed, retrying individually: {}", batch.size(), ex.getMessage());
+            batch.forEach(this::flushSingle);
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private void flushSingle(PendingVote pending) {
+        try {
+            pending.result().complete(voteRepository.castAll(List.of(pending.command())).getFirst());
+        } catch (RuntimeException ex) {
+            pending.result().completeExceptionally(ex);
+        }
+    }
+
+    private record PendingVote(VoteCastCommand command, CompletableFuture<VoteCastResult> result,
+                               AtomicBoolean taken) {
+        // Writer e chamador disputam o voto: quem vencer decide se ele é gravado ou cancelado
+        boolean claim() {
+            return taken.compareAndSet(false, true);
+        }
+
+        boolean cancel() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+}
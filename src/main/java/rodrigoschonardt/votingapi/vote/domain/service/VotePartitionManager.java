@@ -0,0 +1,154 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.session.domain.event.SessionCreatedEvent;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Uma partição de votes por sessão (PARTITION BY LIST (session_id)), sem partição DEFAULT. A partição é criada na
+// transação que grava a sessão; depois que a sessão é removida, o reclaim a desanexa com DETACH ... CONCURRENTLY e a
+// apaga fora do caminho do pedido, sem ACCESS EXCLUSIVE em votes. As órfãs são descobertas por consulta, então uma
+// remoção interrompida é retomada na execução seguinte. Em bases sem particionamento (install.ddl antigo) não faz nada.
+@Component
+public class VotePartitionManager {
+    private static final Logger LOG = LoggerFactory.getLogger(VotePartitionManager.class);
+    private static final String IS_PARTITIONED_SQL = "SELECT relkind = 'p' FROM pg_class WHERE oid = 'votes'::regclass";
+    private static final String IS_ATTACHED_SQL = """
+            SELECT EXISTS (
+                SELECT 1
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'votes'::regclass AND c.relname = ?
+            )
+            """;
+    // Partições (anexadas, com DETACH pendente ou já desanexadas) cuja sessão não existe mais
+    private static final String FIND_ORPHANS_SQL = """
+            SELECT c.relname, i.inhrelid IS NOT NULL AS attached, coalesce(i.inhdetachpending, false) AS detach_pending
+            FROM pg_class c
+            LEFT JOIN pg_inherits i ON i.inhrelid = c.oid AND i.inhparent = 'votes'::regclass
+            WHERE c.relkind = 'r'
+              AND c.relname ~ '^votes_s[0-9]+$'
+              AND pg_table_is_visible(c.oid)
+              AND NOT EXISTS (SELECT 1 FROM sessions s WHERE s.id = substring(c.relname FROM 8)::bigint)
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long reclaimIntervalMs;
+    private final int reclaimBatchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("vote-partition-reclaim")
+            .daemon(true)
+            .factory());
+    private volatile Boolean partitioned;
+
+    public VotePartitionManager(JdbcTemplate jdbcTemplate,
+                                @Value("${votingapi.votes.partitions.reclaim-interval-ms:30000}") long reclaimIntervalMs,
+                                @Value("${votingapi.votes.partitions.reclaim-batch-size:50}") int reclaimBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reclaimIntervalMs = reclaimIntervalMs;
+        this.reclaimBatchSize = Math.max(1, reclaimBatchSize);
+    }
+
+    @PostConstruct
+    void start() {
+        if (reclaimIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::reclaimSafely, reclaimIntervalMs, reclaimIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // Sem partição DEFAULT um voto da sessão não teria onde ser gravado: a falha desfaz a criação da sessão
+    @EventListener
+    public void onSessionCreated(SessionCreatedEvent event) {
+        create(event.sessionId());
+    }
+
+    // Cria a tabela separada e anexa depois: ATTACH PARTITION bloqueia menos a tabela pai do que CREATE ... PARTITION OF
+    public void create(Long sessionId) {
+        String partition = partitionName(sessionId);
+
+        if (!isPartitioned() || isAttached(partition)) {
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " (LIKE votes INCLUDING DEFAULTS)");
+        jdbcTemplate.execute("ALTER TABLE votes ATTACH PARTITION " + partition + " FOR VALUES IN (" + sessionId + ")");
+
+        LOG.info("Vote partition {} created for session ID: {}", partition, sessionId);
+    }
+
+    // Retorna quantas partições foram apagadas. Roda fora de transação: DETACH ... CONCURRENTLY não aceita bloco de
+    // transação. Ele espera as transações que ainda enxergam a partição, sem bloquear leituras e escritas em votes.
+    int reclaim() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+
+        List<OrphanPartition> orphans = jdbcTemplate.query(FIND_ORPHANS_SQL, (rs, rowNum) -> new OrphanPartition(
+                rs.getString("relname"), rs.getBoolean("attached"), rs.getBoolean("detach_pending")), reclaimBatchSize);
+        int total = 0;
+
+        for (OrphanPartition orphan : orphans) {
+            try {
+                if (orphan.detachPending()) {
+                    // DETACH CONCURRENTLY interrompido no meio
+                    jdbcTemplate.execute("ALTER TABLE votes DETACH PARTITION " + orphan.name() + " FINALIZE");
+                } else if (orphan.attached()) {
+                    jdbcTemplate.execute("ALTER TABLE votes DETACH PARTITION " + orphan.name() + " CONCURRENTLY");
+                }
+
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + orphan.name());
+                total++;
+
+                LOG.info("Vote partition {} dropped", orphan.name());
+            } catch (DataAccessException ex) {
+                LOG.warn("Could not drop vote partition {}: {}", orphan.name(), ex.getMessage());
+            }
+        }
+
+        return total;
+    }
+
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class));
+        }
+
+        return partitioned;
+    }
+
+    static String partitionName(Long sessionId) {
+        return "votes_s" + sessionId;
+    }
+
+    private boolean isAttached(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_ATTACHED_SQL, Boolean.class, partition));
+    }
+
+    private void reclaimSafely() {
+        try {
+            reclaim();
+        } catch (RuntimeException ex) {
+            LOG.warn("Vote partition reclaim failed: {}", ex.getMessage());
+        }
+    }
+
+    private record OrphanPartition(String name, boolean attached, boolean detachPending) {
+    }
+}
@@ -2,23 +2,45 @@ package rodrigoschonardt.votingapi.vote.domain.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import rodrigoschonardt.votingapi.session.domain.model.Session;
+import org.springframework.transaction.annotation.Transactional;
 import rodrigoschonardt.votingapi.session.domain.service.SessionService;
 import rodrigoschonardt.votingapi.shared.exception.EntityAlreadyExistsException;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.shared.exception.VoteRejectedException;
 import rodrigoschonardt.votingapi.shared.exception.VotingNotAllowedException;
 import rodrigoschonardt.votingapi.topic.domain.service.TopicService;
-import rodrigoschonardt.votingapi.user.domain.model.User;
 import rodrigoschonardt.votingapi.user.domain.service.UserService;
+import rodrigoschonardt.votingapi.vote.domain.event.VoteDeletedEvent;
+import rodrigoschonardt.votingapi.vote.domain.journal.VoteJournal;
+import rodrigoschonardt.votingapi.vote.domain.model.DistinctVoterEstimate;
+import rodrigoschonardt.votingapi.vote.domain.model.SessionTimeline;
 import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+import rodrigoschonardt.votingapi.vote.domain.repository.SessionResultRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteCastCommand;
 import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteTallyRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastRow;
 import rodrigoschonardt.votingapi.vote.web.dto.AddVoteData;
 import rodrigoschonardt.votingapi.vote.web.dto.UpdateVoteData;
 import rodrigoschonardt.votingapi.vote.web.mapper.VoteMapper;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
 @Service
 public class VoteService {
     private final static Logger LOG = LoggerFactory.getLogger(VoteService.class);
@@ -27,63 +49,256 @@ public class VoteService {
     private final TopicService topicService;
     private final SessionService sessionService;
     private final UserService userService;
+    private final VoteGroupCommitWriter voteGroupCommitWriter;
+    private final SessionVoterIndex sessionVoterIndex;
+    private final VoteJournal voteJournal;
+    private final VotePartitionManager votePartitionManager;
+    private final VoteTallyRepository voteTallyRepository;
+    private final LiveTallyIndex liveTallyIndex;
+    private final SessionTimelineIndex sessionTimelineIndex;
+    private final TopicResultsVersions topicResultsVersions;
+    private final SessionResultRepository sessionResultRepository;
+    private final VoterSketchIndex voterSketchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public VoteService(VoteRepository voteRepository, VoteMapper voteMapper, TopicService topicService,
-                       SessionService sessionService, UserService userService) {
+                       SessionService sessionService, UserService userService,
+                       VoteGroupCommitWriter voteGroupCommitWriter, SessionVoterIndex sessionVoterIndex,
+                       VoteJournal voteJournal, VotePartitionManager votePartitionManager,
+                       VoteTallyRepository voteTallyRepository, LiveTallyIndex liveTallyIndex,
+                       SessionTimelineIndex sessionTimelineIndex, TopicResultsVersions topicResultsVersions,
+                       SessionResultRepository sessionResultRepository, VoterSketchIndex voterSketchIndex,
+                       ApplicationEventPublisher eventPublisher) {
         this.voteRepository = voteRepository;
         this.voteMapper = voteMapper;
         this.topicService = topicService;
         this.sessionService = sessionService;
         this.userService = userService;
+        this.voteGroupCommitWriter = voteGroupCommitWriter;
+        this.sessionVoterIndex = sessionVoterIndex;
+        this.voteJournal = voteJournal;
+        this.votePartitionManager = votePartitionManager;
+        this.voteTallyRepository = voteTallyRepository;
+        this.liveTallyIndex = liveTallyIndex;
+        this.sessionTimelineIndex = sessionTimelineIndex;
+        this.topicResultsVersions = topicResultsVersions;
+        this.sessionResultRepository = sessionResultRepository;
+        this.voterSketchIndex = voterSketchIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     public Vote add(AddVoteData voteData) {
-        Session session = sessionService.get(voteData.sessionId());
+        VoteCastResult result = precheck(voteData);
+        Vote vote = null;
+
+        if (result == null) {
+            // Referências não disparam SELECT, apenas preenchem as chaves estrangeiras do voto
+            vote = voteMapper.toEntity(voteData, userService.getReference(voteData.userId()),
+                    sessionService.getReference(voteData.sessionId()));
+
+            // A contagem em memória é atualizada junto com a gravação, sem janela para a ressincronização
+            result = liveTallyIndex.record(List.of(new VoteCastCommand(voteData.userId(), voteData.sessionId(),
+                    voteData.voteOption(), vote.getCreatedAt())), commands -> List.of(write(commands.getFirst())))
+                    .getFirst();
+
+            track(voteData, result);
+        }
 
-        if (!sessionService.isVotingOpen(session)) {
+        if (result.getSessionOpen() == null) {
+            throw new EntityNotFoundException("Session", "ID " + voteData.sessionId());
+        }
+
+        if (!result.getSessionOpen()) {
             throw new VotingNotAllowedException("Session is not open!");
         }
 
-        User user = userService.get(voteData.userId());
+        if (!result.getUserExists()) {
+            throw new EntityNotFoundException("User", "ID " + voteData.userId());
+        }
 
-        if (voteRepository.existsByUserIdAndSessionId(user.getId(), session.getId())) {
-            throw new EntityAlreadyExistsException("Vote", "User " + user.getId() + " in session " + session.getId());
+        if (result.getVoteId() == null) {
+            throw new EntityAlreadyExistsException("Vote", "User " + voteData.userId() + " in session " + voteData.sessionId());
         }
 
         // Em caso de mais validações seria interessante utilizar o strategy pattern
 
-        Vote vote = voteMapper.toEntity(voteData, user, session);
-
-        vote = voteRepository.save(vote);
+        vote.setId(result.getVoteId());
+        sessionTimelineIndex.add(voteData.sessionId(), vote.getCreatedAt(), 1);
+        topicResultsVersions.bumpBySession(voteData.sessionId());
+        voterSketchIndex.add(voteData.sessionId(), voteData.userId());
 
         LOG.info("Vote added successfully with ID: {}", vote.getId());
 
         return vote;
     }
 
+    // Mesmas validações de add; apenas os votos que passam pelas checagens em memória vão para o banco,
+    // em um único statement. Retorna um resultado por voto, na ordem recebida.
+    public List<VoteCastResult> addAll(List<AddVoteData> votesData) {
+        LocalDateTime now = LocalDateTime.now();
+        List<VoteCastResult> results = new ArrayList<>(Collections.nCopies(votesData.size(), null));
+        List<VoteCastCommand> commands = new ArrayList<>(votesData.size());
+        List<Integer> positions = new ArrayList<>(votesData.size());
+        // Uma consulta para todos os usuários fora do índice, e não uma por voto
+        Set<Long> existingUsers = userService.findExisting(votesData.stream().map(AddVoteData::userId)
+                .collect(Collectors.toSet()));
+
+        for (int i = 0; i < votesData.size(); i++) {
+            AddVoteData voteData = votesData.get(i);
+            VoteCastResult rejected = precheck(voteData, existingUsers::contains);
+
+            if (rejected == null && !voteJournal.claim(voteData.sessionId(), voteData.userId())) {
+                rejected = VoteCastRow.duplicate();
+            }
+
+            if (rejected != null) {
+                results.set(i, rejected);
+            } else {
+                commands.add(new VoteCastCommand(voteData.userId(), voteData.sessionId(), voteData.voteOption(), now));
+                positions.add(i);
+            }
+        }
 
-    public Vote update(UpdateVoteData voteData) {
-        Vote vote = get(voteData.id());
+        List<VoteCastResult> cast;
+
+        try {
+            cast = liveTallyIndex.record(commands, voteRepository::castAll);
+        } finally {
+            commands.forEach(command -> voteJournal.release(command.sessionId(), command.userId()));
+        }
+
+        for (int i = 0; i < cast.size(); i++) {
+            int position = positions.get(i);
+            results.set(position, cast.get(i));
+            track(votesData.get(position), cast.get(i));
+
+            if (cast.get(i).getVoteId() != null) {
+                sessionTimelineIndex.add(votesData.get(position).sessionId(), now, 1);
+                topicResultsVersions.bumpBySession(votesData.get(position).sessionId());
+                voterSketchIndex.add(votesData.get(position).sessionId(), votesData.get(position).userId());
+            }
+        }
+
+        LOG.info("Vote batch processed with {} votes, {} created", results.size(),
+                results.stream().filter(result -> result.getVoteId() != null).count());
+
+        return results;
+    }
+
+    // Checagens sem ida ao banco; retorna o motivo da rejeição ou null quando o voto deve ser gravado
+    private VoteCastResult precheck(AddVoteData voteData) {
+        return precheck(voteData, userService::exists);
+    }
+
+    private VoteCastResult precheck(AddVoteData voteData, Predicate<Long> userExists) {
+        try {
+            // Rejeita sessões fechadas sem ir ao banco; o INSERT ainda valida a janela como fonte da verdade
+            if (!sessionService.isVotingOpen(voteData.sessionId())) {
+                return VoteCastRow.closed();
+            }
+        } catch (EntityNotFoundException ex) {
+            return VoteCastRow.unknownSession();
+        }
+
+        if (!userExists.test(voteData.userId())) {
+            return VoteCastRow.unknownUser();
+        }
+
+        // O bitmap é só uma dica: um acerto é confirmado no banco antes de rejeitar, e um bit sem voto é descartado
+        if (sessionVoterIndex.hasVoted(voteData.sessionId(), voteData.userId())) {
+            if (voteRepository.existsByUserIdAndSessionId(voteData.userId(), voteData.sessionId())) {
+                return VoteCastRow.duplicate();
+            }
+
+            sessionVoterIndex.remove(voteData.sessionId(), voteData.userId());
+        }
+
+        return null;
+    }
+
+    // Com o journal ligado o voto é confirmado antes de chegar ao banco; a reserva no journal impede que
+    // outro pedido do mesmo usuário na sessão passe enquanto ele não é materializado
+    private VoteCastResult write(VoteCastCommand command) {
+        if (!voteJournal.claim(command.sessionId(), command.userId())) {
+            return VoteCastRow.duplicate();
+        }
+
+        Long voteId = null;
+
+        try {
+            if (voteJournal.isEnabled()) {
+                // O voto é confirmado antes de chegar ao banco: janela, usuário e voto existente são checados no
+                // banco (não só nos caches) antes da confirmação
+                VoteCastResult rejected = voteRepository.check(command);
+
+                if (rejected != null) {
+                    return rejected;
+                }
+
+                voteId = voteJournal.append(command);
+            }
+
+            return voteId != null ? new VoteCastRow(voteId, true, true) : voteGroupCommitWriter.cast(command);
+        } finally {
+            // Votos no journal mantêm a reserva até serem materializados
+            if (voteId == null) {
+                voteJournal.release(command.sessionId(), command.userId());
+            }
+        }
+    }
+
+    private void track(AddVoteData voteData, VoteCastResult result) {
+        // Apenas votos criados agora: um DUPLICATE pode vir de uma reserva do journal ou de um voto já removido
+        if (result.getVoteId() != null) {
+            sessionVoterIndex.add(voteData.sessionId(), voteData.userId());
+        }
+    }
 
-        Session session = vote.getSession();
+    // Voto e contagem mudam na mesma transação; o lock na linha evita que duas trocas simultâneas contem duas vezes
+    @Transactional
+    public Vote update(UpdateVoteData voteData) {
+        Vote vote = getForUpdate(voteData.id());
 
-        if (!sessionService.isVotingOpen(session)) {
+        if (!sessionService.isVotingOpen(vote.getSession().getId())) {
             throw new VotingNotAllowedException("Session is not open!");
         }
 
+        Vote.VoteOption previousOption = vote.getVoteOption();
+
         vote = voteMapper.updateEntity(voteData, vote);
 
         vote = voteRepository.save(vote);
 
+        if (previousOption != vote.getVoteOption()) {
+            voteTallyRepository.add(vote.getSession().getId(), previousOption, -1);
+            voteTallyRepository.add(vote.getSession().getId(), vote.getVoteOption(), 1);
+            liveTallyIndex.add(vote.getSession().getId(), previousOption, -1);
+            liveTallyIndex.add(vote.getSession().getId(), vote.getVoteOption(), 1);
+            topicResultsVersions.bumpBySession(vote.getSession().getId());
+        }
+
         LOG.info("Vote updated successfully with ID: {}", vote.getId());
 
         return vote;
     }
 
+    @Transactional
     public void delete(Long id) {
-        get(id);
+        Vote vote = getForUpdate(id);
+        // Sem o lock o finalizador poderia contar este voto antes do commit e gravar um resultado que nunca é refeito.
+        // Só sessões encerradas são finalizadas (depois da margem do finalizador), então a aberta dispensa o lock.
+        if (!sessionService.isVotingOpen(vote.getSession().getId())) {
+            sessionResultRepository.lockSession(vote.getSession().getId());
+        }
 
         voteRepository.deleteById(id);
+        voteTallyRepository.add(vote.getSession().getId(), vote.getVoteOption(), -1);
+        liveTallyIndex.add(vote.getSession().getId(), vote.getVoteOption(), -1);
+        sessionTimelineIndex.remove(vote.getSession().getId(), vote.getCreatedAt());
+        // Resultado final descartado; o SessionResultFinalizer grava de novo na próxima execução
+        sessionResultRepository.deleteAllBySessionIds(List.of(vote.getSession().getId()));
+        sessionVoterIndex.remove(vote.getSession().getId(), vote.getUser().getId());
+        eventPublisher.publishEvent(new VoteDeletedEvent(vote.getSession().getId(), vote.getSession().getTopic().getId()));
 
         LOG.info("Vote deleted successfully with ID: {}", id);
     }
@@ -91,7 +306,21 @@ public class VoteService {
     public void deleteAllByTopic(Long topicId) {
         topicService.get(topicId);
 
-        voteRepository.deleteAllBySession_Topic_Id(topicId);
+        // Votos ainda no journal seriam materializados depois da remoção
+        voteJournal.drain();
+
+        List<Long> sessionIds = sessionService.getIdsByTopic(topicId);
+
+        // Com particionamento as partições são apagadas em background depois que as sessões forem removidas
+        if (!votePartitionManager.isPartitioned()) {
+            voteRepository.deleteAllBySession_Topic_Id(topicId);
+        }
+
+        voteTallyRepository.deleteAllBySessionIds(sessionIds);
+        sessionVoterIndex.invalidateAll(sessionIds);
+        liveTallyIndex.invalidateAll(sessionIds);
+        sessionTimelineIndex.invalidateAll(sessionIds);
+        voterSketchIndex.invalidateAll(sessionIds);
 
         LOG.info("Votes deleted successfully with topic ID: {}", topicId);
     }
@@ -99,13 +328,41 @@ public class VoteService {
     public void deleteAllBySession(Long sessionId) {
         sessionService.get(sessionId);
 
-        voteRepository.deleteAllBySessionId(sessionId);
+        voteJournal.drain();
+
+        if (!votePartitionManager.isPartitioned()) {
+            voteRepository.deleteAllBySessionId(sessionId);
+        }
+
+        voteTallyRepository.deleteAllBySessionIds(List.of(sessionId));
+
+        sessionVoterIndex.invalidate(sessionId);
+        liveTallyIndex.invalidate(sessionId);
+        sessionTimelineIndex.invalidateAll(List.of(sessionId));
+        voterSketchIndex.invalidateAll(List.of(sessionId));
 
         LOG.info("Votes deleted successfully with session ID: {}", sessionId);
     }
 
+    // Votos confirmados pelo journal e descartados na materialização respondem com o motivo, e não como inexistentes
     public Vote get(Long id) {
         return voteRepository.findById(id)
+                .orElseThrow(() -> voteRepository.findRejectionReason(id)
+                        .<RuntimeException>map(reason -> new VoteRejectedException(id, reason))
+                        .orElseGet(() -> new EntityNotFoundException("Vote", "ID " + id)));
+    }
+
+    // add e update devolvem o voto com referências não carregadas; a representação completa busca as associações
+    // aqui, já que sem open-in-view elas não carregam fora da transação
+    public Vote loadDetails(Vote vote) {
+        vote.setUser(userService.get(vote.getUser().getId()));
+        vote.setSession(sessionService.get(vote.getSession().getId()));
+
+        return vote;
+    }
+
+    private Vote getForUpdate(Long id) {
+        return voteRepository.findForUpdateById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Vote", "ID " + id));
     }
 
@@ -115,7 +372,47 @@ public class VoteService {
         return voteRepository.findAllBySessionId(sessionId, pageable);
     }
 
-    public Integer countByTopicAndOption(Long topicId, Vote.VoteOption option) {
-        return voteRepository.countAllByVoteOptionAndSession_Topic_Id(option, topicId);
+    // Contadores em memória têm precedência; a contagem gravada só é usada para sessões ainda não carregadas
+    public VoteTally countBySessions(Map<Long, VoteTally> storedTallies) {
+        return liveTallyIndex.sum(storedTallies);
+    }
+
+    public VoteTally countBySession(Long sessionId) {
+        return liveTallyIndex.sum(List.of(sessionId));
+    }
+
+    // Sessão encerrada e sem votos no journal: o histograma pode ser gravado depois da margem do finalizador
+    public SessionTimeline getTimeline(Long sessionId, LocalDateTime startTime, LocalDateTime endTime, boolean closed) {
+        return sessionTimelineIndex.get(sessionId, startTime, endTime, closed && !voteJournal.hasPending());
+    }
+
+    // Votos removidos continuam no sketch (HyperLogLog não permite remoção): a estimativa pode ficar um pouco acima
+    public DistinctVoterEstimate estimateDistinctVoters(Collection<Long> topicIds, Collection<Long> sessionIds,
+                                                        LocalDateTime from, LocalDateTime to) {
+        return voterSketchIndex.estimate(topicIds, sessionIds, from, to);
+    }
+
+    // Recalcula session_tallies a partir de votes (ex.: após manutenção manual na tabela), uma sessão por vez e fora
+    // de transação, para não segurar os upserts dos votos em andamento
+    public int rebuildTallies() {
+        voteJournal.drain();
+
+        int rows = 0;
+
+        for (Long sessionId : voteTallyRepository.findAllSessionIds()) {
+            try {
+                rows += voteTallyRepository.rebuild(sessionId);
+            } catch (DataIntegrityViolationException ex) {
+                // Sessão removida durante o recálculo
+                LOG.debug("Tally rebuild skipped removed session ID: {}", sessionId);
+            }
+        }
+
+        liveTallyIndex.invalidateAll();
+        topicResultsVersions.bumpAll();
+
+        LOG.info("Session tallies rebuilt with {} rows corrected", rows);
+
+        return rows;
     }
 }
@@ -0,0 +1,190 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.shared.exception.QueryTooBroadException;
+import rodrigoschonardt.votingapi.vote.domain.model.DistinctVoterEstimate;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoterSketchRepository;
+import rodrigoschonardt.votingapi.vote.domain.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Votantes distintos por sessão em sketches HyperLogLog. O voto só atualiza um sketch em memória (delta); um job
+// periódico soma os deltas em session_voter_sketches. A estimativa une os sketches gravados (em cache) com os
+// deltas ainda não gravados, sem ler votes. Sessões sem sketch gravado (anteriores à tabela) são montadas a partir de
+// votes pelo backfill do mesmo job, em lotes; até lá a estimativa as informa em vez de montá-las no pedido.
+@Component
+public class VoterSketchIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(VoterSketchIndex.class);
+    private final VoterSketchRepository voterSketchRepository;
+    private final Map<Long, HyperLogLog> deltas = new ConcurrentHashMap<>();
+    private final Cache<Long, HyperLogLog> stored;
+    private final long flushIntervalMs;
+    private final int maxQuerySessions;
+    private final int backfillBatchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("voter-sketch-flush")
+            .daemon(true)
+            .factory());
+
+    public VoterSketchIndex(VoterSketchRepository voterSketchRepository, MeterRegistry meterRegistry,
+                            @Value("${votingapi.votes.voter-sketch.max-sessions:10000}") long maxSessions,
+                            @Value("${votingapi.votes.voter-sketch.flush-interval-ms:5000}") long flushIntervalMs,
+                            @Value("${votingapi.votes.voter-sketch.max-query-sessions:5000}") int maxQuerySessions,
+                            @Value("${votingapi.votes.voter-sketch.backfill-batch-size:100}") int backfillBatchSize) {
+        this.voterSketchRepository = voterSketchRepository;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxQuerySessions = Math.max(1, maxQuerySessions);
+        this.backfillBatchSize = Math.max(1, backfillBatchSize);
+        this.stored = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .build();
+
+        Gauge.builder("votingapi.votes.voter-sketch.pending", deltas, Map::size)
+                .description("Sessions with voter sketch changes not yet stored")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (flushIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        flushSafely();
+    }
+
+    public void add(Long sessionId, Long userId) {
+        // compute (e não computeIfAbsent + offer) para que o voto não caia em um delta já retirado pelo flush
+        deltas.compute(sessionId, (id, delta) -> {
+            HyperLogLog target = delta != null ? delta : new HyperLogLog();
+            target.offer(userId);
+            return target;
+        });
+
+        HyperLogLog cached = stored.getIfPresent(sessionId);
+
+        if (cached != null) {
+            cached.offer(userId);
+        }
+    }
+
+    // Consultas que cruzam mais de maxQuerySessions sessões são recusadas: a união lê um sketch de 16 KiB por sessão
+    public DistinctVoterEstimate estimate(Collection<Long> topicIds, Collection<Long> sessionIds, LocalDateTime from,
+                                          LocalDateTime to) {
+        List<Long> matched = voterSketchRepository.findSessionIds(topicIds, sessionIds, from, to, maxQuerySessions + 1);
+
+        if (matched.size() > maxQuerySessions) {
+            throw new QueryTooBroadException("sessions", maxQuerySessions);
+        }
+
+        Map<Long, HyperLogLog> sketches = stored.getAll(matched, this::load);
+
+        return new DistinctVoterEstimate(matched.size(), union(matched, sketches).estimate(), HyperLogLog.relativeError(),
+                matched.size() - sketches.size());
+    }
+
+    // União dos votantes das sessões; sessões ausentes do cache são lidas em uma única consulta e as que ainda não têm
+    // sketch gravado contribuem só com o delta em memória
+    public HyperLogLog union(Collection<Long> sessionIds) {
+        return union(sessionIds, stored.getAll(sessionIds, this::load));
+    }
+
+    private HyperLogLog union(Collection<Long> sessionIds, Map<Long, HyperLogLog> sketches) {
+        HyperLogLog union = new HyperLogLog();
+
+        sketches.values().forEach(union::merge);
+
+        for (Long sessionId : sessionIds) {
+            HyperLogLog delta = deltas.get(sessionId);
+
+            if (delta != null) {
+                union.merge(delta);
+            }
+        }
+
+        return union;
+    }
+
+    public void invalidateAll(Collection<Long> sessionIds) {
+        sessionIds.forEach(deltas::remove);
+        stored.invalidateAll(sessionIds);
+    }
+
+    // Grava os deltas pendentes; em caso de falha o delta volta para a fila e é tentado no próximo flush
+    void flush() {
+        for (Long sessionId : List.copyOf(deltas.keySet())) {
+            HyperLogLog delta = deltas.remove(sessionId);
+
+            if (delta == null) {
+                continue;
+            }
+
+            try {
+                HyperLogLog merged = voterSketchRepository.merge(sessionId, delta);
+                stored.asMap().computeIfPresent(sessionId, (id, cached) -> cached.merge(merged));
+            } catch (DataIntegrityViolationException ex) {
+                // Sessão removida antes do flush
+                LOG.debug("Voter sketch dropped for removed session ID: {}", sessionId);
+            } catch (RuntimeException ex) {
+                deltas.merge(sessionId, delta, HyperLogLog::merge);
+                LOG.warn("Voter sketch flush failed for session ID: {}: {}", sessionId, ex.getMessage());
+            }
+        }
+    }
+
+    // Monta a partir de votes até backfillBatchSize sessões sem sketch gravado; retorna quantas foram montadas
+    int backfill() {
+        int total = 0;
+
+        for (Long sessionId : voterSketchRepository.findSessionIdsWithoutSketch(backfillBatchSize)) {
+            try {
+                voterSketchRepository.merge(sessionId, new HyperLogLog());
+                total++;
+            } catch (DataIntegrityViolationException ex) {
+                LOG.debug("Voter sketch backfill skipped removed session ID: {}", sessionId);
+            }
+        }
+
+        if (total > 0) {
+            LOG.info("Voter sketches backfilled for {} sessions", total);
+        }
+
+        return total;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+            backfill();
+        } catch (RuntimeException ex) {
+            LOG.warn("Voter sketch flush failed: {}", ex.getMessage());
+        }
+    }
+
+    // Sessões sem sketch gravado ficam fora do mapa (e do cache) até o backfill
+    private Map<Long, HyperLogLog> load(Set<? extends Long> sessionIds) {
+        return voterSketchRepository.findBySessionIds(sessionIds);
+    }
+}
@@ -0,0 +1,124 @@
+package rodrigoschonardt.votingapi.vote.domain.sketch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+// HyperLogLog com 2^14 registradores de 1 byte (16 KB, erro padrão ~0,81%). União = máximo por registrador,
+// então sketches de sessões diferentes são somados sem contar o mesmo usuário duas vezes.
+// offer e merge são seguros entre threads (CAS por registrador).
+public final class HyperLogLog {
+    public static final int PRECISION = 14;
+    public static final int REGISTERS = 1 << PRECISION;
+
+    private static final VarHandle REGISTER = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(new byte[REGISTERS]);
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length != REGISTERS) {
+            throw new IllegalArgumentException("Expected " + REGISTERS + " registers, got " + bytes.length);
+        }
+
+        return new HyperLogLog(bytes.clone());
+    }
+
+    public void offer(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Bit sentinela limita o rank a 64 - PRECISION + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+
+        raise(index, rank);
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            raise(i, (byte) REGISTER.getVolatile(other.registers, i));
+        }
+
+        return this;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+
+        for (int i = 0; i < REGISTERS; i++) {
+            byte register = (byte) REGISTER.getVolatile(registers, i);
+            sum += Math.scalb(1.0, -register);
+
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double raw = ALPHA * REGISTERS * REGISTERS / sum;
+
+        // Correção para cardinalidades pequenas (linear counting); com hash de 64 bits não há correção para as grandes
+        if (raw <= 2.5 * REGISTERS && zeros > 0) {
+            return Math.round(REGISTERS * Math.log((double) REGISTERS / zeros));
+        }
+
+        return Math.round(raw);
+    }
+
+    public boolean isEmpty() {
+        for (int i = 0; i < REGISTERS; i++) {
+            if ((byte) REGISTER.getVolatile(registers, i) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public byte[] toBytes() {
+        byte[] copy = new byte[REGISTERS];
+
+        for (int i = 0; i < REGISTERS; i++) {
+            copy[i] = (byte) REGISTER.getVolatile(registers, i);
+        }
+
+        return copy;
+    }
+
+    public static double relativeError() {
+        return 1.04 / Math.sqrt(REGISTERS);
+    }
+
+    private void raise(int index, byte rank) {
+        byte current = (byte) REGISTER.getVolatile(registers, index);
+
+        while (rank > current && !REGISTER.compareAndSet(registers, index, current, rank)) {
+            current = (byte) REGISTER.getVolatile(registers, index);
+        }
+    }
+
+    // Finalizador do SplitMix64: ids sequenciais viram hashes bem distribuídos
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HyperLogLog other && Arrays.equals(toBytes(), other.toBytes());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toBytes());
+    }
+}
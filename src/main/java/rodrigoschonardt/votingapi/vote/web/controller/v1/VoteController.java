@@ -1,21 +1,42 @@
 package rodrigoschonardt.votingapi.vote.web.controller.v1;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
+import rodrigoschonardt.votingapi.shared.idempotency.IdempotencyCache;
+import rodrigoschonardt.votingapi.shared.web.ResponsePreference;
+import rodrigoschonardt.votingapi.vote.domain.model.DistinctVoterEstimate;
 import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
 import rodrigoschonardt.votingapi.vote.domain.service.VoteService;
+import rodrigoschonardt.votingapi.vote.web.dto.AddVoteBatchData;
 import rodrigoschonardt.votingapi.vote.web.dto.AddVoteData;
+import rodrigoschonardt.votingapi.vote.web.dto.DistinctVotersData;
+import rodrigoschonardt.votingapi.vote.web.dto.DistinctVotersQueryData;
 import rodrigoschonardt.votingapi.vote.web.dto.UpdateVoteData;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteBatchItemData;
 import rodrigoschonardt.votingapi.vote.web.dto.VoteDetailsData;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteRepresentation;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteSummaryData;
 import rodrigoschonardt.votingapi.vote.web.mapper.VoteMapper;
+import rodrigoschonardt.votingapi.vote.web.stream.VoteStreamProcessor;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/votes")
@@ -23,28 +44,76 @@ import java.net.URI;
 public class VoteController {
     private final VoteService voteService;
     private final VoteMapper voteMapper;
+    private final VoteStreamProcessor voteStreamProcessor;
+    private final IdempotencyCache idempotencyCache;
 
-    public VoteController(VoteService voteService, VoteMapper voteMapper) {
+    public VoteController(VoteService voteService, VoteMapper voteMapper, VoteStreamProcessor voteStreamProcessor,
+                          IdempotencyCache idempotencyCache) {
         this.voteService = voteService;
         this.voteMapper = voteMapper;
+        this.voteStreamProcessor = voteStreamProcessor;
+        this.idempotencyCache = idempotencyCache;
     }
 
     @PostMapping
     @Operation(summary = "Cadastrar voto")
-    public ResponseEntity<VoteDetailsData> add(@RequestBody @Valid AddVoteData voteData, UriComponentsBuilder uriBuilder) {
-        Vote vote = voteService.add(voteData);
+    @ApiResponse(responseCode = "201", description = "Voto completo, ou reduzido com Prefer: return=minimal",
+            content = @Content(schema = @Schema(oneOf = {VoteDetailsData.class, VoteSummaryData.class})))
+    public ResponseEntity<VoteRepresentation> add(@RequestBody @Valid AddVoteData voteData, UriComponentsBuilder uriBuilder,
+                                                  @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+                                                  @RequestHeader HttpHeaders headers) {
+        String representation = ResponsePreference.representation(headers);
 
-        URI uri = uriBuilder.path("/api/v1/votes/{id}").buildAndExpand(vote.getId()).toUri();
+        return idempotencyCache.execute("votes", idempotencyKey, voteData, representation, () -> {
+            Vote vote = voteService.add(voteData);
 
-        return ResponseEntity.created(uri).body(voteMapper.toVoteDetails(vote));
+            URI uri = uriBuilder.path("/api/v1/votes/{id}").buildAndExpand(vote.getId()).toUri();
+
+            return withPreference(ResponseEntity.created(uri), headers).body(toRepresentation(vote, headers));
+        });
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Cadastrar votos em lote")
+    public ResponseEntity<List<VoteBatchItemData>> addAll(@RequestBody @Valid AddVoteBatchData batchData) {
+        List<VoteCastResult> results = voteService.addAll(batchData.votes());
+
+        List<VoteBatchItemData> items = new ArrayList<>(results.size());
+
+        for (int i = 0; i < results.size(); i++) {
+            items.add(voteMapper.toBatchItem(batchData.votes().get(i), results.get(i)));
+        }
+
+        return ResponseEntity.ok(items);
+    }
+
+    @PostMapping("/distinct-voters")
+    @Operation(summary = "Estimar votantes distintos por pautas, sessões e período")
+    public ResponseEntity<DistinctVotersData> estimateDistinctVoters(@RequestBody @Valid DistinctVotersQueryData queryData) {
+        DistinctVoterEstimate estimate = voteService.estimateDistinctVoters(queryData.topicIds(), queryData.sessionIds(),
+                queryData.from(), queryData.to());
+
+        return ResponseEntity.ok(new DistinctVotersData(estimate.sessionsCount(), estimate.distinctVoters(),
+                estimate.relativeError(), estimate.sessionsWithoutSketch()));
+    }
+
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Cadastrar votos via stream NDJSON")
+    public void stream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        voteStreamProcessor.process(body, response.getOutputStream());
     }
 
     @PutMapping
     @Operation(summary = "Atualizar voto")
-    public ResponseEntity<VoteDetailsData> update(@RequestBody @Valid UpdateVoteData voteData) {
+    @ApiResponse(responseCode = "200", description = "Voto completo, ou reduzido com Prefer: return=minimal",
+            content = @Content(schema = @Schema(oneOf = {VoteDetailsData.class, VoteSummaryData.class})))
+    public ResponseEntity<VoteRepresentation> update(@RequestBody @Valid UpdateVoteData voteData,
+                                                     @RequestHeader HttpHeaders headers) {
         Vote vote = voteService.update(voteData);
 
-        return ResponseEntity.ok(voteMapper.toVoteDetails(vote));
+        return withPreference(ResponseEntity.ok(), headers).body(toRepresentation(vote, headers));
     }
 
     @DeleteMapping("/{id}")
@@ -70,4 +139,23 @@ public class VoteController {
 
         return ResponseEntity.ok(votes.map(voteMapper::toVoteDetails));
     }
+
+    // A representação reduzida evita carregar usuário, sessão e pauta só para serializar a resposta
+    private VoteRepresentation toRepresentation(Vote vote, HttpHeaders headers) {
+        return ResponsePreference.isMinimal(headers) ? voteMapper.toVoteSummary(vote)
+                : voteMapper.toVoteDetails(voteService.loadDetails(vote));
+    }
+
+    // A forma da resposta depende de Prefer e Accept, mesmo quando a completa é entregue
+    private static ResponseEntity.BodyBuilder withPreference(ResponseEntity.BodyBuilder builder, HttpHeaders headers) {
+        builder.varyBy(ResponsePreference.VARY.toArray(String[]::new));
+
+        if (ResponsePreference.prefersMinimal(headers)) {
+            builder.header(ResponsePreference.PREFERENCE_APPLIED, ResponsePreference.RETURN_MINIMAL);
+        } else if (ResponsePreference.prefersRepresentation(headers)) {
+            builder.header(ResponsePreference.PREFERENCE_APPLIED, ResponsePreference.RETURN_REPRESENTATION);
+        }
+
+        return builder;
+    }
 }
@@ -0,0 +1,27 @@
+package rodrigoschonardt.votingapi.vote.web.controller.v1;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import rodrigoschonardt.votingapi.vote.domain.service.VoteService;
+import rodrigoschonardt.votingapi.vote.web.dto.TallyRebuildData;
+
+@RestController
+@RequestMapping("/api/v1/admin/tallies")
+@Tag(name = "Administração")
+public class VoteTallyController {
+    private final VoteService voteService;
+
+    public VoteTallyController(VoteService voteService) {
+        this.voteService = voteService;
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Recalcular contagens das sessões a partir dos votos")
+    public ResponseEntity<TallyRebuildData> rebuild() {
+        return ResponseEntity.ok(new TallyRebuildData(voteService.rebuildTallies()));
+    }
+}
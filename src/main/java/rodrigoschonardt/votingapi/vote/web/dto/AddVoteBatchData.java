@@ -0,0 +1,11 @@
+package rodrigoschonardt.votingapi.vote.web.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record AddVoteBatchData(@NotEmpty @Size(max = 1000) List<@NotNull @Valid AddVoteData> votes) {
+}
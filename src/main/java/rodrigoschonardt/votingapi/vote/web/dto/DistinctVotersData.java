@@ -0,0 +1,5 @@
+package rodrigoschonardt.votingapi.vote.web.dto;
+
+public record DistinctVotersData(Integer sessionsCount, Long distinctVoters, Double relativeError,
+                                 Integer sessionsWithoutSketch) {
+}
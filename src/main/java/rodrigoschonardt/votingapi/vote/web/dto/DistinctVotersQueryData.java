@@ -0,0 +1,25 @@
+package rodrigoschonardt.votingapi.vote.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Sem topicIds nem sessionIds considera todas as sessões cuja janela cruza [from, to]; ao menos um filtro é obrigatório
+public record DistinctVotersQueryData(@Size(max = 1000) List<@NotNull Long> topicIds,
+                                      @Size(max = 1000) List<@NotNull Long> sessionIds,
+                                      LocalDateTime from, LocalDateTime to) {
+    public DistinctVotersQueryData {
+        topicIds = topicIds != null ? topicIds : List.of();
+        sessionIds = sessionIds != null ? sessionIds : List.of();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "at least one of topicIds, sessionIds, from or to is required")
+    public boolean isFiltered() {
+        return !topicIds.isEmpty() || !sessionIds.isEmpty() || from != null || to != null;
+    }
+}
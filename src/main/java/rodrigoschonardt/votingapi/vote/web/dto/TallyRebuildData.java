@@ -0,0 +1,4 @@
+package rodrigoschonardt.votingapi.vote.web.dto;
+
+public record TallyRebuildData(Integer rows) {
+}
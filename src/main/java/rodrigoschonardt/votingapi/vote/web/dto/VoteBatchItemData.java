@@ -0,0 +1,12 @@
+package rodrigoschonardt.votingapi.vote.web.dto;
+
+public record VoteBatchItemData(Long userId, Long sessionId, Long voteId, Status status) {
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        CLOSED,
+        UNKNOWN_USER,
+        UNKNOWN_SESSION,
+        INVALID
+    }
+}
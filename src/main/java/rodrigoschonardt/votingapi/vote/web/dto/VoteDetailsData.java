@@ -7,5 +7,5 @@ import rodrigoschonardt.votingapi.vote.domain.model.Vote;
 import java.time.LocalDateTime;
 
 public record VoteDetailsData(Long id, Vote.VoteOption voteOption, UserDetailsData user,
-                              SessionDetailsData session, LocalDateTime createdAt) {
+                              SessionDetailsData session, LocalDateTime createdAt) implements VoteRepresentation {
 }
@@ -0,0 +1,5 @@
+package rodrigoschonardt.votingapi.vote.web.dto;
+
+// Corpo das respostas de criação e atualização de voto: completo ou reduzido (Prefer: return=minimal)
+public sealed interface VoteRepresentation permits VoteDetailsData, VoteSummaryData {
+}
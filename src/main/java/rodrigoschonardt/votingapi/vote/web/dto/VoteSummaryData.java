@@ -0,0 +1,9 @@
+package rodrigoschonardt.votingapi.vote.web.dto;
+
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+
+import java.time.LocalDateTime;
+
+public record VoteSummaryData(Long id, Vote.VoteOption voteOption, Long sessionId, Long userId, LocalDateTime createdAt)
+        implements VoteRepresentation {
+}
@@ -6,9 +6,12 @@ import rodrigoschonardt.votingapi.session.web.mapper.SessionMapper;
 import rodrigoschonardt.votingapi.user.domain.model.User;
 import rodrigoschonardt.votingapi.user.web.mapper.UserMapper;
 import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
 import rodrigoschonardt.votingapi.vote.web.dto.AddVoteData;
 import rodrigoschonardt.votingapi.vote.web.dto.UpdateVoteData;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteBatchItemData;
 import rodrigoschonardt.votingapi.vote.web.dto.VoteDetailsData;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteSummaryData;
 
 import java.time.LocalDateTime;
 
@@ -42,4 +45,33 @@ public class VoteMapper {
         return new VoteDetailsData(vote.getId(),vote.getVoteOption(),
                 userMapper.toUserDetails(vote.getUser()), sessionMapper.toSessionDetails(vote.getSession()),vote.getCreatedAt());
     }
+
+    // Apenas os IDs das associações: em proxies do Hibernate getId() não dispara o carregamento
+    public VoteSummaryData toVoteSummary(Vote vote) {
+        return new VoteSummaryData(vote.getId(), vote.getVoteOption(), vote.getSession().getId(),
+                vote.getUser().getId(), vote.getCreatedAt());
+    }
+
+    public VoteBatchItemData toBatchItem(AddVoteData voteData, VoteCastResult result) {
+        VoteBatchItemData.Status status;
+
+        if (result.getSessionOpen() == null) {
+            status = VoteBatchItemData.Status.UNKNOWN_SESSION;
+        } else if (!result.getSessionOpen()) {
+            status = VoteBatchItemData.Status.CLOSED;
+        } else if (!result.getUserExists()) {
+            status = VoteBatchItemData.Status.UNKNOWN_USER;
+        } else if (result.getVoteId() == null) {
+            status = VoteBatchItemData.Status.DUPLICATE;
+        } else {
+            status = VoteBatchItemData.Status.CREATED;
+        }
+
+        return new VoteBatchItemData(voteData.userId(), voteData.sessionId(), result.getVoteId(), status);
+    }
+
+    public VoteBatchItemData toInvalidItem(AddVoteData voteData) {
+        return voteData == null ? new VoteBatchItemData(null, null, null, VoteBatchItemData.Status.INVALID) :
+                new VoteBatchItemData(voteData.userId(), voteData.sessionId(), null, VoteBatchItemData.Status.INVALID);
+    }
 }
@@ -0,0 +1,179 @@
+package rodrigoschonardt.votingapi.vote.web.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
+import rodrigoschonardt.votingapi.vote.domain.service.VoteService;
+import rodrigoschonardt.votingapi.vote.web.dto.AddVoteData;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteBatchItemData;
+import rodrigoschonardt.votingapi.vote.web.mapper.VoteMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Lê votos NDJSON linha a linha e grava em micro-lotes: o lote é enviado quando enche ou quando
+// não há mais dados já recebidos (a próxima leitura bloquearia). Uma linha de resultado por linha de entrada, na mesma ordem.
+// Linhas acima de max-line-bytes são descartadas sem ficar em memória e respondem INVALID.
+@Component
+public class VoteStreamProcessor {
+    private static final byte NEW_LINE = '\n';
+    private final VoteService voteService;
+    private final VoteMapper voteMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxLineBytes;
+
+    public VoteStreamProcessor(VoteService voteService, VoteMapper voteMapper, ObjectMapper objectMapper, Validator validator,
+                               @Value("${votingapi.votes.stream.batch-size:100}") int batchSize,
+                               @Value("${votingapi.votes.stream.max-line-bytes:4096}") int maxLineBytes) {
+        this.voteService = voteService;
+        this.voteMapper = voteMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxLineBytes = Math.max(1, maxLineBytes);
+    }
+
+    public void process(InputStream input, OutputStream output) throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(input, maxLineBytes);
+        List<Line> lines = new ArrayList<>(batchSize);
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (reader.isTooLong()) {
+                lines.add(new Line(null, false));
+            } else if (!line.isBlank()) {
+                lines.add(parse(line));
+            }
+
+            if (lines.size() >= batchSize || !reader.ready()) {
+                flush(lines, output);
+            }
+        }
+
+        flush(lines, output);
+    }
+
+    private Line parse(String line) {
+        try {
+            AddVoteData voteData = objectMapper.readValue(line, AddVoteData.class);
+            return new Line(voteData, voteData != null && validator.validate(voteData).isEmpty());
+        } catch (JsonProcessingException ex) {
+            return new Line(null, false);
+        }
+    }
+
+    private void flush(List<Line> lines, OutputStream output) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        List<AddVoteData> valid = lines.stream().filter(Line::valid).map(Line::voteData).toList();
+        Iterator<VoteCastResult> results = valid.isEmpty() ? List.<VoteCastResult>of().iterator() :
+                voteService.addAll(valid).iterator();
+
+        for (Line line : lines) {
+            VoteBatchItemData item = line.valid() ? voteMapper.toBatchItem(line.voteData(), results.next()) :
+                    voteMapper.toInvalidItem(line.voteData());
+
+            output.write(objectMapper.writeValueAsBytes(item));
+            output.write(NEW_LINE);
+        }
+
+        output.flush();
+        lines.clear();
+    }
+
+    private record Line(AddVoteData voteData, boolean valid) {
+    }
+
+    // readLine com limite de tamanho; ready() diz se a próxima leitura não bloquearia
+    private static final class BoundedLineReader {
+        private final InputStream input;
+        private final int maxLength;
+        private final byte[] buffer = new byte[8192];
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private int position;
+        private int limit;
+        private boolean tooLong;
+
+        BoundedLineReader(InputStream input, int maxLength) {
+            this.input = input;
+            this.maxLength = maxLength;
+        }
+
+        // null no fim do stream
+        String readLine() throws IOException {
+            line.reset();
+            tooLong = false;
+            boolean read = false;
+
+            while (true) {
+                if (position == limit) {
+                    int count = input.read(buffer);
+
+                    if (count <= 0) {
+                        position = 0;
+                        limit = 0;
+                        return read ? finish() : null;
+                    }
+
+                    position = 0;
+                    limit = count;
+                }
+
+                read = true;
+                int start = position;
+
+                while (position < limit && buffer[position] != NEW_LINE) {
+                    position++;
+                }
+
+                append(start, position);
+
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        boolean isTooLong() {
+            return tooLong;
+        }
+
+        boolean ready() throws IOException {
+            return position < limit || input.available() > 0;
+        }
+
+        // O excedente é descartado até a quebra de linha
+        private void append(int start, int end) {
+            if (tooLong) {
+                return;
+            }
+
+            if (line.size() + end - start > maxLength) {
+                tooLong = true;
+                line.reset();
+                return;
+            }
+
+            line.write(buffer, start, end - start);
+        }
+
+        private String finish() {
+            String value = tooLong ? "" : line.toString(StandardCharsets.UTF_8);
+            return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package rodrigoschonardt.votingapi.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import rodrigoschonardt.votingapi.session.domain.model.Session;
+import rodrigoschonardt.votingapi.session.domain.repository.SessionRepository;
+import rodrigoschonardt.votingapi.topic.domain.model.Topic;
+import rodrigoschonardt.votingapi.topic.domain.repository.TopicRepository;
+import rodrigoschonardt.votingapi.user.domain.model.User;
+import rodrigoschonardt.votingapi.user.domain.repository.UserRepository;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+// Executar contra o banco configurado: ./gradlew test --tests '*InsertThroughputBenchmark' -Dbenchmark=true
+// "row-by-row" reproduz o comportamento do IDENTITY (um INSERT por entidade, sem batching);
+// "batched" usa as sequences pooled-lo e o batching JDBC.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InsertThroughputBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(InsertThroughputBenchmark.class);
+    private static final int ROWS = 10_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TopicRepository topicRepository;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Session> sessions = new ArrayList<>();
+    private Topic topic;
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            sessions.forEach(session -> voteRepository.deleteAllBySessionId(session.getId()));
+            sessionRepository.deleteAllInBatch(sessions);
+            userRepository.deleteAllInBatch(users);
+            if (topic != null) {
+                topicRepository.deleteById(topic.getId());
+            }
+        });
+    }
+
+    @Test
+    void userInserts() {
+        measure("users row-by-row", newUsers(ROWS), this::saveRowByRow);
+        measure("users batched", newUsers(ROWS), entities -> userRepository.saveAll(entities));
+    }
+
+    @Test
+    void voteInserts() {
+        List<User> voters = newUsers(ROWS);
+        transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(voters));
+
+        topic = topicRepository.save(newTopic());
+
+        measure("votes row-by-row", newVotes(voters, newSession()), this::saveRowByRow);
+        measure("votes batched", newVotes(voters, newSession()), entities -> voteRepository.saveAll(entities));
+    }
+
+    private <T> void measure(String label, List<T> entities, Consumer<List<T>> insert) {
+        long start = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> insert.accept(entities));
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        LOG.info("{}: {} rows in {} s ({} inserts/s)", label, entities.size(),
+                String.format("%.3f", seconds), String.format("%.0f", entities.size() / seconds));
+    }
+
+    private <T> void saveRowByRow(List<T> entities) {
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            entityManager.flush();
+        }
+    }
+
+    private List<User> newUsers(int count) {
+        long base = ThreadLocalRandom.current().nextLong(10_000_000_000L, 90_000_000_000L);
+        List<User> created = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            String digits = String.valueOf(base + users.size() + i);
+            User user = new User();
+            user.setCpf(digits.substring(0, 3) + "." + digits.substring(3, 6) + "." + digits.substring(6, 9) + "-" + digits.substring(9, 11));
+            user.setCreatedAt(LocalDateTime.now());
+            created.add(user);
+        }
+
+        users.addAll(created);
+        return created;
+    }
+
+    private Topic newTopic() {
+        Topic newTopic = new Topic();
+        newTopic.setTitle("Benchmark");
+        newTopic.setDescription("Insert throughput benchmark");
+        newTopic.setCreatedAt(LocalDateTime.now());
+        return newTopic;
+    }
+
+    private Session newSession() {
+        Session session = new Session();
+        session.setTopic(topic);
+        session.setCreatedAt(LocalDateTime.now());
+        session.setStartTime(LocalDateTime.now());
+        session.setEndTime(LocalDateTime.now().plusHours(1));
+        session = sessionRepository.save(session);
+        sessions.add(session);
+        return session;
+    }
+
+    private List<Vote> newVotes(List<User> voters, Session session) {
+        List<Vote> votes = new ArrayList<>(voters.size());
+
+        for (User voter : voters) {
+            Vote vote = new Vote();
+            vote.setUser(voter);
+            vote.setSession(session);
+            vote.setVoteOption(Vote.VoteOption.YES);
+            vote.setCreatedAt(LocalDateTime.now());
+            votes.add(vote);
+        }
+
+        return votes;
+    }
+}
@@ -0,0 +1,137 @@
+package rodrigoschonardt.votingapi.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rodrigoschonardt.votingapi.orchestrator.TopicResultsLoader;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRepository;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRow;
+import rodrigoschonardt.votingapi.topic.domain.model.Topic;
+import rodrigoschonardt.votingapi.topic.domain.repository.TopicRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Executar contra o banco configurado: ./gradlew test --tests '*ParallelTopicResultsBenchmark' -Dbenchmark=true
+// Tópico com 1k sessões x 10k votos: "single statement" é a consulta única sobre o tópico inteiro; "parallel ranges"
+// é a leitura do TopicResultsLoader (faixas de votingapi.topics.results.chunk-size sessões no ForkJoinPool).
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ParallelTopicResultsBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelTopicResultsBenchmark.class);
+    private static final int SESSIONS = 1_000;
+    private static final int VOTERS_PER_SESSION = 10_000;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TopicRepository topicRepository;
+    @Autowired
+    private TopicResultsRepository topicResultsRepository;
+    @Autowired
+    private TopicResultsLoader topicResultsLoader;
+
+    private Topic topic;
+    private long firstUserId;
+    private long lastUserId;
+
+    @BeforeEach
+    void seed() {
+        topic = topicRepository.save(newTopic());
+
+        jdbcTemplate.update("""
+                INSERT INTO sessions (topic_id, start_time, end_time, created_at)
+                SELECT ?, now() - interval '1 hour', now() + interval '1 hour', now()
+                FROM generate_series(1, ?)
+                """, topic.getId(), SESSIONS);
+
+        long cpfBase = ThreadLocalRandom.current().nextLong(10_000_000_000L, 80_000_000_000L);
+        jdbcTemplate.query("""
+                WITH inserted AS (
+                    INSERT INTO users (cpf, created_at)
+                    SELECT regexp_replace((? + g)::text, '(\\d{3})(\\d{3})(\\d{3})(\\d{2})', '\\1.\\2.\\3-\\4'), now()
+                    FROM generate_series(1, ?) g
+                    RETURNING id
+                )
+                SELECT min(id), max(id) FROM inserted
+                """, rs -> {
+            firstUserId = rs.getLong(1);
+            lastUserId = rs.getLong(2);
+        }, cpfBase, VOTERS_PER_SESSION);
+
+        jdbcTemplate.update("""
+                INSERT INTO votes (user_id, session_id, vote_option, created_at)
+                SELECT u.id, s.id, CASE WHEN random() < 0.6 THEN 0 ELSE 1 END, now()
+                FROM users u
+                CROSS JOIN sessions s
+                WHERE u.id BETWEEN ? AND ? AND s.topic_id = ?
+                """, firstUserId, lastUserId, topic.getId());
+        jdbcTemplate.update("""
+                INSERT INTO session_tallies (session_id, vote_option, stripe, count)
+                SELECT v.session_id, v.vote_option, (v.user_id % 16)::int, count(*)
+                FROM votes v
+                JOIN sessions s ON s.id = v.session_id
+                WHERE s.topic_id = ?
+                GROUP BY 1, 2, 3
+                """, topic.getId());
+        jdbcTemplate.execute("ANALYZE votes");
+        jdbcTemplate.execute("ANALYZE session_tallies");
+        jdbcTemplate.execute("ANALYZE sessions");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM votes WHERE session_id IN (SELECT id FROM sessions WHERE topic_id = ?)",
+                topic.getId());
+        jdbcTemplate.update("DELETE FROM sessions WHERE topic_id = ?", topic.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id BETWEEN ? AND ?", firstUserId, lastUserId);
+        topicRepository.deleteById(topic.getId());
+    }
+
+    @Test
+    void topicResults() {
+        Long topicId = topic.getId();
+
+        TopicResultsRow single = measure("single statement",
+                () -> topicResultsRepository.findByTopicId(topicId).orElseThrow());
+        TopicResultsRow parallel = measure("parallel ranges",
+                () -> topicResultsLoader.findByTopicId(topicId).orElseThrow());
+
+        assertEquals(single.sessionTallies(), parallel.sessionTallies());
+    }
+
+    private TopicResultsRow measure(String label, Supplier<TopicResultsRow> query) {
+        // Aquecimento: planos em cache e páginas no shared_buffers
+        TopicResultsRow row = query.get();
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        LOG.info("{}: {} sessions, {} votes, {} ms per call (avg of {})", label, SESSIONS,
+                (long) SESSIONS * VOTERS_PER_SESSION, String.format("%.3f", millis), ITERATIONS);
+
+        return row;
+    }
+
+    private Topic newTopic() {
+        Topic newTopic = new Topic();
+        newTopic.setTitle("Benchmark");
+        newTopic.setDescription("Parallel topic results benchmark");
+        newTopic.setCreatedAt(LocalDateTime.now());
+        return newTopic;
+    }
+}
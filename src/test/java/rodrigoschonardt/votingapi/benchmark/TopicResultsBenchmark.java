@@ -0,0 +1,150 @@
+package rodrigoschonardt.votingapi.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRepository;
+import rodrigoschonardt.votingapi.session.domain.model.Session;
+import rodrigoschonardt.votingapi.session.domain.repository.SessionRepository;
+import rodrigoschonardt.votingapi.topic.domain.model.Topic;
+import rodrigoschonardt.votingapi.topic.domain.repository.TopicRepository;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Executar contra o banco configurado: ./gradlew test --tests '*TopicResultsBenchmark' -Dbenchmark=true
+// "four statements" reproduz o getTopicResults anterior (tópico, contagem de sessões e um COUNT sobre votes por opção);
+// "single statement" é a consulta agregada sobre session_tallies usada hoje.
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TopicResultsBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(TopicResultsBenchmark.class);
+    private static final int SESSIONS = 4;
+    private static final int VOTERS_PER_SESSION = 500_000;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TopicRepository topicRepository;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private TopicResultsRepository topicResultsRepository;
+
+    private final List<Session> sessions = new ArrayList<>();
+    private Topic topic;
+    private long firstUserId;
+    private long lastUserId;
+
+    @BeforeEach
+    void seed() {
+        topic = topicRepository.save(newTopic());
+
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(sessionRepository.save(newSession()));
+        }
+
+        long cpfBase = ThreadLocalRandom.current().nextLong(10_000_000_000L, 80_000_000_000L);
+        jdbcTemplate.query("""
+                WITH inserted AS (
+                    INSERT INTO users (cpf, created_at)
+                    SELECT regexp_replace((? + g)::text, '(\\d{3})(\\d{3})(\\d{3})(\\d{2})', '\\1.\\2.\\3-\\4'), now()
+                    FROM generate_series(1, ?) g
+                    RETURNING id
+                )
+                SELECT min(id), max(id) FROM inserted
+                """, rs -> {
+            firstUserId = rs.getLong(1);
+            lastUserId = rs.getLong(2);
+        }, cpfBase, VOTERS_PER_SESSION);
+
+        Long[] sessionIds = sessionIds();
+
+        jdbcTemplate.update("""
+                INSERT INTO votes (user_id, session_id, vote_option, created_at)
+                SELECT u.id, s.id, CASE WHEN random() < 0.6 THEN 0 ELSE 1 END, now()
+                FROM users u
+                CROSS JOIN unnest(?::bigint[]) AS s(id)
+                WHERE u.id BETWEEN ? AND ?
+                """, sessionIds, firstUserId, lastUserId);
+        jdbcTemplate.update("""
+                INSERT INTO session_tallies (session_id, vote_option, stripe, count)
+                SELECT session_id, vote_option, (user_id % 16)::int, count(*)
+                FROM votes
+                WHERE session_id = ANY(?)
+                GROUP BY 1, 2, 3
+                """, (Object) sessionIds);
+        jdbcTemplate.execute("ANALYZE votes");
+        jdbcTemplate.execute("ANALYZE session_tallies");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM votes WHERE session_id = ANY(?)", (Object) sessionIds());
+        sessionRepository.deleteAllInBatch(sessions);
+        jdbcTemplate.update("DELETE FROM users WHERE id BETWEEN ? AND ?", firstUserId, lastUserId);
+        topicRepository.deleteById(topic.getId());
+    }
+
+    @Test
+    void topicResults() {
+        Long topicId = topic.getId();
+
+        measure("four statements", () -> {
+            topicRepository.findById(topicId);
+            sessionRepository.countAllByTopicId(topicId);
+            voteRepository.countAllByVoteOptionAndSession_Topic_Id(Vote.VoteOption.YES, topicId);
+            voteRepository.countAllByVoteOptionAndSession_Topic_Id(Vote.VoteOption.NO, topicId);
+        });
+        measure("single statement", () -> topicResultsRepository.findByTopicId(topicId));
+    }
+
+    private void measure(String label, Runnable query) {
+        // Aquecimento: planos em cache e páginas no shared_buffers
+        query.run();
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+        }
+
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        LOG.info("{}: {} votes, {} ms per call (avg of {})", label, SESSIONS * VOTERS_PER_SESSION,
+                String.format("%.3f", millis), ITERATIONS);
+    }
+
+    private Long[] sessionIds() {
+        return sessions.stream().map(Session::getId).toArray(Long[]::new);
+    }
+
+    private Topic newTopic() {
+        Topic newTopic = new Topic();
+        newTopic.setTitle("Benchmark");
+        newTopic.setDescription("Topic results benchmark");
+        newTopic.setCreatedAt(LocalDateTime.now());
+        return newTopic;
+    }
+
+    private Session newSession() {
+        Session session = new Session();
+        session.setTopic(topic);
+        session.setCreatedAt(LocalDateTime.now());
+        session.setStartTime(LocalDateTime.now().minusHours(1));
+        session.setEndTime(LocalDateTime.now().plusHours(1));
+        return session;
+    }
+}
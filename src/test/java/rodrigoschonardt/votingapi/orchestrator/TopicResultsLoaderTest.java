@@ -0,0 +1,113 @@
+package rodrigoschonardt.votingapi.orchestrator;
+
+import org.junit.jupiter.api.Test;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRepository;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRow;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class TopicResultsLoaderTest {
+    private static final LocalDateTime END = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    private final TopicResultsRepository topicResultsRepository = mock(TopicResultsRepository.class);
+    private final TopicResultsLoader loader = new TopicResultsLoader(topicResultsRepository, 4, 10, 100);
+
+    @Test
+    void shouldUseSingleQueryForSmallTopics() {
+        TopicResultsRow row = row(LongStream.rangeClosed(1, 10).boxed().toList(), List.of(), END);
+        when(topicResultsRepository.findByTopicId(1L)).thenReturn(Optional.of(row));
+
+        assertEquals(Optional.of(row), loader.findByTopicId(1L));
+        assertEquals(Optional.of(row), loader.findByTopicId(1L));
+        verify(topicResultsRepository, never()).findSessionIds(anyLong());
+        verify(topicResultsRepository, never()).findByTopicIdAndSessionIdRange(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldSwitchToRangesAfterSingleQueryFindsLargeTopic() {
+        List<Long> sessionIds = LongStream.rangeClosed(1, 15).boxed().toList();
+        when(topicResultsRepository.findByTopicId(1L)).thenReturn(Optional.of(row(sessionIds, List.of(), END)));
+        when(topicResultsRepository.findSessionIds(1L)).thenReturn(sessionIds);
+        when(topicResultsRepository.findByTopicIdAndSessionIdRange(1L, Long.MIN_VALUE, 10L))
+                .thenReturn(Optional.of(row(sessionIds.subList(0, 10), List.of(), END)));
+        when(topicResultsRepository.findByTopicIdAndSessionIdRange(1L, 11L, Long.MAX_VALUE))
+                .thenReturn(Optional.of(row(sessionIds.subList(10, 15), List.of(), END)));
+
+        assertEquals(15, loader.findByTopicId(1L).orElseThrow().sessionTallies().size());
+        assertEquals(15, loader.findByTopicId(1L).orElseThrow().sessionTallies().size());
+
+        verify(topicResultsRepository, times(1)).findByTopicId(1L);
+        verify(topicResultsRepository, times(1)).findSessionIds(1L);
+    }
+
+    @Test
+    void shouldReadLargeTopicsInContiguousRangesAndMergeThem() {
+        // Ids esparsos: 2, 4, ..., 50 -> faixas de 10, 10 e 5 sessões
+        List<Long> sessionIds = LongStream.rangeClosed(1, 25).map(i -> i * 2).boxed().toList();
+        primeLargeTopic(sessionIds);
+        when(topicResultsRepository.findSessionIds(1L)).thenReturn(sessionIds);
+        when(topicResultsRepository.findByTopicIdAndSessionIdRange(1L, Long.MIN_VALUE, 21L))
+                .thenReturn(Optional.of(row(sessionIds.subList(0, 10), List.of(2L), END)));
+        when(topicResultsRepository.findByTopicIdAndSessionIdRange(1L, 22L, 41L))
+                .thenReturn(Optional.of(row(sessionIds.subList(10, 20), List.of(), END.plusDays(1))));
+        when(topicResultsRepository.findByTopicIdAndSessionIdRange(1L, 42L, Long.MAX_VALUE))
+                .thenReturn(Optional.of(row(sessionIds.subList(20, 25), List.of(), END)));
+
+        TopicResultsRow row = loader.findByTopicId(1L).orElseThrow();
+
+        assertEquals(24, row.sessionTallies().size());
+        assertEquals(Map.of(2L, new VoteTally(1, 1)), row.finalizedTallies());
+        assertEquals(END.plusDays(1), row.lastEndTime());
+        assertEquals("Topic", row.title());
+        verify(topicResultsRepository, times(1)).findByTopicId(anyLong());
+    }
+
+    @Test
+    void shouldIgnoreRangesWithoutSessions() {
+        List<Long> sessionIds = LongStream.rangeClosed(1, 20).boxed().toList();
+        primeLargeTopic(sessionIds);
+        when(topicResultsRepository.findSessionIds(1L)).thenReturn(sessionIds);
+        when(topicResultsRepository.findByTopicIdAndSessionIdRange(1L, Long.MIN_VALUE, 10L)).thenReturn(Optional.empty());
+        when(topicResultsRepository.findByTopicIdAndSessionIdRange(1L, 11L, Long.MAX_VALUE))
+                .thenReturn(Optional.of(row(sessionIds.subList(10, 20), List.of(), END)));
+
+        assertEquals(10, loader.findByTopicId(1L).orElseThrow().sessionTallies().size());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenTopicIsRemovedDuringRead() {
+        primeLargeTopic(LongStream.rangeClosed(1, 30).boxed().toList());
+        when(topicResultsRepository.findSessionIds(1L)).thenReturn(LongStream.rangeClosed(1, 30).boxed().toList());
+        when(topicResultsRepository.findByTopicIdAndSessionIdRange(eq(1L), anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
+
+        assertTrue(loader.findByTopicId(1L).isEmpty());
+    }
+
+    // Primeira leitura pela consulta única; a partir dela o tópico é lido em faixas
+    private void primeLargeTopic(List<Long> sessionIds) {
+        when(topicResultsRepository.findByTopicId(1L)).thenReturn(Optional.of(row(sessionIds, List.of(), END)));
+        loader.findByTopicId(1L);
+    }
+
+    // Sessões em finalizedIds entram como finalizadas; as demais como contagem em aberto
+    private static TopicResultsRow row(List<Long> sessionIds, List<Long> finalizedIds, LocalDateTime lastEndTime) {
+        Map<Long, VoteTally> open = sessionIds.stream()
+                .filter(id -> !finalizedIds.contains(id))
+                .collect(Collectors.toMap(id -> id, id -> new VoteTally(1, 0)));
+        Map<Long, VoteTally> finalized = finalizedIds.stream()
+                .collect(Collectors.toMap(id -> id, id -> new VoteTally(1, 1)));
+
+        return new TopicResultsRow(1L, "Topic", null, lastEndTime, open, finalized);
+    }
+}
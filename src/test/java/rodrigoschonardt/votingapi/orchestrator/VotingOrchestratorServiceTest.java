@@ -1,20 +1,33 @@
 package rodrigoschonardt.votingapi.orchestrator;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRepository;
+import rodrigoschonardt.votingapi.orchestrator.repository.TopicResultsRow;
+import rodrigoschonardt.votingapi.session.domain.model.Session;
 import rodrigoschonardt.votingapi.session.domain.service.SessionService;
+import rodrigoschonardt.votingapi.session.web.dto.SessionResultsData;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
 import rodrigoschonardt.votingapi.topic.domain.model.Topic;
 import rodrigoschonardt.votingapi.topic.domain.service.TopicService;
 import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsData;
-import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.model.SessionTimeline;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+import rodrigoschonardt.votingapi.vote.domain.service.TopicResultsVersions;
 import rodrigoschonardt.votingapi.vote.domain.service.VoteService;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,13 +44,23 @@ class VotingOrchestratorServiceTest {
     @Mock
     private VoteService voteService;
 
-    @InjectMocks
+    @Mock
+    private TopicResultsRepository topicResultsRepository;
+
+    private TopicResultsVersions topicResultsVersions;
+
     private VotingOrchestratorService orchestratorService;
 
     private Topic topic;
 
     @BeforeEach
     void setUp() {
+        // Cache real: tópicos abertos expiram na hora (TTL 0), encerrados ficam fixados
+        topicResultsVersions = new TopicResultsVersions(sessionService, 100);
+        orchestratorService = new VotingOrchestratorService(topicService, sessionService, voteService,
+                topicResultsRepository, new TopicResultsLoader(topicResultsRepository, 2, 250, 100),
+                new TopicResultsCache(new SimpleMeterRegistry(), 100, 0), topicResultsVersions);
+
         topic = new Topic();
         topic.setId(1L);
         topic.setTitle("Test Topic");
@@ -111,10 +134,9 @@ class VotingOrchestratorServiceTest {
         Integer noVotes = 3;
         Integer expectedYesPercentage = 70; // 7/10 * 100 = 70%
 
-        when(topicService.get(topicId)).thenReturn(topic);
-        when(sessionService.countByTopic(topicId)).thenReturn(sessionsCount);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.YES)).thenReturn(yesVotes);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.NO)).thenReturn(noVotes);
+        TopicResultsRow row = resultsRow(sessionsCount);
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(yesVotes, noVotes));
 
         TopicResultsData result = orchestratorService.getTopicResults(topicId);
 
@@ -127,10 +149,9 @@ class VotingOrchestratorServiceTest {
         assertEquals(noVotes, result.votesNoCount());
         assertEquals(expectedYesPercentage, result.yesPercentage());
 
-        verify(topicService).get(topicId);
-        verify(sessionService).countByTopic(topicId);
-        verify(voteService).countByTopicAndOption(topicId, Vote.VoteOption.YES);
-        verify(voteService).countByTopicAndOption(topicId, Vote.VoteOption.NO);
+        verify(topicResultsRepository).findByTopicId(topicId);
+        verify(voteService).countBySessions(row.sessionTallies());
+        verifyNoInteractions(topicService, sessionService);
     }
 
     @Test
@@ -141,10 +162,9 @@ class VotingOrchestratorServiceTest {
         Integer noVotes = 0;
         Integer expectedYesPercentage = 0;
 
-        when(topicService.get(topicId)).thenReturn(topic);
-        when(sessionService.countByTopic(topicId)).thenReturn(sessionsCount);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.YES)).thenReturn(yesVotes);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.NO)).thenReturn(noVotes);
+        TopicResultsRow row = resultsRow(sessionsCount);
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(yesVotes, noVotes));
 
         TopicResultsData result = orchestratorService.getTopicResults(topicId);
 
@@ -166,10 +186,9 @@ class VotingOrchestratorServiceTest {
         Integer noVotes = 1;
         Integer expectedYesPercentage = 67; // 2/3 * 100 = 66.67 -> 67
 
-        when(topicService.get(topicId)).thenReturn(topic);
-        when(sessionService.countByTopic(topicId)).thenReturn(sessionsCount);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.YES)).thenReturn(yesVotes);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.NO)).thenReturn(noVotes);
+        TopicResultsRow row = resultsRow(sessionsCount);
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(yesVotes, noVotes));
 
         TopicResultsData result = orchestratorService.getTopicResults(topicId);
 
@@ -184,10 +203,9 @@ class VotingOrchestratorServiceTest {
         Integer noVotes = 1;
         Integer expectedYesPercentage = 50; // 1/2 * 100 = 50%
 
-        when(topicService.get(topicId)).thenReturn(topic);
-        when(sessionService.countByTopic(topicId)).thenReturn(sessionsCount);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.YES)).thenReturn(yesVotes);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.NO)).thenReturn(noVotes);
+        TopicResultsRow row = resultsRow(sessionsCount);
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(yesVotes, noVotes));
 
         TopicResultsData result = orchestratorService.getTopicResults(topicId);
 
@@ -202,10 +220,9 @@ class VotingOrchestratorServiceTest {
         Integer noVotes = 0;
         Integer expectedYesPercentage = 100;
 
-        when(topicService.get(topicId)).thenReturn(topic);
-        when(sessionService.countByTopic(topicId)).thenReturn(sessionsCount);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.YES)).thenReturn(yesVotes);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.NO)).thenReturn(noVotes);
+        TopicResultsRow row = resultsRow(sessionsCount);
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(yesVotes, noVotes));
 
         TopicResultsData result = orchestratorService.getTopicResults(topicId);
 
@@ -220,10 +237,9 @@ class VotingOrchestratorServiceTest {
         Integer noVotes = 5;
         Integer expectedYesPercentage = 0;
 
-        when(topicService.get(topicId)).thenReturn(topic);
-        when(sessionService.countByTopic(topicId)).thenReturn(sessionsCount);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.YES)).thenReturn(yesVotes);
-        when(voteService.countByTopicAndOption(topicId, Vote.VoteOption.NO)).thenReturn(noVotes);
+        TopicResultsRow row = resultsRow(sessionsCount);
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(yesVotes, noVotes));
 
         TopicResultsData result = orchestratorService.getTopicResults(topicId);
 
@@ -233,8 +249,7 @@ class VotingOrchestratorServiceTest {
     @Test
     void shouldThrowExceptionWhenTopicNotFoundForResults() {
         Long topicId = 99L;
-        when(topicService.get(topicId))
-                .thenThrow(new EntityNotFoundException("Topic", "ID " + topicId));
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(
                 EntityNotFoundException.class,
@@ -244,7 +259,260 @@ class VotingOrchestratorServiceTest {
         assertTrue(exception.getMessage().contains("Topic"));
         assertTrue(exception.getMessage().contains("ID " + topicId));
 
-        verify(topicService).get(topicId);
-        verifyNoInteractions(sessionService, voteService);
+        verify(topicResultsRepository).findByTopicId(topicId);
+        verify(voteService, never()).countBySessions(any());
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    void shouldPinResultsOfFullyFinalizedTopic() {
+        Long topicId = 1L;
+        TopicResultsRow row = finalizedRow(2);
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(Map.of())).thenReturn(VoteTally.EMPTY);
+
+        TopicResultsData first = orchestratorService.getTopicResults(topicId);
+        TopicResultsData second = orchestratorService.getTopicResults(topicId);
+
+        assertSame(first, second);
+        assertEquals(6, second.votesYesCount());
+        verify(topicResultsRepository, times(1)).findByTopicId(topicId);
+    }
+
+    @Test
+    void shouldRecomputeResultsOfTopicWithOpenSessions() {
+        Long topicId = 1L;
+        TopicResultsRow row = resultsRow(2);
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(3, 1));
+
+        orchestratorService.getTopicResults(topicId);
+        orchestratorService.getTopicResults(topicId);
+
+        verify(topicResultsRepository, times(2)).findByTopicId(topicId);
+    }
+
+    @Test
+    void shouldNotPinResultsOfClosedTopicUntilSessionsAreFinalized() {
+        Long topicId = 1L;
+        TopicResultsRow row = resultsRow(1, LocalDateTime.now().minusMinutes(1));
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(3, 1));
+
+        orchestratorService.getTopicResults(topicId);
+        orchestratorService.getTopicResults(topicId);
+
+        verify(topicResultsRepository, times(2)).findByTopicId(topicId);
+    }
+
+    @Test
+    void shouldInvalidatePinnedResultsWhenTopicIsDeleted() {
+        Long topicId = 1L;
+        TopicResultsRow row = finalizedRow(1);
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(Map.of())).thenReturn(VoteTally.EMPTY);
+
+        orchestratorService.getTopicResults(topicId);
+        orchestratorService.deleteTopicSessionsAndVotes(topicId);
+        orchestratorService.getTopicResults(topicId);
+
+        verify(topicResultsRepository, times(2)).findByTopicId(topicId);
+    }
+
+    @Test
+    void shouldLoadBatchResultsWithSingleQueryAndSkipMissingTopics() {
+        TopicResultsRow row = resultsRow(2);
+
+        when(topicResultsRepository.findByTopicIds(Set.of(1L, 99L))).thenReturn(Map.of(1L, row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(3, 1));
+
+        Map<Long, TopicResultsData> results = orchestratorService.getTopicResults(List.of(1L, 99L));
+
+        assertEquals(Set.of(1L), results.keySet());
+        assertEquals(2, results.get(1L).sessionsCount());
+        assertEquals(75, results.get(1L).yesPercentage());
+        verify(topicResultsRepository).findByTopicIds(Set.of(1L, 99L));
+        verify(topicResultsRepository, never()).findByTopicId(any());
+    }
+
+    @Test
+    void shouldServePinnedResultsInBatchWithoutQuerying() {
+        Long topicId = 1L;
+        TopicResultsRow row = finalizedRow(1);
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(Map.of())).thenReturn(VoteTally.EMPTY);
+        when(topicResultsRepository.findByTopicIds(Set.of(2L))).thenReturn(Map.of());
+
+        orchestratorService.getTopicResults(topicId);
+        Map<Long, TopicResultsData> results = orchestratorService.getTopicResults(List.of(topicId, 2L));
+
+        assertEquals(3, results.get(topicId).votesYesCount());
+        assertFalse(results.containsKey(2L));
+        verify(topicResultsRepository).findByTopicIds(Set.of(2L));
+    }
+
+    @Test
+    void shouldUseFinalizedResultsForClosedSessions() {
+        Long topicId = 1L;
+        Map<Long, VoteTally> openTallies = Map.of(2L, new VoteTally(1, 1));
+        TopicResultsRow row = new TopicResultsRow(topicId, topic.getTitle(), topic.getDescription(),
+                LocalDateTime.now().plusHours(1), openTallies, Map.of(1L, new VoteTally(10, 5)));
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(openTallies)).thenReturn(new VoteTally(2, 1));
+
+        TopicResultsData results = orchestratorService.getTopicResults(topicId);
+
+        assertEquals(2, results.sessionsCount());
+        assertEquals(12, results.votesYesCount());
+        assertEquals(6, results.votesNoCount());
+        verify(voteService).countBySessions(openTallies);
+    }
+
+    @Test
+    void shouldRecomputePinnedResultsWhenVersionMoves() {
+        Long topicId = 1L;
+        TopicResultsRow row = finalizedRow(1);
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(Map.of())).thenReturn(VoteTally.EMPTY);
+
+        String pinned = orchestratorService.getTopicResultsSnapshot(topicId).etag();
+        topicResultsVersions.bumpAll();
+        String etag = orchestratorService.getTopicResultsSnapshot(topicId).etag();
+
+        assertNotEquals(pinned, etag);
+        assertEquals(orchestratorService.getTopicResultsETag(topicId), etag);
+        assertEquals(etag, orchestratorService.getTopicResultsSnapshot(topicId).etag());
+        verify(topicResultsRepository, times(2)).findByTopicId(topicId);
+    }
+
+    @Test
+    void shouldServeOpenResultsWithinTtlWhileVersionMoves() {
+        VotingOrchestratorService cachingService = new VotingOrchestratorService(topicService, sessionService,
+                voteService, topicResultsRepository, new TopicResultsLoader(topicResultsRepository, 2, 250, 100),
+                new TopicResultsCache(new SimpleMeterRegistry(), 100, 60_000), topicResultsVersions);
+        Long topicId = 1L;
+        TopicResultsRow row = resultsRow(1);
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(1, 0));
+
+        String etag = cachingService.getTopicResultsSnapshot(topicId).etag();
+        topicResultsVersions.bump(topicId);
+
+        assertEquals(etag, cachingService.getTopicResultsSnapshot(topicId).etag());
+        assertEquals(etag, cachingService.getTopicResultsETag(topicId));
+        assertEquals(1, cachingService.getTopicResults(List.of(topicId)).get(topicId).votesYesCount());
+        verify(topicResultsRepository, times(1)).findByTopicId(topicId);
+        verify(topicResultsRepository, never()).findByTopicIds(any());
+    }
+
+    @Test
+    void shouldRecomputeStalePinnedResultsInBatch() {
+        Long topicId = 1L;
+        TopicResultsRow row = finalizedRow(1);
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(Map.of())).thenReturn(VoteTally.EMPTY);
+        when(topicResultsRepository.findByTopicIds(Set.of(topicId))).thenReturn(Map.of(topicId, row));
+
+        orchestratorService.getTopicResults(topicId);
+        topicResultsVersions.bump(topicId);
+        Map<Long, TopicResultsData> results = orchestratorService.getTopicResults(List.of(topicId));
+
+        assertEquals(3, results.get(topicId).votesYesCount());
+        verify(topicResultsRepository).findByTopicIds(Set.of(topicId));
+    }
+
+    @Test
+    void shouldTagResultsWithVersionReadBeforeComputing() {
+        Long topicId = 1L;
+        TopicResultsRow row = resultsRow(1);
+        String etag = orchestratorService.getTopicResultsETag(topicId);
+
+        when(topicResultsRepository.findByTopicId(topicId)).thenReturn(Optional.of(row));
+        when(voteService.countBySessions(row.sessionTallies())).thenReturn(new VoteTally(1, 0));
+
+        assertEquals(etag, orchestratorService.getTopicResultsSnapshot(topicId).etag());
+        assertEquals(etag, orchestratorService.getTopicResultsETag(topicId));
+
+        topicResultsVersions.bump(topicId);
+
+        assertNotEquals(etag, orchestratorService.getTopicResultsETag(topicId));
+    }
+
+    @Test
+    void shouldChangeETagWhenTopicIsDeleted() {
+        Long topicId = 1L;
+        String etag = orchestratorService.getTopicResultsETag(topicId);
+
+        orchestratorService.deleteTopicSessionsAndVotes(topicId);
+
+        assertNotEquals(etag, orchestratorService.getTopicResultsETag(topicId));
+    }
+
+    @Test
+    void shouldReturnSessionResultsWithTimeline() {
+        Long sessionId = 5L;
+        LocalDateTime startTime = LocalDateTime.now().minusMinutes(10);
+        Session session = new Session();
+        session.setId(sessionId);
+        session.setTopic(topic);
+        session.setStartTime(startTime);
+        session.setEndTime(startTime.plusMinutes(2));
+
+        when(sessionService.get(sessionId)).thenReturn(session);
+        when(sessionService.isVotingClosed(session)).thenReturn(true);
+        when(voteService.countBySession(sessionId)).thenReturn(new VoteTally(2, 1));
+        when(voteService.getTimeline(sessionId, startTime, startTime.plusMinutes(2), true))
+                .thenReturn(new SessionTimeline(startTime, 60, new long[]{2, 0, 1}));
+
+        SessionResultsData results = orchestratorService.getSessionResults(sessionId);
+
+        assertEquals(topic.getId(), results.topicId());
+        assertEquals(2, results.votesYesCount());
+        assertEquals(1, results.votesNoCount());
+        assertEquals(67, results.yesPercentage());
+        assertEquals(60, results.bucketSeconds());
+        assertEquals(3, results.timeline().size());
+        assertEquals(startTime.plusMinutes(2), results.timeline().get(2).start());
+        assertEquals(1L, results.timeline().get(2).votes());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenSessionNotFoundForResults() {
+        Long sessionId = 99L;
+        when(sessionService.get(sessionId)).thenThrow(new EntityNotFoundException("Session", "ID " + sessionId));
+
+        assertThrows(EntityNotFoundException.class, () -> orchestratorService.getSessionResults(sessionId));
+
+        verify(voteService, never()).getTimeline(any(), any(), any(), anyBoolean());
+    }
+
+    private TopicResultsRow resultsRow(int sessionsCount) {
+        return resultsRow(sessionsCount, LocalDateTime.now().plusHours(1));
+    }
+
+    // Sessões com resultado final gravado, 3 votos SIM e 1 NÃO cada
+    private TopicResultsRow finalizedRow(int sessionsCount) {
+        Map<Long, VoteTally> finalizedTallies = LongStream.rangeClosed(1, sessionsCount).boxed()
+                .collect(Collectors.toMap(Function.identity(), sessionId -> new VoteTally(3, 1)));
+
+        return new TopicResultsRow(topic.getId(), topic.getTitle(), topic.getDescription(),
+                LocalDateTime.now().minusMinutes(1), Map.of(), finalizedTallies);
+    }
+
+    private TopicResultsRow resultsRow(int sessionsCount, LocalDateTime lastEndTime) {
+        Map<Long, VoteTally> sessionTallies = LongStream.rangeClosed(1, sessionsCount).boxed()
+                .collect(Collectors.toMap(Function.identity(), sessionId -> VoteTally.EMPTY));
+
+        return new TopicResultsRow(topic.getId(), topic.getTitle(), topic.getDescription(), lastEndTime, sessionTallies,
+                Map.of());
     }
 }
\ No newline at end of file
@@ -5,10 +5,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import rodrigoschonardt.votingapi.session.domain.event.SessionChangedEvent;
+import rodrigoschonardt.votingapi.session.domain.event.SessionCreatedEvent;
 import rodrigoschonardt.votingapi.session.domain.model.Session;
 import rodrigoschonardt.votingapi.session.domain.repository.SessionRepository;
 import rodrigoschonardt.votingapi.session.web.dto.AddSessionData;
@@ -39,6 +42,12 @@ public class SessionServiceTest {
     @Mock
     private TopicService topicService;
 
+    @Mock
+    private SessionWindowCache sessionWindowCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -74,6 +83,7 @@ public class SessionServiceTest {
         verify(topicService).get(topicId);
         verify(sessionMapper).toEntity(sessionData, topic);
         verify(sessionRepository).save(sessionToSave);
+        verify(eventPublisher).publishEvent(new SessionCreatedEvent(1L, topicId));
     }
 
     @Test
@@ -98,8 +108,11 @@ public class SessionServiceTest {
     @Test
     void shouldDeleteSessionWhenExists() {
         Long sessionId = 1L;
+        Topic topic = new Topic();
+        topic.setId(5L);
         Session existingSession = new Session();
         existingSession.setId(sessionId);
+        existingSession.setTopic(topic);
 
         when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(existingSession));
         doNothing().when(sessionRepository).deleteById(sessionId);
@@ -108,6 +121,8 @@ public class SessionServiceTest {
 
         verify(sessionRepository).findById(sessionId);
         verify(sessionRepository).deleteById(sessionId);
+        verify(sessionWindowCache).invalidate(sessionId);
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(sessionId, 5L));
     }
 
     @Test
@@ -133,12 +148,14 @@ public class SessionServiceTest {
         topic.setId(topicId);
 
         when(topicService.get(topicId)).thenReturn(topic);
+        when(sessionRepository.findAllIdsByTopicId(topicId)).thenReturn(List.of(10L, 11L));
         doNothing().when(sessionRepository).deleteAllByTopicId(topicId);
 
         sessionService.deleteAllByTopic(topicId);
 
         verify(topicService).get(topicId);
         verify(sessionRepository).deleteAllByTopicId(topicId);
+        verify(sessionWindowCache).invalidateAll(List.of(10L, 11L));
     }
 
     @Test
@@ -281,6 +298,17 @@ public class SessionServiceTest {
         assertFalse(isOpen);
     }
 
+    @Test
+    void shouldCheckVotingWindowFromCache() {
+        long now = System.currentTimeMillis();
+        when(sessionWindowCache.get(1L)).thenReturn(new SessionWindowCache.SessionWindow(now - 60_000, now + 60_000, 1L));
+        when(sessionWindowCache.get(2L)).thenReturn(new SessionWindowCache.SessionWindow(now - 120_000, now - 60_000, 1L));
+
+        assertTrue(sessionService.isVotingOpen(1L));
+        assertFalse(sessionService.isVotingOpen(2L));
+        verify(sessionRepository, never()).findById(anyLong());
+    }
+
     @Test
     void shouldUpdateSessionSuccessfully() {
         Long sessionId = 1L;
@@ -296,8 +324,12 @@ public class SessionServiceTest {
         updatedSessionFromMapper.setStartTime(LocalDateTime.now().plusMinutes(5));
         updatedSessionFromMapper.setEndTime(LocalDateTime.now().plusMinutes(10));
 
+        Topic topic = new Topic();
+        topic.setId(5L);
+
         Session savedSession = new Session();
         savedSession.setId(sessionId);
+        savedSession.setTopic(topic);
         savedSession.setStartTime(LocalDateTime.now().plusMinutes(5));
         savedSession.setEndTime(LocalDateTime.now().plusMinutes(10));
 
@@ -312,6 +344,8 @@ public class SessionServiceTest {
         verify(sessionRepository).findById(sessionId);
         verify(sessionMapper).updateEntity(updateData, existingSession);
         verify(sessionRepository).save(updatedSessionFromMapper);
+        verify(sessionWindowCache).invalidate(sessionId);
+        verify(eventPublisher).publishEvent(new SessionChangedEvent(sessionId, 5L));
     }
 
     @Test
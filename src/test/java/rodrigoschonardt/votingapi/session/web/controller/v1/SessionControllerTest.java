@@ -18,6 +18,8 @@ import rodrigoschonardt.votingapi.session.domain.model.Session;
 import rodrigoschonardt.votingapi.session.domain.service.SessionService;
 import rodrigoschonardt.votingapi.session.web.dto.AddSessionData;
 import rodrigoschonardt.votingapi.session.web.dto.SessionDetailsData;
+import rodrigoschonardt.votingapi.session.web.dto.SessionResultsData;
+import rodrigoschonardt.votingapi.session.web.dto.TimelineBucketData;
 import rodrigoschonardt.votingapi.session.web.dto.UpdateSessionData;
 import rodrigoschonardt.votingapi.session.web.mapper.SessionMapper;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
@@ -366,4 +368,34 @@ class SessionControllerTest {
                 .andExpect(jsonPath("$.message").exists());
 
     }
+
+    @Test
+    void shouldReturnSessionResultsWithTimeline() throws Exception {
+        Long sessionId = 1L;
+        LocalDateTime startTime = LocalDateTime.of(2025, 1, 1, 10, 0);
+        SessionResultsData results = new SessionResultsData(sessionId, 2L, startTime, startTime.plusMinutes(2),
+                3, 1, 75, 60, List.of(new TimelineBucketData(startTime, 3L),
+                new TimelineBucketData(startTime.plusMinutes(1), 1L), new TimelineBucketData(startTime.plusMinutes(2), 0L)));
+
+        when(votingOrchestratorService.getSessionResults(sessionId)).thenReturn(results);
+
+        mockMvc.perform(get("/api/v1/sessions/{id}/results", sessionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.votesYesCount").value(3))
+                .andExpect(jsonPath("$.yesPercentage").value(75))
+                .andExpect(jsonPath("$.bucketSeconds").value(60))
+                .andExpect(jsonPath("$.timeline.length()").value(3))
+                .andExpect(jsonPath("$.timeline[0].votes").value(3));
+    }
+
+    @Test
+    void shouldReturn404WhenGettingResultsOfNonExistentSession() throws Exception {
+        Long sessionId = 99L;
+        when(votingOrchestratorService.getSessionResults(sessionId))
+                .thenThrow(new EntityNotFoundException("Session", "ID " + sessionId));
+
+        mockMvc.perform(get("/api/v1/sessions/{id}/results", sessionId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").exists());
+    }
 }
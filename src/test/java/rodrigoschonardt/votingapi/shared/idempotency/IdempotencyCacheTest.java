@@ -0,0 +1,117 @@
+package rodrigoschonardt.votingapi.shared.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.shared.exception.IdempotencyKeyConflictException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+    private final IdempotencyCache cache = new IdempotencyCache(new SimpleMeterRegistry(), 100, 60, 5000);
+
+    @Test
+    void shouldReplayFirstResponseForSameKey() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<String> first = cache.execute("votes", "key", "body",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body("created-" + calls.incrementAndGet()));
+        ResponseEntity<String> replay = cache.execute("votes", "key", "body",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body("created-" + calls.incrementAndGet()));
+
+        assertEquals(1, calls.get());
+        assertEquals("created-1", replay.getBody());
+        assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+        assertNull(first.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+    }
+
+    @Test
+    void shouldExecuteEveryTimeWithoutKey() {
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.execute("votes", null, "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        cache.execute("votes", null, "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldRejectSameKeyWithDifferentRequest() {
+        cache.execute("users", "key", "first", () -> ResponseEntity.ok("ok"));
+
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> cache.execute("users", "key", "second", () -> ResponseEntity.ok("ok")));
+    }
+
+    @Test
+    void shouldRejectReplayForDifferentRepresentation() {
+        cache.execute("votes", "key", "body", "full", () -> ResponseEntity.ok("full"));
+
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> cache.execute("votes", "key", "body", "minimal", () -> ResponseEntity.ok("minimal")));
+    }
+
+    @Test
+    void shouldSendVaryOnReplayOfNegotiatedResponse() {
+        cache.execute("votes", "key", "body", "minimal", () -> ResponseEntity.ok("minimal"));
+
+        ResponseEntity<String> replay = cache.execute("votes", "key", "body", "minimal",
+                () -> ResponseEntity.ok("other"));
+
+        assertEquals("minimal", replay.getBody());
+        assertEquals(List.of("Prefer", "Accept"), replay.getHeaders().getVary());
+    }
+
+    @Test
+    void shouldNotKeepFailures() {
+        assertThrows(EntityNotFoundException.class, () -> cache.execute("votes", "key", "body", () -> {
+            throw new EntityNotFoundException("Session", "ID 1");
+        }));
+
+        assertEquals("ok", cache.execute("votes", "key", "body", () -> ResponseEntity.ok("ok")).getBody());
+    }
+
+    @Test
+    void shouldMakeConcurrentRequestWaitForFirst() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<ResponseEntity<Integer>> first = CompletableFuture.supplyAsync(() ->
+                cache.execute("votes", "key", "body", () -> {
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.ok(calls.incrementAndGet());
+                }));
+
+        started.await();
+
+        CompletableFuture<ResponseEntity<Integer>> second = CompletableFuture.supplyAsync(() ->
+                cache.execute("votes", "key", "body", () -> ResponseEntity.ok(calls.incrementAndGet())));
+
+        Thread.sleep(50);
+        assertFalse(second.isDone());
+
+        release.countDown();
+
+        assertEquals(1, first.get().getBody());
+        assertEquals(1, second.get().getBody());
+        assertEquals(1, calls.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
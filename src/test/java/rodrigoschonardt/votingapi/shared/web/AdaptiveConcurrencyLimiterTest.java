@@ -0,0 +1,74 @@
+package rodrigoschonardt.votingapi.shared.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldRejectWhenLimitIsReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, 2, 1, 10, 0.2, 0, 0);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(limiter.tryAcquire());
+        assertEquals(1, meterRegistry.counter("votingapi.admission.rejected").count());
+
+        first.release(false);
+
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldBackOffOnDroppedRequests() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, 100, 10, 200, 0.2, 0, 0);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire().release(true);
+        }
+
+        assertTrue(limiter.getLimit() < 40);
+        assertTrue(limiter.getLimit() >= 10);
+    }
+
+    @Test
+    void shouldBackOffWhenLatencyExceedsTarget() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, 100, 10, 200, 0.2, 0, 1);
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        Thread.sleep(5);
+        permit.release(false);
+
+        assertEquals(90, limiter.getLimit(), 0.001);
+    }
+
+    @Test
+    void shouldGrowWhileLatencyIsStableAndDemandUsesTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, 4, 1, 100, 0.5, 0, 0);
+
+        for (int round = 0; round < 20; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            AdaptiveConcurrencyLimiter.Permit permit;
+
+            while ((permit = limiter.tryAcquire()) != null) {
+                permits.add(permit);
+            }
+
+            // Latência estável dominada pelo "trabalho" e não pelo ruído de medição
+            Thread.sleep(2);
+            permits.forEach(admitted -> admitted.release(false));
+        }
+
+        assertTrue(limiter.getLimit() > 4);
+        assertEquals(0, limiter.getInflight());
+    }
+}
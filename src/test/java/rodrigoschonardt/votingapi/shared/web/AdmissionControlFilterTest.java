@@ -0,0 +1,58 @@
+package rodrigoschonardt.votingapi.shared.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new SimpleMeterRegistry(), 1, 1, 1,
+            0.2, 0, 0);
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(limiter, 3, Set.of("POST"));
+
+    @Test
+    void shouldRejectWith429WhenLimiterIsSaturated() throws Exception {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/votes"), response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("3", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+
+        permit.release(false);
+    }
+
+    @Test
+    void shouldAdmitRequestWhenPermitIsAvailable() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/votes"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldNotLimitOtherMethods() throws Exception {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/votes"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+
+        permit.release(false);
+    }
+}
@@ -5,11 +5,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.topic.domain.event.TopicUpdatedEvent;
 import rodrigoschonardt.votingapi.topic.domain.model.Topic;
 import rodrigoschonardt.votingapi.topic.domain.repository.TopicRepository;
 import rodrigoschonardt.votingapi.topic.web.dto.AddTopicData;
@@ -32,6 +34,9 @@ public class TopicServiceTest {
     @Mock
     private TopicMapper topicMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TopicService topicService;
 
@@ -84,6 +89,7 @@ public class TopicServiceTest {
         verify(topicRepository).findById(topicId);
         verify(topicMapper).updateEntity(topicData, existingTopic);
         verify(topicRepository).save(updatedTopic);
+        verify(eventPublisher).publishEvent(new TopicUpdatedEvent(topicId));
     }
 
     @Test
@@ -12,20 +12,27 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import rodrigoschonardt.votingapi.orchestrator.TopicResultsCache.TopicResultsSnapshot;
 import rodrigoschonardt.votingapi.orchestrator.VotingOrchestratorService;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.shared.exception.SubscriberLimitExceededException;
 import rodrigoschonardt.votingapi.topic.domain.model.Topic;
 import rodrigoschonardt.votingapi.topic.domain.service.TopicService;
 import rodrigoschonardt.votingapi.topic.web.dto.AddTopicData;
 import rodrigoschonardt.votingapi.topic.web.dto.TopicDetailsData;
+import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsBatchData;
 import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsData;
 import rodrigoschonardt.votingapi.topic.web.dto.UpdateTopicData;
 import rodrigoschonardt.votingapi.topic.web.mapper.TopicMapper;
+import rodrigoschonardt.votingapi.topic.web.stream.TopicResultsBroadcaster;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -46,6 +53,9 @@ class TopicControllerTest {
     @Autowired
     private VotingOrchestratorService orchestratorService;
 
+    @Autowired
+    private TopicResultsBroadcaster topicResultsBroadcaster;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -65,6 +75,11 @@ class TopicControllerTest {
         public VotingOrchestratorService orchestratorService() {
             return mock(VotingOrchestratorService.class);
         }
+
+        @Bean
+        public TopicResultsBroadcaster topicResultsBroadcaster() {
+            return mock(TopicResultsBroadcaster.class);
+        }
     }
 
     @Test
@@ -220,24 +235,103 @@ class TopicControllerTest {
         Long topicId = 1L;
         TopicResultsData results = new TopicResultsData(topicId, "Topic Title", "Topic Description",
                 1, 1, 0, 100);
-        when(orchestratorService.getTopicResults(topicId)).thenReturn(results);
+        when(orchestratorService.getTopicResultsETag(topicId)).thenReturn("\"a-2\"");
+        when(orchestratorService.getTopicResultsSnapshot(topicId))
+                .thenReturn(new TopicResultsSnapshot(results, false, 2, "\"a-2\""));
 
         mockMvc.perform(get("/api/v1/topics/result/{id}", topicId))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"a-2\""))
                 .andExpect(jsonPath("$.id").value(topicId));
 
-        verify(orchestratorService, atLeastOnce()).getTopicResults(topicId);
+        verify(orchestratorService, atLeastOnce()).getTopicResultsSnapshot(topicId);
+    }
+
+    @Test
+    void shouldReturn304WithoutComputingResultsWhenVersionIsUnchanged() throws Exception {
+        Long topicId = 7L;
+        when(orchestratorService.getTopicResultsETag(topicId)).thenReturn("\"a-5\"");
+
+        mockMvc.perform(get("/api/v1/topics/result/{id}", topicId).header("If-None-Match", "\"a-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"a-5\""))
+                .andExpect(content().string(""));
+
+        verify(orchestratorService, never()).getTopicResultsSnapshot(topicId);
+    }
+
+    @Test
+    void shouldReturnResultsWhenClientVersionIsOutdated() throws Exception {
+        Long topicId = 8L;
+        TopicResultsData results = new TopicResultsData(topicId, "Topic Title", "Topic Description",
+                1, 2, 0, 100);
+        when(orchestratorService.getTopicResultsETag(topicId)).thenReturn("\"a-6\"");
+        when(orchestratorService.getTopicResultsSnapshot(topicId))
+                .thenReturn(new TopicResultsSnapshot(results, false, 6, "\"a-6\""));
+
+        mockMvc.perform(get("/api/v1/topics/result/{id}", topicId).header("If-None-Match", "\"a-5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"a-6\""))
+                .andExpect(jsonPath("$.votesYesCount").value(2));
     }
 
     @Test
     void shouldReturn404WhenGettingResultsForNonExistentTopic() throws Exception {
         Long topicId = 99L;
-        when(orchestratorService.getTopicResults(topicId))
+        when(orchestratorService.getTopicResultsETag(topicId)).thenReturn("\"a-1\"");
+        when(orchestratorService.getTopicResultsSnapshot(topicId))
                 .thenThrow(new EntityNotFoundException("Topic", "ID " + topicId));
 
         mockMvc.perform(get("/api/v1/topics/result/{id}", topicId))
                 .andExpect(status().isNotFound());
 
-        verify(orchestratorService).getTopicResults(topicId);
+        verify(orchestratorService).getTopicResultsSnapshot(topicId);
+    }
+
+    @Test
+    void shouldReturnBatchResultsInRequestOrder() throws Exception {
+        TopicResultsData first = new TopicResultsData(3L, "Third", "Description", 1, 2, 1, 67);
+        TopicResultsData second = new TopicResultsData(1L, "First", "Description", 0, 0, 0, 0);
+        List<Long> topicIds = List.of(3L, 99L, 1L);
+
+        when(orchestratorService.getTopicResults(topicIds)).thenReturn(Map.of(3L, first, 1L, second));
+
+        mockMvc.perform(post("/api/v1/topics/results:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicResultsBatchData(topicIds))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].topicId").value(3))
+                .andExpect(jsonPath("$[0].status").value("FOUND"))
+                .andExpect(jsonPath("$[0].results.votesYesCount").value(2))
+                .andExpect(jsonPath("$[1].topicId").value(99))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[1].results").doesNotExist())
+                .andExpect(jsonPath("$[2].topicId").value(1))
+                .andExpect(jsonPath("$[2].status").value("FOUND"));
+
+        verify(orchestratorService).getTopicResults(topicIds);
+    }
+
+    @Test
+    void shouldReturn400WhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(post("/api/v1/topics/results:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TopicResultsBatchData(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verify(orchestratorService, never()).getTopicResults(anyList());
+    }
+
+    @Test
+    void shouldReturn503WhenResultsStreamLimitIsReached() throws Exception {
+        Long topicId = 1L;
+        when(topicResultsBroadcaster.subscribe(topicId)).thenThrow(new SubscriberLimitExceededException(10));
+
+        mockMvc.perform(get("/api/v1/topics/result/{id}/stream", topicId).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+
+        verify(topicResultsBroadcaster).subscribe(topicId);
     }
 }
@@ -0,0 +1,77 @@
+package rodrigoschonardt.votingapi.topic.web.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import rodrigoschonardt.votingapi.orchestrator.VotingOrchestratorService;
+import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.shared.exception.SubscriberLimitExceededException;
+import rodrigoschonardt.votingapi.topic.web.dto.TopicResultsData;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TopicResultsBroadcasterTest {
+    private final VotingOrchestratorService orchestratorService = mock(VotingOrchestratorService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TopicResultsBroadcaster broadcaster = new TopicResultsBroadcaster(orchestratorService,
+            new ObjectMapper(), meterRegistry, 10, 2, 60_000, 2, 5_000, 60_000);
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void shouldShareOnePublisherPerTopicAndSkipUnchangedResults() throws Exception {
+        AtomicInteger yesVotes = new AtomicInteger(1);
+        when(orchestratorService.getTopicResults(1L)).thenAnswer(invocation -> results(yesVotes.get()));
+
+        broadcaster.subscribe(1L);
+        broadcaster.subscribe(1L);
+
+        assertEquals(2, meterRegistry.get("votingapi.topics.results-stream.subscribers").gauge().value());
+        assertEquals(1, meterRegistry.get("votingapi.topics.results-stream.topics").gauge().value());
+
+        // Vários ticks com o mesmo resultado: nada é publicado
+        verify(orchestratorService, timeout(2000).atLeast(4)).getTopicResults(1L);
+        assertEquals(0, meterRegistry.get("votingapi.topics.results-stream.sent").counter().count());
+
+        yesVotes.set(2);
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (meterRegistry.get("votingapi.topics.results-stream.sent").counter().count() == 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, meterRegistry.get("votingapi.topics.results-stream.sent").counter().count());
+    }
+
+    @Test
+    void shouldRejectSubscribersOverTheLimit() {
+        when(orchestratorService.getTopicResults(anyLong())).thenReturn(results(1));
+
+        broadcaster.subscribe(1L);
+        broadcaster.subscribe(2L);
+
+        assertThrows(SubscriberLimitExceededException.class, () -> broadcaster.subscribe(3L));
+        assertEquals(1, meterRegistry.get("votingapi.topics.results-stream.rejected").counter().count());
+        assertEquals(2, meterRegistry.get("votingapi.topics.results-stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void shouldNotOpenStreamForUnknownTopic() {
+        when(orchestratorService.getTopicResults(99L)).thenThrow(new EntityNotFoundException("Topic", "ID 99"));
+
+        assertThrows(EntityNotFoundException.class, () -> broadcaster.subscribe(99L));
+        assertEquals(0, meterRegistry.get("votingapi.topics.results-stream.subscribers").gauge().value());
+    }
+
+    private static TopicResultsData results(int yesVotes) {
+        return new TopicResultsData(1L, "Topic", "Description", 1, yesVotes, 0, 100);
+    }
+}
@@ -0,0 +1,52 @@
+package rodrigoschonardt.votingapi.user.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import rodrigoschonardt.votingapi.user.domain.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserIdIndexTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserIdIndex index = new UserIdIndex(userRepository, new SimpleMeterRegistry());
+
+    @Test
+    void shouldLoadExistingIds() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+
+        index.load();
+
+        assertTrue(index.contains(1L));
+        assertTrue(index.contains(2L));
+        assertFalse(index.contains(3L));
+    }
+
+    @Test
+    void shouldNotRestoreUsersRemovedWhileLoading() {
+        index.add(2L);
+        when(userRepository.findAllIds()).thenAnswer(invocation -> {
+            // Snapshot lido antes da remoção
+            index.remove(2L);
+            return List.of(1L, 2L);
+        });
+
+        index.load();
+
+        assertTrue(index.contains(1L));
+        assertFalse(index.contains(2L));
+    }
+
+    @Test
+    void shouldNotRestoreUsersRemovedAfterDatabaseConfirmation() {
+        index.add(1L);
+        index.remove(1L);
+
+        // Confirmação lida no banco antes da remoção chegando depois dela
+        index.add(1L);
+
+        assertFalse(index.contains(1L));
+    }
+}
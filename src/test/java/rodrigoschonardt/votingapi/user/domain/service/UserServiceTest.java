@@ -14,7 +14,9 @@ import rodrigoschonardt.votingapi.user.domain.repository.UserRepository;
 import rodrigoschonardt.votingapi.user.web.dto.AddUserData;
 import rodrigoschonardt.votingapi.user.web.mapper.UserMapper;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +30,8 @@ public class UserServiceTest {
     CpfValidationClient cpfValidationClient;
     @Mock
     UserMapper userMapper;
+    @Mock
+    UserIdIndex userIdIndex;
     @InjectMocks
     UserService userService;
 
@@ -49,6 +53,7 @@ public class UserServiceTest {
         assertEquals("123.456.789-11", result.getCpf());
         verify(userRepository).existsByCpf("123.456.789-11");
         verify(userRepository).save(user);
+        verify(userIdIndex).add(1L);
     }
 
     @Test
@@ -108,6 +113,7 @@ public class UserServiceTest {
 
         verify(userRepository).findById(userId);
         verify(userRepository).deleteById(userId);
+        verify(userIdIndex).remove(userId);
     }
 
     @Test
@@ -144,4 +150,38 @@ public class UserServiceTest {
         assertTrue(exception.getMessage().contains("CPF 123.456.789-11"));
         verify(cpfValidationClient).validate(cpf);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldNotQueryDatabaseWhenUserIdIsKnown() {
+        when(userIdIndex.contains(1L)).thenReturn(true);
+
+        assertTrue(userService.exists(1L));
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    void shouldConfirmUnknownUserIdOnDatabase() {
+        when(userIdIndex.contains(2L)).thenReturn(false);
+        when(userIdIndex.contains(3L)).thenReturn(false);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(userRepository.existsById(3L)).thenReturn(false);
+
+        assertTrue(userService.exists(2L));
+        assertFalse(userService.exists(3L));
+        verify(userIdIndex).add(2L);
+        verify(userIdIndex, never()).add(3L);
+    }
+
+    @Test
+    void shouldConfirmUnknownUserIdsWithSingleQuery() {
+        when(userIdIndex.contains(1L)).thenReturn(true);
+        when(userIdIndex.contains(2L)).thenReturn(false);
+        when(userIdIndex.contains(3L)).thenReturn(false);
+        when(userRepository.findExistingIds(List.of(2L, 3L))).thenReturn(List.of(2L));
+
+        assertEquals(Set.of(1L, 2L), userService.findExisting(List.of(1L, 2L, 3L)));
+        verify(userRepository).findExistingIds(List.of(2L, 3L));
+        verify(userRepository, never()).existsById(any());
+        verify(userIdIndex).add(2L);
+    }
+}
@@ -1,6 +1,7 @@
 package rodrigoschonardt.votingapi.user.web.controller.v1;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -10,6 +11,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import rodrigoschonardt.votingapi.shared.exception.EntityAlreadyExistsException;
+import rodrigoschonardt.votingapi.shared.idempotency.IdempotencyCache;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
 import rodrigoschonardt.votingapi.user.domain.model.User;
 import rodrigoschonardt.votingapi.user.domain.service.UserService;
@@ -51,6 +53,11 @@ class UserControllerTest {
         public UserMapper userMapper() {
             return mock(UserMapper.class);
         }
+
+        @Bean
+        public IdempotencyCache idempotencyCache() {
+            return new IdempotencyCache(new SimpleMeterRegistry(), 100, 60, 1000);
+        }
     }
 
     @Test
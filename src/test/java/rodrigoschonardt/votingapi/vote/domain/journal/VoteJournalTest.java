@@ -0,0 +1,136 @@
+package rodrigoschonardt.votingapi.vote.domain.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.JournaledVote;
+import rodrigoschonardt.votingapi.vote.domain.repository.MaterializeResult;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteCastCommand;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class VoteJournalTest {
+    private final VoteRepository voteRepository = mock(VoteRepository.class);
+    private final List<JournaledVote> materialized = new ArrayList<>();
+    private VoteJournal journal;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.stop();
+    }
+
+    @Test
+    void shouldMaterializeJournaledVotesWithAssignedIds() throws Exception {
+        stubRepository();
+        journal = newJournal(DataSize.ofMegabytes(1));
+        journal.start();
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        Long first = journal.append(new VoteCastCommand(10L, 1L, Vote.VoteOption.YES, createdAt));
+        Long second = journal.append(new VoteCastCommand(11L, 1L, Vote.VoteOption.NO, createdAt));
+
+        journal.drain();
+
+        assertEquals(50L, first);
+        assertEquals(51L, second);
+        assertTrue(materialized.contains(new JournaledVote(50L, 10L, 1L, Vote.VoteOption.YES, createdAt)));
+        assertTrue(materialized.contains(new JournaledVote(51L, 11L, 1L, Vote.VoteOption.NO, createdAt)));
+        assertTrue(journal.claim(1L, 10L));
+    }
+
+    @Test
+    void shouldReplayUnmaterializedSegmentsOnStartup() throws Exception {
+        when(voteRepository.nextIdBlock()).thenReturn(50L);
+        when(voteRepository.materializeAll(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        // Segmentos pequenos para forçar a rotação
+        journal = newJournal(DataSize.ofBytes(JournalSegment.RECORD_SIZE * 2L));
+        journal.start();
+
+        for (long userId = 1; userId <= 5; userId++) {
+            assertNotNull(journal.append(new VoteCastCommand(userId, 1L, Vote.VoteOption.YES, LocalDateTime.now())));
+        }
+
+        assertFalse(journal.claim(1L, 3L));
+        journal.stop();
+
+        reset(voteRepository);
+        stubRepository();
+        journal = newJournal(DataSize.ofBytes(JournalSegment.RECORD_SIZE * 2L));
+        journal.start();
+        journal.drain();
+
+        assertEquals(List.of(50L, 51L, 52L, 53L, 54L), materialized.stream().map(JournaledVote::id).sorted().toList());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.toString().endsWith(".journal")).count());
+        }
+    }
+
+    @Test
+    void shouldResumeFromCheckpointOnStartup() throws Exception {
+        stubRepository();
+        journal = newJournal(DataSize.ofMegabytes(1));
+        journal.start();
+
+        journal.append(new VoteCastCommand(1L, 1L, Vote.VoteOption.YES, LocalDateTime.now()));
+        journal.append(new VoteCastCommand(2L, 1L, Vote.VoteOption.YES, LocalDateTime.now()));
+        journal.drain();
+        journal.stop();
+
+        materialized.clear();
+        reset(voteRepository);
+        stubRepository();
+        journal = newJournal(DataSize.ofMegabytes(1));
+        journal.start();
+        journal.drain();
+
+        assertTrue(materialized.isEmpty());
+        assertFalse(journal.hasPending());
+    }
+
+    @Test
+    void shouldRefuseVotesWhenLagLimitIsReached() throws Exception {
+        when(voteRepository.nextIdBlock()).thenReturn(50L);
+        when(voteRepository.materializeAll(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        journal = new VoteJournal(voteRepository, new SimpleMeterRegistry(), true, directory, DataSize.ofMegabytes(1),
+                FsyncPolicy.NONE, 10, 100, 60_000, 1);
+        journal.start();
+
+        assertNotNull(journal.append(new VoteCastCommand(1L, 1L, Vote.VoteOption.YES, LocalDateTime.now())));
+        assertNull(journal.append(new VoteCastCommand(2L, 1L, Vote.VoteOption.YES, LocalDateTime.now())));
+    }
+
+    private VoteJournal newJournal(DataSize segmentSize) {
+        return new VoteJournal(voteRepository, new SimpleMeterRegistry(), true, directory, segmentSize,
+                FsyncPolicy.ALWAYS, 10, 100, 60_000, 1000);
+    }
+
+    private void stubRepository() {
+        when(voteRepository.nextIdBlock()).thenReturn(50L, 100L);
+        when(voteRepository.materializeAll(anyList())).thenAnswer(invocation -> {
+            List<JournaledVote> votes = invocation.getArgument(0);
+            synchronized (materialized) {
+                materialized.addAll(votes);
+            }
+            return new MaterializeResult(votes.size(), 0);
+        });
+    }
+}
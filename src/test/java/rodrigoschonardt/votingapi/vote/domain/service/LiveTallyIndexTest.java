@@ -0,0 +1,167 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import rodrigoschonardt.votingapi.vote.domain.journal.VoteJournal;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteCastCommand;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteTallyRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastRow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class LiveTallyIndexTest {
+    private final VoteTallyRepository voteTallyRepository = mock(VoteTallyRepository.class);
+    private final VoteJournal voteJournal = mock(VoteJournal.class);
+    private final TopicResultsVersions topicResultsVersions = mock(TopicResultsVersions.class);
+    private final LiveTallyIndex index = new LiveTallyIndex(voteTallyRepository, voteJournal, topicResultsVersions,
+            new SimpleMeterRegistry(), 100, 30, 0);
+
+    @Test
+    void shouldSeedFromStoredTalliesOnlyOnce() {
+        when(voteTallyRepository.sumBySessionIds(anyCollection()))
+                .thenReturn(Map.of(1L, new VoteTally(3, 2)));
+
+        assertEquals(new VoteTally(3, 2), index.sum(List.of(1L, 2L)));
+
+        index.add(1L, Vote.VoteOption.YES, 1);
+        index.add(2L, Vote.VoteOption.NO, 1);
+
+        assertEquals(new VoteTally(4, 3), index.sum(List.of(1L, 2L)));
+        verify(voteTallyRepository, times(1)).sumBySessionIds(anyCollection());
+    }
+
+    @Test
+    void shouldIgnoreChangesForSessionsNotInMemory() {
+        index.add(1L, Vote.VoteOption.YES, 1);
+
+        when(voteTallyRepository.sumBySessionIds(anyCollection()))
+                .thenReturn(Map.of(1L, new VoteTally(1, 0)));
+
+        assertEquals(new VoteTally(1, 0), index.sum(List.of(1L)));
+    }
+
+    @Test
+    void shouldReplaceCountersWithStoredTalliesOnResync() {
+        when(voteTallyRepository.sumBySessionIds(anyCollection()))
+                .thenReturn(Map.of(1L, new VoteTally(5, 5)))
+                .thenReturn(Map.of(1L, new VoteTally(6, 5)));
+
+        index.sum(List.of(1L));
+        index.add(1L, Vote.VoteOption.YES, 2);
+
+        index.resync();
+
+        assertEquals(new VoteTally(6, 5), index.sum(List.of(1L)));
+        verify(voteJournal).drain();
+        verify(topicResultsVersions).bumpBySession(1L);
+        verify(topicResultsVersions, never()).bumpAll();
+    }
+
+    @Test
+    void shouldKeepVotesCountedDuringResync() {
+        when(voteTallyRepository.sumBySessionIds(anyCollection()))
+                .thenReturn(Map.of(1L, new VoteTally(5, 5)))
+                .thenAnswer(invocation -> {
+                    index.add(1L, Vote.VoteOption.YES, 1);
+                    return Map.of(1L, new VoteTally(5, 5));
+                });
+
+        index.sum(List.of(1L));
+        index.resync();
+
+        assertEquals(new VoteTally(6, 5), index.sum(List.of(1L)));
+        verify(topicResultsVersions, never()).bumpBySession(any());
+    }
+
+    @Test
+    void shouldCountOnlyCreatedVotesWhenRecording() {
+        when(voteTallyRepository.sumBySessionIds(anyCollection())).thenReturn(Map.of(1L, new VoteTally(3, 2)));
+
+        index.sum(List.of(1L));
+        index.record(List.of(command(10L, Vote.VoteOption.YES), command(11L, Vote.VoteOption.NO)),
+                commands -> List.of(new VoteCastRow(100L, true, true), VoteCastRow.duplicate()));
+
+        assertEquals(new VoteTally(4, 2), index.sum(List.of(1L)));
+    }
+
+    @Test
+    void shouldHoldRecordedVotesWhileResyncReadsStoredTallies() throws Exception {
+        AtomicBoolean written = new AtomicBoolean();
+        AtomicBoolean writtenDuringRead = new AtomicBoolean();
+        Thread voter = new Thread(() -> index.record(List.of(command(10L, Vote.VoteOption.YES)), commands -> {
+            written.set(true);
+            return List.of(new VoteCastRow(100L, true, true));
+        }));
+
+        when(voteTallyRepository.sumBySessionIds(anyCollection()))
+                .thenReturn(Map.of(1L, new VoteTally(5, 5)))
+                .thenAnswer(invocation -> {
+                    // Um voto gravado aqui estaria no valor lido e também nos contadores
+                    voter.start();
+                    Thread.sleep(100);
+                    writtenDuringRead.set(written.get());
+                    return Map.of(1L, new VoteTally(5, 5));
+                });
+
+        index.sum(List.of(1L));
+        index.resync();
+        voter.join();
+
+        assertFalse(writtenDuringRead.get());
+        assertEquals(new VoteTally(6, 5), index.sum(List.of(1L)));
+    }
+
+    @Test
+    void shouldResyncSessionsSeededFromStoredTallies() {
+        when(voteTallyRepository.sumBySessionIds(List.of(1L))).thenReturn(Map.of(1L, new VoteTally(5, 2)));
+
+        assertEquals(new VoteTally(3, 2), index.sum(Map.of(1L, new VoteTally(3, 2))));
+        index.add(1L, Vote.VoteOption.YES, 1);
+
+        index.resyncSeeded();
+        index.resyncSeeded();
+
+        assertEquals(new VoteTally(5, 2), index.sum(Map.of(1L, new VoteTally(3, 2))));
+        verify(voteTallyRepository, times(1)).sumBySessionIds(List.of(1L));
+        verify(topicResultsVersions).bumpBySession(1L);
+    }
+
+    @Test
+    void shouldKeepResultsVersionsWhenResyncChangesNothing() {
+        when(voteTallyRepository.sumBySessionIds(anyCollection()))
+                .thenReturn(Map.of(1L, new VoteTally(5, 5)));
+
+        index.sum(List.of(1L));
+        index.resync();
+
+        verify(topicResultsVersions, never()).bumpBySession(any());
+        verify(topicResultsVersions, never()).bumpAll();
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        when(voteTallyRepository.sumBySessionIds(anyCollection()))
+                .thenReturn(Map.of(1L, new VoteTally(5, 5)))
+                .thenReturn(Map.of());
+
+        index.sum(List.of(1L));
+        index.invalidate(1L);
+
+        assertEquals(VoteTally.EMPTY, index.sum(List.of(1L)));
+        verify(voteTallyRepository, times(2)).sumBySessionIds(anyCollection());
+    }
+
+    private static VoteCastCommand command(Long userId, Vote.VoteOption option) {
+        return new VoteCastCommand(userId, 1L, option, LocalDateTime.now());
+    }
+}
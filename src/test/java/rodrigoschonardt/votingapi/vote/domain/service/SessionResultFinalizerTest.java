@@ -0,0 +1,67 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import rodrigoschonardt.votingapi.vote.domain.journal.VoteJournal;
+import rodrigoschonardt.votingapi.vote.domain.repository.SessionResultRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class SessionResultFinalizerTest {
+    private final SessionResultRepository sessionResultRepository = mock(SessionResultRepository.class);
+    private final VoteJournal voteJournal = mock(VoteJournal.class);
+    private final SessionResultFinalizer finalizer = new SessionResultFinalizer(sessionResultRepository, voteJournal,
+            new SimpleMeterRegistry(), 0, 0, 2);
+
+    @Test
+    void shouldDoNothingWhenNoSessionIsPending() {
+        when(sessionResultRepository.findPendingSessionIds(any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, finalizer.run());
+
+        verifyNoInteractions(voteJournal);
+        verify(sessionResultRepository, never()).finalizeSession(anyLong());
+    }
+
+    @Test
+    void shouldDrainJournalBeforeFinalizing() {
+        when(sessionResultRepository.findPendingSessionIds(any(), eq(2))).thenReturn(List.of(1L));
+        when(sessionResultRepository.finalizeSession(1L)).thenReturn(true);
+
+        assertEquals(1, finalizer.run());
+
+        InOrder inOrder = inOrder(voteJournal, sessionResultRepository);
+        inOrder.verify(voteJournal).drain();
+        inOrder.verify(sessionResultRepository).finalizeSession(1L);
+    }
+
+    // Sessões encerradas com a aplicação parada são recuperadas em lotes até não haver pendentes
+    @Test
+    void shouldCatchUpInBatchesUntilNothingIsPending() {
+        when(sessionResultRepository.findPendingSessionIds(any(), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L, 4L))
+                .thenReturn(List.of(5L));
+        when(sessionResultRepository.finalizeSession(anyLong())).thenReturn(true);
+
+        assertEquals(5, finalizer.run());
+
+        verify(sessionResultRepository, times(3)).findPendingSessionIds(any(), eq(2));
+        verify(sessionResultRepository, times(5)).finalizeSession(anyLong());
+    }
+
+    @Test
+    void shouldNotCountSessionsFinalizedByAnotherInstance() {
+        when(sessionResultRepository.findPendingSessionIds(any(), eq(2))).thenReturn(List.of(1L));
+        when(sessionResultRepository.finalizeSession(1L)).thenReturn(false);
+
+        assertEquals(0, finalizer.run());
+    }
+}
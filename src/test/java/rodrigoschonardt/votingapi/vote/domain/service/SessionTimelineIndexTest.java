@@ -0,0 +1,142 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import rodrigoschonardt.votingapi.session.domain.event.SessionChangedEvent;
+import rodrigoschonardt.votingapi.vote.domain.journal.VoteJournal;
+import rodrigoschonardt.votingapi.vote.domain.model.SessionTimeline;
+import rodrigoschonardt.votingapi.vote.domain.repository.SessionTimelineRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SessionTimelineIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 10, 0);
+    private static final LocalDateTime END = START.plusMinutes(5);
+
+    private final SessionTimelineRepository sessionTimelineRepository = mock(SessionTimelineRepository.class);
+    private final VoteJournal voteJournal = mock(VoteJournal.class);
+    private final SessionTimelineIndex index = new SessionTimelineIndex(sessionTimelineRepository, voteJournal,
+            new SimpleMeterRegistry(), 60, 1440, 100, 30, 5000, 0);
+
+    @Test
+    void shouldSeedFromVotesAndCountNewVotesInMemory() {
+        when(sessionTimelineRepository.countByBucket(1L, START, 60, 6)).thenReturn(new long[]{1, 0, 2, 0, 0, 0});
+
+        index.get(1L, START, END, false);
+        index.add(1L, START.plusSeconds(70), 1);
+        index.add(1L, START.plusMinutes(10), 1);
+
+        SessionTimeline timeline = index.get(1L, START, END, false);
+
+        assertEquals(60, timeline.bucketSeconds());
+        assertArrayEquals(new long[]{1, 1, 2, 0, 0, 1}, timeline.counts());
+        verify(sessionTimelineRepository, times(1)).countByBucket(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldWidenBucketsForLongSessions() {
+        when(sessionTimelineRepository.countByBucket(eq(1L), eq(START), anyInt(), anyInt()))
+                .thenAnswer(invocation -> new long[invocation.<Integer>getArgument(3)]);
+
+        SessionTimeline timeline = index.get(1L, START, START.plusDays(30), false);
+
+        assertEquals(1800, timeline.bucketSeconds());
+        assertEquals(1441, timeline.counts().length);
+    }
+
+    @Test
+    void shouldFreezeClosedSessionOnFirstRead() {
+        when(sessionTimelineRepository.findBySessionId(1L)).thenReturn(Optional.empty());
+        when(sessionTimelineRepository.countByBucket(1L, START, 60, 6)).thenReturn(new long[]{1, 2, 3, 0, 0, 0});
+
+        SessionTimeline timeline = index.get(1L, START, END, true);
+
+        assertArrayEquals(new long[]{1, 2, 3, 0, 0, 0}, timeline.counts());
+        verify(sessionTimelineRepository).save(1L, timeline);
+    }
+
+    @Test
+    void shouldKeepTimelineInMemoryDuringGracePeriod() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(5);
+        LocalDateTime end = LocalDateTime.now().minusSeconds(1);
+        when(sessionTimelineRepository.countByBucket(eq(1L), eq(start), anyInt(), anyInt()))
+                .thenAnswer(invocation -> new long[invocation.<Integer>getArgument(3)]);
+
+        index.get(1L, start, end, true);
+
+        verify(sessionTimelineRepository, never()).findBySessionId(any());
+        verify(sessionTimelineRepository, never()).save(any(), any());
+    }
+
+    @Test
+    void shouldResyncTimelinesInMemory() {
+        when(sessionTimelineRepository.countByBucket(1L, START, 60, 6))
+                .thenReturn(new long[]{1, 0, 0, 0, 0, 0})
+                .thenReturn(new long[]{3, 1, 0, 0, 0, 0});
+
+        index.get(1L, START, END, false);
+        index.add(1L, START, 1);
+
+        assertEquals(1, index.resync());
+        assertArrayEquals(new long[]{3, 1, 0, 0, 0, 0}, index.get(1L, START, END, false).counts());
+        verify(voteJournal).drain();
+
+        // Só sessões carregadas desde a última execução são recontadas
+        assertEquals(0, index.resync());
+        verify(sessionTimelineRepository, times(2)).countByBucket(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldKeepVotesCountedDuringResync() {
+        when(sessionTimelineRepository.countByBucket(1L, START, 60, 6))
+                .thenReturn(new long[]{1, 0, 0, 0, 0, 0})
+                .thenAnswer(invocation -> {
+                    // Voto contado em memória enquanto a recontagem lê o banco, que ainda não o enxerga
+                    index.add(1L, START.plusSeconds(70), 1);
+                    return new long[]{2, 0, 0, 0, 0, 0};
+                });
+
+        index.get(1L, START, END, false);
+        index.add(1L, START, 1);
+        index.resync();
+
+        assertArrayEquals(new long[]{2, 1, 0, 0, 0, 0}, index.get(1L, START, END, false).counts());
+    }
+
+    @Test
+    void shouldReadFrozenTimelineWithoutCounting() {
+        SessionTimeline stored = new SessionTimeline(START, 60, new long[]{4, 4});
+        when(sessionTimelineRepository.findBySessionId(1L)).thenReturn(Optional.of(stored));
+
+        assertSame(stored, index.get(1L, START, END, true));
+        verify(sessionTimelineRepository, never()).countByBucket(any(), any(), anyInt(), anyInt());
+        verify(sessionTimelineRepository, never()).save(any(), any());
+    }
+
+    @Test
+    void shouldDiscardFrozenTimelineWhenVoteIsRemoved() {
+        index.remove(1L, START);
+
+        verify(sessionTimelineRepository).deleteAllBySessionIds(List.of(1L));
+    }
+
+    @Test
+    void shouldReloadAfterSessionChanged() {
+        when(sessionTimelineRepository.countByBucket(eq(1L), eq(START), anyInt(), anyInt()))
+                .thenReturn(new long[6])
+                .thenReturn(new long[11]);
+
+        index.get(1L, START, END, false);
+        index.onSessionChanged(new SessionChangedEvent(1L, 2L));
+
+        assertEquals(11, index.get(1L, START, START.plusMinutes(10), false).counts().length);
+    }
+}
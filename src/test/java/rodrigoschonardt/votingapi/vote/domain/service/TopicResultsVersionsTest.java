@@ -0,0 +1,88 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import org.junit.jupiter.api.Test;
+import rodrigoschonardt.votingapi.session.domain.event.SessionChangedEvent;
+import rodrigoschonardt.votingapi.session.domain.service.SessionService;
+import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.vote.domain.event.VoteDeletedEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TopicResultsVersionsTest {
+    private final SessionService sessionService = mock(SessionService.class);
+    private final TopicResultsVersions versions = new TopicResultsVersions(sessionService, 100);
+
+    @Test
+    void shouldKeepVersionUntilSomethingChanges() {
+        long version = versions.current(1L);
+
+        assertEquals(version, versions.current(1L));
+
+        versions.bump(1L);
+
+        assertTrue(versions.current(1L) > version);
+    }
+
+    @Test
+    void shouldBumpTopicOfVotedSession() {
+        when(sessionService.getTopicId(10L)).thenReturn(1L);
+        long version = versions.current(1L);
+
+        versions.bumpBySession(10L);
+
+        assertTrue(versions.current(1L) > version);
+    }
+
+    @Test
+    void shouldIgnoreVotesOfRemovedSessions() {
+        when(sessionService.getTopicId(10L)).thenThrow(new EntityNotFoundException("Session", "ID 10"));
+
+        assertDoesNotThrow(() -> versions.bumpBySession(10L));
+    }
+
+    @Test
+    void shouldBumpOnSessionAndVoteEvents() {
+        long version = versions.current(1L);
+
+        versions.onSessionChanged(new SessionChangedEvent(10L, 1L));
+        long afterSession = versions.current(1L);
+        versions.onVoteDeleted(new VoteDeletedEvent(10L, 1L));
+
+        assertTrue(afterSession > version);
+        assertTrue(versions.current(1L) > afterSession);
+    }
+
+    @Test
+    void shouldBumpEveryTopicOnBumpAll() {
+        long first = versions.current(1L);
+        long second = versions.current(2L);
+
+        versions.bumpAll();
+
+        assertTrue(versions.current(1L) > first);
+        assertTrue(versions.current(2L) > second);
+    }
+
+    @Test
+    void shouldNotAdvanceVersionsForUnknownTopics() {
+        versions.bump(1L);
+        long version = versions.current(1L);
+
+        for (long topicId = 100; topicId < 300; topicId++) {
+            versions.current(topicId);
+        }
+
+        assertEquals(version, versions.current(1L));
+        assertEquals(versions.current(100L), versions.current(299L));
+        assertTrue(versions.current(100L) < version);
+    }
+
+    @Test
+    void shouldBuildStrongETagFromVersion() {
+        String etag = versions.etag(7);
+
+        assertTrue(etag.startsWith("\"") && etag.endsWith("-7\""));
+        assertNotEquals(etag, versions.etag(8));
+    }
+}
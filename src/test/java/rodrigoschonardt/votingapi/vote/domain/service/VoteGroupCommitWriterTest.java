@@ -0,0 +1,190 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import rodrigoschonardt.votingapi.shared.exception.VoteWriteUnavailableException;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteCastCommand;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class VoteGroupCommitWriterTest {
+    private final VoteRepository voteRepository = mock(VoteRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private VoteGroupCommitWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    void shouldCoalesceConcurrentVotesIntoOneBatch() throws Exception {
+        writer = new VoteGroupCommitWriter(voteRepository, meterRegistry, 10, 200, 1, 100, 5000);
+
+        when(voteRepository.castAll(anyList())).thenAnswer(invocation -> {
+            List<VoteCastCommand> commands = invocation.getArgument(0);
+            return commands.stream().map(command -> castResult(command.userId())).toList();
+        });
+
+        writer.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<VoteCastResult>> futures = new ArrayList<>();
+
+        for (long userId = 1; userId <= 5; userId++) {
+            VoteCastCommand command = new VoteCastCommand(userId, 1L, Vote.VoteOption.YES, LocalDateTime.now());
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return writer.cast(command);
+            }));
+        }
+
+        ready.countDown();
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i + 1L, futures.get(i).get().getVoteId());
+        }
+
+        executor.shutdown();
+
+        assertEquals(5, meterRegistry.summary("votingapi.votes.group-commit.batch.size").totalAmount());
+        verify(voteRepository, atMost(5)).castAll(anyList());
+    }
+
+    @Test
+    void shouldRetryIndividuallyWhenBatchFails() {
+        writer = new VoteGroupCommitWriter(voteRepository, meterRegistry, 10, 0, 1, 100, 5000);
+
+        VoteCastCommand command = new VoteCastCommand(1L, 1L, Vote.VoteOption.NO, LocalDateTime.now());
+
+        when(voteRepository.castAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenReturn(List.of(castResult(1L)));
+
+        writer.start();
+
+        assertEquals(1L, writer.cast(command).getVoteId());
+        verify(voteRepository, times(2)).castAll(List.of(command));
+    }
+
+    @Test
+    void shouldPropagateFailureToCaller() {
+        writer = new VoteGroupCommitWriter(voteRepository, meterRegistry, 10, 0, 1, 100, 5000);
+
+        VoteCastCommand command = new VoteCastCommand(1L, 1L, Vote.VoteOption.NO, LocalDateTime.now());
+
+        when(voteRepository.castAll(anyList())).thenThrow(new DataIntegrityViolationException("fk"));
+
+        writer.start();
+
+        assertThrows(DataIntegrityViolationException.class, () -> writer.cast(command));
+    }
+
+    @Test
+    void shouldCancelQueuedVoteThatIsNotConfirmedInTime() throws Exception {
+        writer = new VoteGroupCommitWriter(voteRepository, meterRegistry, 1, 0, 1, 100, 50);
+
+        VoteCastCommand first = new VoteCastCommand(1L, 1L, Vote.VoteOption.YES, LocalDateTime.now());
+        VoteCastCommand second = new VoteCastCommand(2L, 1L, Vote.VoteOption.YES, LocalDateTime.now());
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(voteRepository.castAll(List.of(first))).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return List.of(castResult(1L));
+        });
+
+        writer.start();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<VoteCastResult> inFlight = executor.submit(() -> writer.cast(first));
+        flushing.await();
+
+        // O único writer está ocupado: o segundo voto vence o timeout ainda na fila e é cancelado
+        assertThrows(VoteWriteUnavailableException.class, () -> writer.cast(second));
+
+        release.countDown();
+        assertEquals(1L, inFlight.get().getVoteId());
+        executor.shutdown();
+
+        writer.stop();
+        verify(voteRepository, never()).castAll(List.of(second));
+    }
+
+    @Test
+    void shouldWaitForInFlightVoteAfterTimeout() throws Exception {
+        writer = new VoteGroupCommitWriter(voteRepository, meterRegistry, 10, 0, 1, 100, 50);
+
+        VoteCastCommand command = new VoteCastCommand(1L, 1L, Vote.VoteOption.YES, LocalDateTime.now());
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(voteRepository.castAll(anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return List.of(castResult(1L));
+        });
+
+        writer.start();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<VoteCastResult> result = executor.submit(() -> writer.cast(command));
+
+        // Já gravando: passar do timeout não vira erro, o chamador recebe o resultado real do flush
+        flushing.await();
+        Thread.sleep(100);
+        assertFalse(result.isDone());
+
+        release.countDown();
+        assertEquals(1L, result.get().getVoteId());
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldRejectVotesAfterStop() {
+        writer = new VoteGroupCommitWriter(voteRepository, meterRegistry, 10, 0, 1, 100, 5000);
+
+        writer.start();
+        writer.stop();
+
+        assertThrows(VoteWriteUnavailableException.class,
+                () -> writer.cast(new VoteCastCommand(1L, 1L, Vote.VoteOption.YES, LocalDateTime.now())));
+        verify(voteRepository, never()).castAll(anyList());
+    }
+
+    private static VoteCastResult castResult(Long voteId) {
+        return new VoteCastResult() {
+            @Override
+            public Long getVoteId() {
+                return voteId;
+            }
+
+            @Override
+            public Boolean getSessionOpen() {
+                return true;
+            }
+
+            @Override
+            public Boolean getUserExists() {
+                return true;
+            }
+        };
+    }
+}
@@ -1,10 +1,13 @@
 package rodrigoschonardt.votingapi.vote.domain.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -13,13 +16,23 @@ import rodrigoschonardt.votingapi.session.domain.model.Session;
 import rodrigoschonardt.votingapi.session.domain.service.SessionService;
 import rodrigoschonardt.votingapi.shared.exception.EntityAlreadyExistsException;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.shared.exception.VoteRejectedException;
 import rodrigoschonardt.votingapi.shared.exception.VotingNotAllowedException;
 import rodrigoschonardt.votingapi.topic.domain.model.Topic;
 import rodrigoschonardt.votingapi.topic.domain.service.TopicService;
 import rodrigoschonardt.votingapi.user.domain.model.User;
 import rodrigoschonardt.votingapi.user.domain.service.UserService;
+import rodrigoschonardt.votingapi.vote.domain.event.VoteDeletedEvent;
+import rodrigoschonardt.votingapi.vote.domain.journal.VoteJournal;
+import rodrigoschonardt.votingapi.vote.domain.model.SessionTimeline;
 import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.model.VoteTally;
+import rodrigoschonardt.votingapi.vote.domain.repository.SessionResultRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteCastCommand;
 import rodrigoschonardt.votingapi.vote.domain.repository.VoteRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoteTallyRepository;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastRow;
 import rodrigoschonardt.votingapi.vote.web.dto.AddVoteData;
 import rodrigoschonardt.votingapi.vote.web.dto.UpdateVoteData;
 import rodrigoschonardt.votingapi.vote.web.mapper.VoteMapper;
@@ -27,11 +40,16 @@ import rodrigoschonardt.votingapi.vote.web.mapper.VoteMapper;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -48,20 +66,49 @@ public class VoteServiceTest {
     private SessionService sessionService;
     @Mock
     private UserService userService;
+    @Mock
+    private VoteGroupCommitWriter voteGroupCommitWriter;
+    @Mock
+    private SessionVoterIndex sessionVoterIndex;
+    @Mock
+    private VoteJournal voteJournal;
+    @Mock
+    private VotePartitionManager votePartitionManager;
+    @Mock
+    private VoteTallyRepository voteTallyRepository;
+    @Mock
+    private LiveTallyIndex liveTallyIndex;
+    @Mock
+    private SessionTimelineIndex sessionTimelineIndex;
+    @Mock
+    private TopicResultsVersions topicResultsVersions;
+    @Mock
+    private SessionResultRepository sessionResultRepository;
+    @Mock
+    private VoterSketchIndex voterSketchIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private VoteService voteService;
 
+    @BeforeEach
+    void setUp() {
+        // O índice só envolve a gravação; a contagem em si é coberta pelo LiveTallyIndexTest
+        lenient().when(liveTallyIndex.record(anyList(), any())).thenAnswer(invocation -> invocation
+                .<Function<List<VoteCastCommand>, List<VoteCastResult>>>getArgument(1)
+                .apply(invocation.getArgument(0)));
+    }
+
     @Test
     void shouldAddVoteSuccessfully() {
         Long sessionId = 1L;
         Long userId = 10L;
-        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, sessionId, userId);
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+        LocalDateTime createdAt = LocalDateTime.now();
 
         Session session = new Session();
         session.setId(sessionId);
-        session.setStartTime(LocalDateTime.now().minusMinutes(5));
-        session.setEndTime(LocalDateTime.now().plusMinutes(5));
 
         User user = new User();
         user.setId(userId);
@@ -70,46 +117,200 @@ public class VoteServiceTest {
         voteToSave.setSession(session);
         voteToSave.setUser(user);
         voteToSave.setVoteOption(Vote.VoteOption.YES);
+        voteToSave.setCreatedAt(createdAt);
 
-        Vote savedVote = new Vote();
-        savedVote.setId(100L);
-        savedVote.setSession(session);
-        savedVote.setUser(user);
-        savedVote.setVoteOption(Vote.VoteOption.YES);
-
-        when(sessionService.get(anyLong())).thenReturn(session);
-        when(sessionService.isVotingOpen(any(Session.class))).thenReturn(true);
-        when(userService.get(anyLong())).thenReturn(user);
-        when(voteRepository.existsByUserIdAndSessionId(userId, sessionId)).thenReturn(false);
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(userService.getReference(userId)).thenReturn(user);
+        when(sessionService.getReference(sessionId)).thenReturn(session);
         when(voteMapper.toEntity(voteData, user, session)).thenReturn(voteToSave);
-        when(voteRepository.save(any(Vote.class))).thenReturn(savedVote);
+        when(voteJournal.claim(sessionId, userId)).thenReturn(true);
+        when(voteGroupCommitWriter.cast(new VoteCastCommand(userId, sessionId, Vote.VoteOption.YES, createdAt)))
+                .thenReturn(castResult(100L, true, true));
 
         Vote result = voteService.add(voteData);
 
         assertNotNull(result);
         assertEquals(100L, result.getId());
         assertEquals(Vote.VoteOption.YES, result.getVoteOption());
-        verify(sessionService).get(anyLong());
-        verify(sessionService).isVotingOpen(any(Session.class));
-        verify(userService).get(anyLong());
-        verify(voteRepository).existsByUserIdAndSessionId(userId, sessionId);
-        verify(voteMapper).toEntity(voteData, user, session);
-        verify(voteRepository).save(voteToSave);
+        verify(voteGroupCommitWriter).cast(new VoteCastCommand(userId, sessionId, Vote.VoteOption.YES, createdAt));
+        verify(sessionService, never()).get(anyLong());
+        verify(userService, never()).get(anyLong());
+        verify(voteRepository, never()).existsByUserIdAndSessionId(anyLong(), anyLong());
+        verify(voteRepository, never()).save(any());
+        verify(sessionVoterIndex).add(sessionId, userId);
+        verify(voteJournal).release(sessionId, userId);
+        verify(liveTallyIndex).record(eq(List.of(new VoteCastCommand(userId, sessionId, Vote.VoteOption.YES,
+                createdAt))), any());
+        verify(sessionTimelineIndex).add(sessionId, createdAt, 1);
+        verify(topicResultsVersions).bumpBySession(sessionId);
+        verify(voterSketchIndex).add(sessionId, userId);
     }
 
     @Test
-    void shouldThrowVotingNotAllowedExceptionWhenSessionIsNotOpenOnAdd() {
+    void shouldAcknowledgeVoteOnceJournaled() {
         Long sessionId = 1L;
         Long userId = 10L;
-        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, sessionId, userId);
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
 
-        Session session = new Session();
-        session.setId(sessionId);
-        session.setStartTime(LocalDateTime.now().plusHours(1));
-        session.setEndTime(LocalDateTime.now().plusHours(2));
+        Vote voteToSave = new Vote();
+        voteToSave.setCreatedAt(LocalDateTime.now());
 
-        when(sessionService.get(anyLong())).thenReturn(session);
-        when(sessionService.isVotingOpen(any(Session.class))).thenReturn(false);
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(voteMapper.toEntity(eq(voteData), any(), any())).thenReturn(voteToSave);
+        when(voteJournal.claim(sessionId, userId)).thenReturn(true);
+        when(voteJournal.isEnabled()).thenReturn(true);
+        when(voteJournal.append(any(VoteCastCommand.class))).thenReturn(500L);
+
+        Vote result = voteService.add(voteData);
+
+        assertEquals(500L, result.getId());
+        verify(voteRepository).check(any(VoteCastCommand.class));
+        verify(voteGroupCommitWriter, never()).cast(any());
+        verify(voteJournal, never()).release(anyLong(), anyLong());
+        verify(sessionVoterIndex).add(sessionId, userId);
+    }
+
+    @Test
+    void shouldNotJournalVoteRejectedByDatabaseCheck() {
+        Long sessionId = 1L;
+        Long userId = 10L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+
+        Vote voteToSave = new Vote();
+        voteToSave.setCreatedAt(LocalDateTime.now());
+
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(voteMapper.toEntity(eq(voteData), any(), any())).thenReturn(voteToSave);
+        when(voteJournal.claim(sessionId, userId)).thenReturn(true);
+        when(voteJournal.isEnabled()).thenReturn(true);
+        when(voteRepository.check(any(VoteCastCommand.class))).thenReturn(VoteCastRow.unknownUser());
+
+        assertThrows(EntityNotFoundException.class, () -> voteService.add(voteData));
+
+        verify(voteJournal, never()).append(any());
+        verify(voteJournal).release(sessionId, userId);
+    }
+
+    @Test
+    void shouldReportVoteDiscardedOnMaterialization() {
+        when(voteRepository.findById(500L)).thenReturn(Optional.empty());
+        when(voteRepository.findRejectionReason(500L)).thenReturn(Optional.of("USER_NOT_FOUND"));
+
+        VoteRejectedException exception = assertThrows(VoteRejectedException.class, () -> voteService.get(500L));
+
+        assertTrue(exception.getMessage().contains("USER_NOT_FOUND"));
+    }
+
+    @Test
+    void shouldRejectVotePendingInJournal() {
+        Long sessionId = 1L;
+        Long userId = 10L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(voteMapper.toEntity(eq(voteData), any(), any())).thenReturn(new Vote());
+        when(voteJournal.claim(sessionId, userId)).thenReturn(false);
+
+        assertThrows(EntityAlreadyExistsException.class, () -> voteService.add(voteData));
+
+        verify(voteJournal, never()).append(any());
+        verify(voteGroupCommitWriter, never()).cast(any());
+    }
+
+    @Test
+    void shouldRejectUnknownUserBeforeCastingVote() {
+        Long sessionId = 1L;
+        Long userId = 99L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(false);
+
+        EntityNotFoundException exception = assertThrows(
+                EntityNotFoundException.class,
+                () -> voteService.add(voteData)
+        );
+
+        assertTrue(exception.getMessage().contains("User"));
+        assertTrue(exception.getMessage().contains("ID " + userId));
+        verify(voteGroupCommitWriter, never()).cast(any());
+    }
+
+    @Test
+    void shouldRejectKnownDuplicateConfirmedByDatabase() {
+        Long sessionId = 1L;
+        Long userId = 10L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(sessionVoterIndex.hasVoted(sessionId, userId)).thenReturn(true);
+        when(voteRepository.existsByUserIdAndSessionId(userId, sessionId)).thenReturn(true);
+
+        EntityAlreadyExistsException exception = assertThrows(
+                EntityAlreadyExistsException.class,
+                () -> voteService.add(voteData)
+        );
+
+        assertTrue(exception.getMessage().contains("User " + userId + " in session " + sessionId));
+        verify(voteGroupCommitWriter, never()).cast(any());
+        verify(voteMapper, never()).toEntity(any(), any(), any());
+    }
+
+    @Test
+    void shouldCastVoteWhenVoterBitmapHitIsNotConfirmed() {
+        Long sessionId = 1L;
+        Long userId = 10L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(sessionVoterIndex.hasVoted(sessionId, userId)).thenReturn(true);
+        when(voteRepository.existsByUserIdAndSessionId(userId, sessionId)).thenReturn(false);
+        when(voteMapper.toEntity(eq(voteData), any(), any())).thenReturn(new Vote());
+        when(voteJournal.claim(sessionId, userId)).thenReturn(true);
+        when(voteGroupCommitWriter.cast(any(VoteCastCommand.class))).thenReturn(castResult(100L, true, true));
+
+        Vote result = voteService.add(voteData);
+
+        assertEquals(100L, result.getId());
+        verify(sessionVoterIndex).remove(sessionId, userId);
+        verify(sessionVoterIndex).add(sessionId, userId);
+    }
+
+    @Test
+    void shouldThrowEntityNotFoundExceptionWhenSessionDoesNotExistOnAdd() {
+        Long sessionId = 99L;
+        Long userId = 10L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(voteMapper.toEntity(eq(voteData), any(), any())).thenReturn(new Vote());
+        when(voteJournal.claim(sessionId, userId)).thenReturn(true);
+        when(voteGroupCommitWriter.cast(any(VoteCastCommand.class)))
+                .thenReturn(castResult(null, null, true));
+
+        EntityNotFoundException exception = assertThrows(
+                EntityNotFoundException.class,
+                () -> voteService.add(voteData)
+        );
+
+        assertTrue(exception.getMessage().contains("Session"));
+        assertTrue(exception.getMessage().contains("ID " + sessionId));
+    }
+
+    @Test
+    void shouldThrowVotingNotAllowedExceptionWhenSessionIsNotOpenOnAdd() {
+        Long sessionId = 1L;
+        Long userId = 10L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(false);
 
         VotingNotAllowedException exception = assertThrows(
                 VotingNotAllowedException.class,
@@ -117,32 +318,44 @@ public class VoteServiceTest {
         );
 
         assertEquals("Session is not open!", exception.getMessage());
-        verify(sessionService).get(anyLong());
-        verify(sessionService).isVotingOpen(any(Session.class));
-        verify(userService, never()).get(anyLong());
-        verify(voteRepository, never()).existsByUserIdAndSessionId(anyLong(), anyLong());
-        verify(voteMapper, never()).toEntity(any(), any(), any());
-        verify(voteRepository, never()).save(any());
+        verify(sessionService, never()).get(anyLong());
+        verify(voteGroupCommitWriter, never()).cast(any());
     }
 
     @Test
-    void shouldThrowEntityAlreadyExistsExceptionWhenVoteAlreadyExists() {
+    void shouldThrowEntityNotFoundExceptionWhenUserDoesNotExistOnAdd() {
         Long sessionId = 1L;
-        Long userId = 10L;
-        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, sessionId, userId);
+        Long userId = 99L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
 
-        Session session = new Session();
-        session.setId(sessionId);
-        session.setStartTime(LocalDateTime.now().minusMinutes(5));
-        session.setEndTime(LocalDateTime.now().plusMinutes(5));
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(voteMapper.toEntity(eq(voteData), any(), any())).thenReturn(new Vote());
+        when(voteJournal.claim(sessionId, userId)).thenReturn(true);
+        when(voteGroupCommitWriter.cast(any(VoteCastCommand.class)))
+                .thenReturn(castResult(null, true, false));
 
-        User user = new User();
-        user.setId(userId);
+        EntityNotFoundException exception = assertThrows(
+                EntityNotFoundException.class,
+                () -> voteService.add(voteData)
+        );
 
-        when(sessionService.get(anyLong())).thenReturn(session);
-        when(sessionService.isVotingOpen(any(Session.class))).thenReturn(true);
-        when(userService.get(anyLong())).thenReturn(user);
-        when(voteRepository.existsByUserIdAndSessionId(userId, sessionId)).thenReturn(true);
+        assertTrue(exception.getMessage().contains("User"));
+        assertTrue(exception.getMessage().contains("ID " + userId));
+    }
+
+    @Test
+    void shouldThrowEntityAlreadyExistsExceptionWhenVoteAlreadyExists() {
+        Long sessionId = 1L;
+        Long userId = 10L;
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, userId, sessionId);
+
+        when(sessionService.isVotingOpen(sessionId)).thenReturn(true);
+        when(userService.exists(userId)).thenReturn(true);
+        when(voteMapper.toEntity(eq(voteData), any(), any())).thenReturn(new Vote());
+        when(voteJournal.claim(sessionId, userId)).thenReturn(true);
+        when(voteGroupCommitWriter.cast(any(VoteCastCommand.class)))
+                .thenReturn(castResult(null, true, true));
 
         EntityAlreadyExistsException exception = assertThrows(
                 EntityAlreadyExistsException.class,
@@ -151,12 +364,57 @@ public class VoteServiceTest {
 
         assertTrue(exception.getMessage().contains("Vote"));
         assertTrue(exception.getMessage().contains("User " + userId + " in session " + sessionId));
-        verify(sessionService).get(anyLong());
-        verify(sessionService).isVotingOpen(any(Session.class));
-        verify(userService).get(anyLong());
-        verify(voteRepository).existsByUserIdAndSessionId(userId, sessionId);
-        verify(voteMapper, never()).toEntity(any(), any(), any());
         verify(voteRepository, never()).save(any());
+        verify(sessionVoterIndex, never()).add(anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldAddAllVotesInASingleCast() {
+        AddVoteData first = new AddVoteData(Vote.VoteOption.YES, 10L, 1L);
+        AddVoteData second = new AddVoteData(Vote.VoteOption.NO, 11L, 1L);
+
+        when(sessionService.isVotingOpen(1L)).thenReturn(true);
+        when(userService.findExisting(Set.of(10L, 11L))).thenReturn(Set.of(10L, 11L));
+        when(voteJournal.claim(anyLong(), anyLong())).thenReturn(true);
+        when(voteRepository.castAll(anyList()))
+                .thenReturn(List.of(castResult(100L, true, true), castResult(null, true, true)));
+
+        List<VoteCastResult> results = voteService.addAll(List.of(first, second));
+
+        assertEquals(2, results.size());
+        assertEquals(100L, results.get(0).getVoteId());
+        assertNull(results.get(1).getVoteId());
+        verify(voteRepository).castAll(argThat(commands -> commands.size() == 2
+                && commands.get(0).userId().equals(10L)
+                && commands.get(1).voteOption() == Vote.VoteOption.NO));
+        verify(voteGroupCommitWriter, never()).cast(any());
+        verify(liveTallyIndex).record(argThat(commands -> commands.size() == 2), any());
+    }
+
+    @Test
+    void shouldSendOnlyPrecheckedVotesToDatabaseOnAddAll() {
+        AddVoteData closed = new AddVoteData(Vote.VoteOption.YES, 10L, 2L);
+        AddVoteData duplicate = new AddVoteData(Vote.VoteOption.YES, 11L, 1L);
+        AddVoteData valid = new AddVoteData(Vote.VoteOption.NO, 12L, 1L);
+
+        when(sessionService.isVotingOpen(2L)).thenReturn(false);
+        when(sessionService.isVotingOpen(1L)).thenReturn(true);
+        when(userService.findExisting(Set.of(10L, 11L, 12L))).thenReturn(Set.of(10L, 11L, 12L));
+        when(voteJournal.claim(anyLong(), anyLong())).thenReturn(true);
+        when(sessionVoterIndex.hasVoted(1L, 11L)).thenReturn(true);
+        when(voteRepository.existsByUserIdAndSessionId(11L, 1L)).thenReturn(true);
+        when(voteRepository.castAll(anyList())).thenReturn(List.of(castResult(100L, true, true)));
+
+        List<VoteCastResult> results = voteService.addAll(List.of(closed, duplicate, valid));
+
+        assertFalse(results.get(0).getSessionOpen());
+        assertTrue(results.get(1).getUserExists());
+        assertNull(results.get(1).getVoteId());
+        assertEquals(100L, results.get(2).getVoteId());
+        verify(voteRepository).castAll(argThat(commands -> commands.size() == 1
+                && commands.getFirst().userId().equals(12L)));
+        verify(sessionVoterIndex).add(1L, 12L);
+        verify(userService, never()).exists(anyLong());
     }
 
     @Test
@@ -179,8 +437,8 @@ public class VoteServiceTest {
         updatedVote.setVoteOption(Vote.VoteOption.NO);
         updatedVote.setSession(session);
 
-        when(voteRepository.findById(voteId)).thenReturn(Optional.of(existingVote));
-        when(sessionService.isVotingOpen(any(Session.class))).thenReturn(true);
+        when(voteRepository.findForUpdateById(voteId)).thenReturn(Optional.of(existingVote));
+        when(sessionService.isVotingOpen(10L)).thenReturn(true);
         when(voteMapper.updateEntity(voteData, existingVote)).thenReturn(updatedVote);
         when(voteRepository.save(any(Vote.class))).thenReturn(updatedVote);
 
@@ -189,10 +447,15 @@ public class VoteServiceTest {
         assertNotNull(result);
         assertEquals(voteId, result.getId());
         assertEquals(Vote.VoteOption.NO, result.getVoteOption());
-        verify(voteRepository).findById(voteId);
-        verify(sessionService).isVotingOpen(any(Session.class));
+        verify(voteRepository).findForUpdateById(voteId);
+        verify(sessionService).isVotingOpen(10L);
         verify(voteMapper).updateEntity(voteData, existingVote);
         verify(voteRepository).save(updatedVote);
+        verify(voteTallyRepository).add(10L, Vote.VoteOption.YES, -1);
+        verify(voteTallyRepository).add(10L, Vote.VoteOption.NO, 1);
+        verify(liveTallyIndex).add(10L, Vote.VoteOption.YES, -1);
+        verify(liveTallyIndex).add(10L, Vote.VoteOption.NO, 1);
+        verify(topicResultsVersions).bumpBySession(10L);
     }
 
     @Test
@@ -200,7 +463,7 @@ public class VoteServiceTest {
         Long voteId = 99L;
         UpdateVoteData voteData = new UpdateVoteData(voteId, Vote.VoteOption.NO);
 
-        when(voteRepository.findById(voteId)).thenReturn(Optional.empty());
+        when(voteRepository.findForUpdateById(voteId)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(
                 EntityNotFoundException.class,
@@ -209,8 +472,8 @@ public class VoteServiceTest {
 
         assertTrue(exception.getMessage().contains("Vote"));
         assertTrue(exception.getMessage().contains("ID " + voteId));
-        verify(voteRepository).findById(voteId);
-        verify(sessionService, never()).isVotingOpen(any(Session.class));
+        verify(voteRepository).findForUpdateById(voteId);
+        verify(sessionService, never()).isVotingOpen(anyLong());
         verify(voteMapper, never()).updateEntity(any(), any());
         verify(voteRepository, never()).save(any());
     }
@@ -230,8 +493,8 @@ public class VoteServiceTest {
         existingVote.setVoteOption(Vote.VoteOption.YES);
         existingVote.setSession(session);
 
-        when(voteRepository.findById(voteId)).thenReturn(Optional.of(existingVote));
-        when(sessionService.isVotingOpen(any(Session.class))).thenReturn(false);
+        when(voteRepository.findForUpdateById(voteId)).thenReturn(Optional.of(existingVote));
+        when(sessionService.isVotingOpen(10L)).thenReturn(false);
 
         VotingNotAllowedException exception = assertThrows(
                 VotingNotAllowedException.class,
@@ -239,8 +502,8 @@ public class VoteServiceTest {
         );
 
         assertEquals("Session is not open!", exception.getMessage());
-        verify(voteRepository).findById(voteId);
-        verify(sessionService).isVotingOpen(any(Session.class));
+        verify(voteRepository).findForUpdateById(voteId);
+        verify(sessionService).isVotingOpen(10L);
         verify(voteMapper, never()).updateEntity(any(), any());
         verify(voteRepository, never()).save(any());
     }
@@ -248,22 +511,64 @@ public class VoteServiceTest {
     @Test
     void shouldDeleteVoteSuccessfully() {
         Long voteId = 1L;
+        Topic topic = new Topic();
+        topic.setId(30L);
+        Session session = new Session();
+        session.setId(10L);
+        session.setTopic(topic);
+        User user = new User();
+        user.setId(20L);
         Vote existingVote = new Vote();
         existingVote.setId(voteId);
+        existingVote.setSession(session);
+        existingVote.setUser(user);
+        existingVote.setVoteOption(Vote.VoteOption.NO);
 
-        when(voteRepository.findById(voteId)).thenReturn(Optional.of(existingVote));
+        when(voteRepository.findForUpdateById(voteId)).thenReturn(Optional.of(existingVote));
+        when(sessionService.isVotingOpen(10L)).thenReturn(false);
         doNothing().when(voteRepository).deleteById(voteId);
 
         voteService.delete(voteId);
 
-        verify(voteRepository).findById(voteId);
+        verify(voteRepository).findForUpdateById(voteId);
+        verify(sessionResultRepository).lockSession(10L);
         verify(voteRepository).deleteById(voteId);
+        verify(voteTallyRepository).add(10L, Vote.VoteOption.NO, -1);
+        verify(liveTallyIndex).add(10L, Vote.VoteOption.NO, -1);
+        verify(sessionTimelineIndex).remove(eq(10L), any());
+        verify(sessionResultRepository).deleteAllBySessionIds(List.of(10L));
+        verify(sessionVoterIndex).remove(10L, 20L);
+        verify(eventPublisher).publishEvent(new VoteDeletedEvent(10L, 30L));
+    }
+
+    @Test
+    void shouldNotLockOpenSessionWhenDeletingVote() {
+        Topic topic = new Topic();
+        topic.setId(30L);
+        Session session = new Session();
+        session.setId(10L);
+        session.setTopic(topic);
+        User user = new User();
+        user.setId(20L);
+        Vote existingVote = new Vote();
+        existingVote.setId(2L);
+        existingVote.setSession(session);
+        existingVote.setUser(user);
+        existingVote.setVoteOption(Vote.VoteOption.YES);
+
+        when(voteRepository.findForUpdateById(2L)).thenReturn(Optional.of(existingVote));
+        when(sessionService.isVotingOpen(10L)).thenReturn(true);
+
+        voteService.delete(2L);
+
+        verify(sessionResultRepository, never()).lockSession(any());
+        verify(voteRepository).deleteById(2L);
     }
 
     @Test
     void shouldThrowEntityNotFoundExceptionWhenDeletingNonExistentVote() {
         Long voteId = 99L;
-        when(voteRepository.findById(voteId)).thenReturn(Optional.empty());
+        when(voteRepository.findForUpdateById(voteId)).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(
                 EntityNotFoundException.class,
@@ -272,7 +577,7 @@ public class VoteServiceTest {
 
         assertTrue(exception.getMessage().contains("Vote"));
         assertTrue(exception.getMessage().contains("ID " + voteId));
-        verify(voteRepository).findById(voteId);
+        verify(voteRepository).findForUpdateById(voteId);
         verify(voteRepository, never()).deleteById(anyLong());
     }
 
@@ -320,6 +625,24 @@ public class VoteServiceTest {
 
         verify(sessionService).get(anyLong());
         verify(voteRepository).deleteAllBySessionId(sessionId);
+        verify(sessionVoterIndex).invalidate(sessionId);
+        verify(liveTallyIndex).invalidate(sessionId);
+        verify(sessionTimelineIndex).invalidateAll(List.of(sessionId));
+    }
+
+    @Test
+    void shouldLeavePartitionedVotesToPartitionReclaim() {
+        Long sessionId = 1L;
+        Session session = new Session();
+        session.setId(sessionId);
+
+        when(sessionService.get(sessionId)).thenReturn(session);
+        when(votePartitionManager.isPartitioned()).thenReturn(true);
+
+        voteService.deleteAllBySession(sessionId);
+
+        verify(voteRepository, never()).deleteAllBySessionId(anyLong());
+        verify(sessionVoterIndex).invalidate(sessionId);
     }
 
     @Test
@@ -418,14 +741,88 @@ public class VoteServiceTest {
     }
 
     @Test
-    void shouldCountByTopicAndOptionSuccessfully() {
-        Long topicId = 1L;
-        Vote.VoteOption option = Vote.VoteOption.YES;
-        when(voteRepository.countAllByVoteOptionAndSession_Topic_Id(option, topicId)).thenReturn(5);
+    void shouldCountBySessionsFromLiveTallies() {
+        Map<Long, VoteTally> storedTallies = Map.of(1L, new VoteTally(4, 3), 2L, new VoteTally(0, 0));
+        when(liveTallyIndex.sum(storedTallies)).thenReturn(new VoteTally(5, 3));
+
+        VoteTally tally = voteService.countBySessions(storedTallies);
+
+        assertEquals(5, tally.yes());
+        assertEquals(3, tally.no());
+        verify(liveTallyIndex).sum(storedTallies);
+        verifyNoInteractions(voteTallyRepository);
+        verify(voteRepository, never()).countAllByVoteOptionAndSession_Topic_Id(any(), anyLong());
+    }
+
+    @Test
+    void shouldFreezeTimelineOnlyWhenSessionIsClosedAndJournalIsEmpty() {
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        LocalDateTime end = start.plusMinutes(30);
+        SessionTimeline timeline = new SessionTimeline(start, 60, new long[31]);
+
+        when(voteJournal.hasPending()).thenReturn(false, true);
+        when(sessionTimelineIndex.get(eq(1L), eq(start), eq(end), anyBoolean())).thenReturn(timeline);
+
+        assertSame(timeline, voteService.getTimeline(1L, start, end, true));
+        assertSame(timeline, voteService.getTimeline(1L, start, end, true));
+
+        verify(sessionTimelineIndex).get(1L, start, end, true);
+        verify(sessionTimelineIndex).get(1L, start, end, false);
+    }
+
+    @Test
+    void shouldLoadAssociationsForFullRepresentation() {
+        User reference = new User();
+        reference.setId(10L);
+        Session sessionReference = new Session();
+        sessionReference.setId(1L);
 
-        Integer count = voteService.countByTopicAndOption(topicId, option);
+        Vote vote = new Vote();
+        vote.setUser(reference);
+        vote.setSession(sessionReference);
+
+        User user = new User();
+        Session session = new Session();
+
+        when(userService.get(10L)).thenReturn(user);
+        when(sessionService.get(1L)).thenReturn(session);
+
+        Vote result = voteService.loadDetails(vote);
+
+        assertSame(user, result.getUser());
+        assertSame(session, result.getSession());
+    }
+
+    @Test
+    void shouldRebuildTalliesOneSessionAtATime() {
+        when(voteTallyRepository.findAllSessionIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(voteTallyRepository.rebuild(1L)).thenReturn(2);
+        when(voteTallyRepository.rebuild(2L)).thenThrow(new DataIntegrityViolationException("fk"));
+        when(voteTallyRepository.rebuild(3L)).thenReturn(0);
+
+        assertEquals(2, voteService.rebuildTallies());
+
+        verify(voteJournal).drain();
+        verify(liveTallyIndex).invalidateAll();
+        verify(topicResultsVersions).bumpAll();
+    }
 
-        assertEquals(5, count);
-        verify(voteRepository).countAllByVoteOptionAndSession_Topic_Id(option, topicId);
+    private static VoteCastResult castResult(Long voteId, Boolean sessionOpen, Boolean userExists) {
+        return new VoteCastResult() {
+            @Override
+            public Long getVoteId() {
+                return voteId;
+            }
+
+            @Override
+            public Boolean getSessionOpen() {
+                return sessionOpen;
+            }
+
+            @Override
+            public Boolean getUserExists() {
+                return userExists;
+            }
+        };
     }
 }
@@ -0,0 +1,120 @@
+package rodrigoschonardt.votingapi.vote.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import rodrigoschonardt.votingapi.shared.exception.QueryTooBroadException;
+import rodrigoschonardt.votingapi.vote.domain.model.DistinctVoterEstimate;
+import rodrigoschonardt.votingapi.vote.domain.repository.VoterSketchRepository;
+import rodrigoschonardt.votingapi.vote.domain.sketch.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class VoterSketchIndexTest {
+    private final VoterSketchRepository voterSketchRepository = mock(VoterSketchRepository.class);
+    private final VoterSketchIndex index = new VoterSketchIndex(voterSketchRepository, new SimpleMeterRegistry(), 100, 0,
+            2, 10);
+
+    @Test
+    void shouldMergeStoredSketchesWithPendingVotes() {
+        when(voterSketchRepository.findBySessionIds(anyCollection()))
+                .thenReturn(Map.of(1L, sketchOf(1, 2, 3), 2L, sketchOf(3, 4)));
+
+        index.add(2L, 5L);
+
+        assertEquals(5, index.union(List.of(1L, 2L)).estimate());
+        verify(voterSketchRepository, never()).merge(any(), any());
+    }
+
+    @Test
+    void shouldNotBuildMissingSketchesOnRead() {
+        when(voterSketchRepository.findBySessionIds(Set.of(1L))).thenReturn(Map.of());
+
+        index.add(1L, 5L);
+
+        assertEquals(1, index.union(List.of(1L)).estimate());
+        verify(voterSketchRepository, never()).merge(any(), any());
+    }
+
+    @Test
+    void shouldBackfillSessionsWithoutSketch() {
+        when(voterSketchRepository.findSessionIdsWithoutSketch(10)).thenReturn(List.of(1L, 2L));
+        when(voterSketchRepository.merge(eq(1L), any())).thenReturn(sketchOf(1, 2));
+        when(voterSketchRepository.merge(eq(2L), any())).thenThrow(new DataIntegrityViolationException("fk"));
+
+        assertEquals(1, index.backfill());
+        verify(voterSketchRepository).merge(1L, new HyperLogLog());
+    }
+
+    @Test
+    void shouldStorePendingVotesOnFlush() {
+        index.add(1L, 10L);
+        index.add(1L, 11L);
+        when(voterSketchRepository.merge(1L, sketchOf(10, 11))).thenReturn(sketchOf(10, 11));
+
+        index.flush();
+        index.flush();
+
+        verify(voterSketchRepository, times(1)).merge(1L, sketchOf(10, 11));
+    }
+
+    @Test
+    void shouldRetryFailedFlushAndDropRemovedSessions() {
+        index.add(1L, 10L);
+        index.add(2L, 20L);
+        when(voterSketchRepository.merge(eq(1L), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(sketchOf(10));
+        when(voterSketchRepository.merge(eq(2L), any())).thenThrow(new DataIntegrityViolationException("fk"));
+
+        index.flush();
+        index.flush();
+
+        verify(voterSketchRepository, times(2)).merge(eq(1L), any());
+        verify(voterSketchRepository, times(1)).merge(eq(2L), any());
+    }
+
+    @Test
+    void shouldEstimateOverMatchedSessions() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        when(voterSketchRepository.findSessionIds(List.of(), List.of(), from, to, 3)).thenReturn(List.of(1L, 2L));
+        when(voterSketchRepository.findBySessionIds(anyCollection())).thenReturn(Map.of(1L, sketchOf(1, 2)));
+
+        index.add(2L, 3L);
+        DistinctVoterEstimate estimate = index.estimate(List.of(), List.of(), from, to);
+
+        assertEquals(2, estimate.sessionsCount());
+        assertEquals(3, estimate.distinctVoters());
+        assertEquals(HyperLogLog.relativeError(), estimate.relativeError());
+        assertEquals(1, estimate.sessionsWithoutSketch());
+    }
+
+    @Test
+    void shouldRejectQueriesMatchingTooManySessions() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 0, 0);
+        when(voterSketchRepository.findSessionIds(List.of(), List.of(), from, null, 3)).thenReturn(List.of(1L, 2L, 3L));
+
+        assertThrows(QueryTooBroadException.class, () -> index.estimate(List.of(), List.of(), from, null));
+        verify(voterSketchRepository, never()).findBySessionIds(anyCollection());
+    }
+
+    private static HyperLogLog sketchOf(long... userIds) {
+        HyperLogLog sketch = new HyperLogLog();
+
+        for (long userId : userIds) {
+            sketch.offer(userId);
+        }
+
+        return sketch;
+    }
+}
@@ -0,0 +1,75 @@
+package rodrigoschonardt.votingapi.vote.domain.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void shouldBeExactForEmptySketch() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.estimate());
+    }
+
+    @Test
+    void shouldIgnoreRepeatedValues() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        for (int i = 0; i < 10; i++) {
+            LongStream.rangeClosed(1, 100).forEach(sketch::offer);
+        }
+
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    void shouldEstimateLargeCardinalityWithinBoundedError() {
+        HyperLogLog sketch = new HyperLogLog();
+        LongStream.rangeClosed(1, 1_000_000).forEach(sketch::offer);
+
+        // 3 erros padrão
+        assertEquals(1_000_000, sketch.estimate(), 1_000_000 * 3 * HyperLogLog.relativeError());
+    }
+
+    @Test
+    void shouldNotDoubleCountVotersSharedBetweenMergedSketches() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        LongStream.rangeClosed(1, 60_000).forEach(first::offer);
+        LongStream.rangeClosed(40_001, 100_000).forEach(second::offer);
+
+        long estimate = new HyperLogLog().merge(first).merge(second).estimate();
+
+        assertEquals(100_000, estimate, 100_000 * 3 * HyperLogLog.relativeError());
+    }
+
+    @Test
+    void shouldRoundTripThroughBytes() {
+        HyperLogLog sketch = new HyperLogLog();
+        LongStream.rangeClosed(1, 5_000).forEach(sketch::offer);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch, restored);
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[10]));
+    }
+
+    @Test
+    void shouldAcceptConcurrentOffers() {
+        HyperLogLog concurrent = new HyperLogLog();
+        HyperLogLog sequential = new HyperLogLog();
+
+        IntStream.range(0, 8).parallel()
+                .forEach(thread -> LongStream.range(thread * 10_000L, (thread + 1) * 10_000L).forEach(concurrent::offer));
+        LongStream.range(0, 80_000).forEach(sequential::offer);
+
+        assertEquals(sequential, concurrent);
+    }
+}
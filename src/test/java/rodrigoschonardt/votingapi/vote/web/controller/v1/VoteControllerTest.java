@@ -1,6 +1,7 @@
 package rodrigoschonardt.votingapi.vote.web.controller.v1;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -14,18 +15,29 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import rodrigoschonardt.votingapi.session.web.dto.SessionDetailsData;
 import rodrigoschonardt.votingapi.shared.exception.EntityNotFoundException;
+import rodrigoschonardt.votingapi.shared.idempotency.IdempotencyCache;
 import rodrigoschonardt.votingapi.user.web.dto.UserDetailsData;
+import rodrigoschonardt.votingapi.vote.domain.model.DistinctVoterEstimate;
 import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastResult;
 import rodrigoschonardt.votingapi.vote.domain.service.VoteService;
+import rodrigoschonardt.votingapi.vote.web.dto.AddVoteBatchData;
 import rodrigoschonardt.votingapi.vote.web.dto.AddVoteData;
+import rodrigoschonardt.votingapi.vote.web.dto.DistinctVotersQueryData;
 import rodrigoschonardt.votingapi.vote.web.dto.UpdateVoteData;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteBatchItemData;
 import rodrigoschonardt.votingapi.vote.web.dto.VoteDetailsData;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteSummaryData;
 import rodrigoschonardt.votingapi.vote.web.mapper.VoteMapper;
+import rodrigoschonardt.votingapi.vote.web.stream.VoteStreamProcessor;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -58,6 +70,16 @@ class VoteControllerTest {
         public VoteMapper voteMapper() {
             return mock(VoteMapper.class);
         }
+
+        @Bean
+        public IdempotencyCache idempotencyCache() {
+            return new IdempotencyCache(new SimpleMeterRegistry(), 100, 60, 1000);
+        }
+
+        @Bean
+        public VoteStreamProcessor voteStreamProcessor() {
+            return mock(VoteStreamProcessor.class);
+        }
     }
 
     @Test
@@ -71,13 +93,17 @@ class VoteControllerTest {
         VoteDetailsData voteDetails = new VoteDetailsData(1L, Vote.VoteOption.YES, null, null, LocalDateTime.now());
 
         when(voteService.add(any(AddVoteData.class))).thenReturn(vote);
+        when(voteService.loadDetails(vote)).thenReturn(vote);
         when(voteMapper.toVoteDetails(vote)).thenReturn(voteDetails);
 
         mockMvc.perform(post("/api/v1/votes")
+                        .header("Prefer", "return=representation")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(voteData)))
                 .andExpect(status().isCreated())
                 .andExpect(header().exists("Location"))
+                .andExpect(header().string("Preference-Applied", "return=representation"))
+                .andExpect(header().string("Vary", "Prefer, Accept"))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.voteOption").value("YES"));
 
@@ -85,6 +111,155 @@ class VoteControllerTest {
         verify(voteMapper).toVoteDetails(vote);
     }
 
+    @Test
+    void shouldReturnMinimalVoteWhenPreferred() throws Exception {
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.YES, 5L, 3L);
+        Vote vote = new Vote();
+        vote.setId(30L);
+
+        when(voteService.add(voteData)).thenReturn(vote);
+        when(voteMapper.toVoteSummary(vote)).thenReturn(new VoteSummaryData(30L, Vote.VoteOption.YES, 3L, 5L, LocalDateTime.now()));
+
+        mockMvc.perform(post("/api/v1/votes")
+                        .header("Prefer", "return=minimal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(voteData)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(header().string("Vary", "Prefer, Accept"))
+                .andExpect(jsonPath("$.id").value(30))
+                .andExpect(jsonPath("$.sessionId").value(3))
+                .andExpect(jsonPath("$.userId").value(5))
+                .andExpect(jsonPath("$.user").doesNotExist());
+
+        verify(voteMapper, never()).toVoteDetails(vote);
+    }
+
+    @Test
+    void shouldReturnMinimalVoteForMediaTypeParameter() throws Exception {
+        UpdateVoteData voteData = new UpdateVoteData(31L, Vote.VoteOption.NO);
+        Vote vote = new Vote();
+        vote.setId(31L);
+
+        when(voteService.update(voteData)).thenReturn(vote);
+        when(voteMapper.toVoteSummary(vote)).thenReturn(new VoteSummaryData(31L, Vote.VoteOption.NO, 3L, 5L, LocalDateTime.now()));
+
+        mockMvc.perform(put("/api/v1/votes")
+                        .accept("application/json;view=minimal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(voteData)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Preference-Applied"))
+                .andExpect(header().string("Vary", "Prefer, Accept"))
+                .andExpect(jsonPath("$.voteOption").value("NO"))
+                .andExpect(jsonPath("$.session").doesNotExist());
+
+        verify(voteMapper, never()).toVoteDetails(vote);
+    }
+
+    @Test
+    void shouldReplayVoteCreationWithSameIdempotencyKey() throws Exception {
+        AddVoteData voteData = new AddVoteData(Vote.VoteOption.NO, 77L, 7L);
+        Vote vote = new Vote();
+        vote.setId(70L);
+
+        VoteDetailsData voteDetails = new VoteDetailsData(70L, Vote.VoteOption.NO, null, null, LocalDateTime.now());
+
+        when(voteService.add(voteData)).thenReturn(vote);
+        when(voteService.loadDetails(vote)).thenReturn(vote);
+        when(voteMapper.toVoteDetails(vote)).thenReturn(voteDetails);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/v1/votes")
+                            .header(IdempotencyCache.HEADER, "vote-retry-key")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(voteData)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().exists("Location"))
+                    .andExpect(jsonPath("$.id").value(70));
+        }
+
+        mockMvc.perform(post("/api/v1/votes")
+                        .header(IdempotencyCache.HEADER, "vote-retry-key")
+                        .header("Prefer", "return=minimal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(voteData)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(post("/api/v1/votes")
+                        .header(IdempotencyCache.HEADER, "vote-retry-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AddVoteData(Vote.VoteOption.YES, 77L, 7L))))
+                .andExpect(status().isConflict());
+
+        verify(voteService, times(1)).add(voteData);
+    }
+
+    @Test
+    void shouldAddVoteBatchAndReturnStatusPerItem() throws Exception {
+        AddVoteData created = new AddVoteData(Vote.VoteOption.YES, 1L, 1L);
+        AddVoteData duplicate = new AddVoteData(Vote.VoteOption.NO, 2L, 1L);
+        VoteCastResult createdResult = mock(VoteCastResult.class);
+        VoteCastResult duplicateResult = mock(VoteCastResult.class);
+
+        when(voteService.addAll(anyList())).thenReturn(List.of(createdResult, duplicateResult));
+        when(voteMapper.toBatchItem(created, createdResult))
+                .thenReturn(new VoteBatchItemData(1L, 1L, 10L, VoteBatchItemData.Status.CREATED));
+        when(voteMapper.toBatchItem(duplicate, duplicateResult))
+                .thenReturn(new VoteBatchItemData(2L, 1L, null, VoteBatchItemData.Status.DUPLICATE));
+
+        mockMvc.perform(post("/api/v1/votes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AddVoteBatchData(List.of(created, duplicate)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].voteId").value(10))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("DUPLICATE"));
+
+        verify(voteService).addAll(List.of(created, duplicate));
+    }
+
+    @Test
+    void shouldReturn400WhenVoteBatchIsEmpty() throws Exception {
+        mockMvc.perform(post("/api/v1/votes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AddVoteBatchData(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verify(voteService, never()).addAll(anyList());
+    }
+
+    @Test
+    void shouldEstimateDistinctVoters() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 6, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        DistinctVotersQueryData queryData = new DistinctVotersQueryData(List.of(1L, 2L), null, from, to);
+
+        when(voteService.estimateDistinctVoters(List.of(1L, 2L), List.of(), from, to))
+                .thenReturn(new DistinctVoterEstimate(3, 1200L, 0.008, 1));
+
+        mockMvc.perform(post("/api/v1/votes/distinct-voters")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(queryData)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessionsCount").value(3))
+                .andExpect(jsonPath("$.distinctVoters").value(1200))
+                .andExpect(jsonPath("$.relativeError").value(0.008))
+                .andExpect(jsonPath("$.sessionsWithoutSketch").value(1));
+    }
+
+    @Test
+    void shouldRejectUnfilteredDistinctVotersQuery() throws Exception {
+        DistinctVotersQueryData queryData = new DistinctVotersQueryData(null, null, null, null);
+
+        mockMvc.perform(post("/api/v1/votes/distinct-voters")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(queryData)))
+                .andExpect(status().isBadRequest());
+
+        verify(voteService, never()).estimateDistinctVoters(anyCollection(), anyCollection(), any(), any());
+    }
+
     @Test
     void shouldUpdateVoteAndReturn200() throws Exception {
         UpdateVoteData voteData = new UpdateVoteData(1L, Vote.VoteOption.NO);
@@ -96,6 +271,7 @@ class VoteControllerTest {
         VoteDetailsData voteDetails = new VoteDetailsData(1L, Vote.VoteOption.NO, null, null, LocalDateTime.now());
 
         when(voteService.update(any(UpdateVoteData.class))).thenReturn(vote);
+        when(voteService.loadDetails(vote)).thenReturn(vote);
         when(voteMapper.toVoteDetails(vote)).thenReturn(voteDetails);
 
         mockMvc.perform(put("/api/v1/votes")
@@ -0,0 +1,44 @@
+package rodrigoschonardt.votingapi.vote.web.controller.v1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import rodrigoschonardt.votingapi.vote.domain.service.VoteService;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(VoteTallyController.class)
+@Import(VoteTallyControllerTest.TestConfig.class)
+class VoteTallyControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VoteService voteService;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public VoteService voteService() {
+            return mock(VoteService.class);
+        }
+    }
+
+    @Test
+    void shouldRebuildTalliesAndReturn200() throws Exception {
+        when(voteService.rebuildTallies()).thenReturn(32);
+
+        mockMvc.perform(post("/api/v1/admin/tallies/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(32));
+
+        verify(voteService).rebuildTallies();
+    }
+}
@@ -0,0 +1,103 @@
+package rodrigoschonardt.votingapi.vote.web.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rodrigoschonardt.votingapi.session.web.mapper.SessionMapper;
+import rodrigoschonardt.votingapi.user.web.mapper.UserMapper;
+import rodrigoschonardt.votingapi.vote.domain.model.Vote;
+import rodrigoschonardt.votingapi.vote.domain.repository.projection.VoteCastRow;
+import rodrigoschonardt.votingapi.vote.domain.service.VoteService;
+import rodrigoschonardt.votingapi.vote.web.dto.AddVoteData;
+import rodrigoschonardt.votingapi.vote.web.dto.VoteBatchItemData;
+import rodrigoschonardt.votingapi.vote.web.mapper.VoteMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class VoteStreamProcessorTest {
+    private final VoteService voteService = mock(VoteService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private VoteStreamProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        VoteMapper voteMapper = new VoteMapper(mock(UserMapper.class), mock(SessionMapper.class));
+        processor = new VoteStreamProcessor(voteService, voteMapper, objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, 100);
+    }
+
+    @Test
+    void shouldWriteOneResultPerLineInOrder() throws Exception {
+        String input = """
+                {"voteOption":"YES","userId":1,"sessionId":1}
+                not json
+                {"voteOption":"NO","userId":2,"sessionId":1}
+
+                {"voteOption":"YES","sessionId":1}
+                {"voteOption":"YES","userId":1,"sessionId":1}
+                """;
+
+        when(voteService.addAll(anyList())).thenAnswer(invocation -> {
+            List<AddVoteData> votes = invocation.getArgument(0);
+            return votes.stream().map(vote -> vote.voteOption() == Vote.VoteOption.NO ? VoteCastRow.duplicate() :
+                    new VoteCastRow(10L, true, true)).toList();
+        });
+
+        List<VoteBatchItemData> items = process(input);
+
+        assertEquals(5, items.size());
+        assertEquals(VoteBatchItemData.Status.CREATED, items.get(0).status());
+        assertEquals(10L, items.get(0).voteId());
+        assertEquals(VoteBatchItemData.Status.INVALID, items.get(1).status());
+        assertEquals(VoteBatchItemData.Status.DUPLICATE, items.get(2).status());
+        assertEquals(VoteBatchItemData.Status.INVALID, items.get(3).status());
+        assertEquals(1L, items.get(3).sessionId());
+        assertEquals(VoteBatchItemData.Status.CREATED, items.get(4).status());
+    }
+
+    @Test
+    void shouldNotCallServiceWhenBatchHasNoValidVotes() throws Exception {
+        List<VoteBatchItemData> items = process("{}\n[]\n");
+
+        assertEquals(2, items.size());
+        verifyNoInteractions(voteService);
+    }
+
+    @Test
+    void shouldMarkLinesOverTheLimitAsInvalid() throws Exception {
+        String input = "{\"voteOption\":\"YES\",\"userId\":1,\"sessionId\":1,\"padding\":\"" + "x".repeat(20_000)
+                + "\"}\n{\"voteOption\":\"YES\",\"userId\":2,\"sessionId\":1}\n";
+
+        when(voteService.addAll(anyList())).thenReturn(List.of(new VoteCastRow(10L, true, true)));
+
+        List<VoteBatchItemData> items = process(input);
+
+        assertEquals(2, items.size());
+        assertEquals(VoteBatchItemData.Status.INVALID, items.get(0).status());
+        assertEquals(VoteBatchItemData.Status.CREATED, items.get(1).status());
+        verify(voteService).addAll(argThat(votes -> votes.size() == 1 && votes.getFirst().userId().equals(2L)));
+    }
+
+    private List<VoteBatchItemData> process(String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        processor.process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, VoteBatchItemData.class);
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }).toList();
+    }
+}